@@ -0,0 +1,52 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.benchmark;
+
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+
+/**
+ * Never connects, it only supplies the Gson and JsonParser the services parse with
+ */
+public class BenchmarkRestConnection extends RestConnection {
+    public BenchmarkRestConnection() {
+        super(null, null, 120);
+    }
+
+    @Override
+    public void addBuilderAuthentication() throws HubIntegrationException {
+        // do nothing
+    }
+
+    @Override
+    public void connect() throws HubIntegrationException {
+        // do nothing
+    }
+
+    @Override
+    public void clientAuthenticate() throws HubIntegrationException {
+        // do nothing
+    }
+
+}
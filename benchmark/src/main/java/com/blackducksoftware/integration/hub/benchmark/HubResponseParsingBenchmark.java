@@ -0,0 +1,110 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.model.view.ProjectView;
+import com.blackducksoftware.integration.hub.model.view.VersionBomComponentView;
+import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.paging.HubPage;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Compares parsing a whole page into a JSON tree first (getItems) against reading the items from the stream (readPage), for BOM component and
+ * project pages. Run with -prof gc to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HubResponseParsingBenchmark {
+    @Param({ "100", "1000" })
+    public int pageSize;
+
+    @Param({ "true", "false" })
+    public boolean retainItemJson;
+
+    private HubResponseService hubResponseService;
+
+    private String bomComponentPage;
+
+    private String projectPage;
+
+    @Setup
+    public void setup() {
+        hubResponseService = new HubResponseService(new BenchmarkRestConnection());
+        hubResponseService.setRetainItemJson(retainItemJson);
+        bomComponentPage = PagePayloads.createBomComponentPage(pageSize);
+        projectPage = PagePayloads.createProjectPage(pageSize);
+    }
+
+    @Benchmark
+    public List<VersionBomComponentView> bomComponentsFromTree() throws IntegrationException {
+        final JsonObject page = hubResponseService.getJsonParser().parse(bomComponentPage).getAsJsonObject();
+        return hubResponseService.getItems(page, VersionBomComponentView.class);
+    }
+
+    @Benchmark
+    public HubPage<VersionBomComponentView> bomComponentsFromStream() throws IOException {
+        return hubResponseService.readPage(createReader(bomComponentPage), VersionBomComponentView.class);
+    }
+
+    @Benchmark
+    public List<ProjectView> projectsFromTree() throws IntegrationException {
+        final JsonObject page = hubResponseService.getJsonParser().parse(projectPage).getAsJsonObject();
+        return hubResponseService.getItems(page, ProjectView.class);
+    }
+
+    @Benchmark
+    public HubPage<ProjectView> projectsFromStream() throws IOException {
+        return hubResponseService.readPage(createReader(projectPage), ProjectView.class);
+    }
+
+    private JsonReader createReader(final String payload) {
+        final JsonReader reader = new JsonReader(new StringReader(payload));
+        reader.setLenient(true);
+        return reader;
+    }
+
+}
@@ -0,0 +1,97 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.benchmark;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.api.notification.NotificationRequestService;
+import com.blackducksoftware.integration.hub.api.item.MetaService;
+import com.blackducksoftware.integration.hub.model.view.NotificationView;
+import com.blackducksoftware.integration.hub.service.paging.HubPage;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * Notification pages built from the recorded notifications, parsed through the JSON tree (getItems) and from the stream (readPage). Run with -prof gc
+ * to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationParsingBenchmark {
+    @Param({ "100", "1000" })
+    public int pageSize;
+
+    @Param({ "true", "false" })
+    public boolean retainItemJson;
+
+    private NotificationRequestService notificationRequestService;
+
+    private JsonParser jsonParser;
+
+    private String notificationPage;
+
+    @Setup
+    public void setup() throws IOException {
+        final BenchmarkRestConnection restConnection = new BenchmarkRestConnection();
+        notificationRequestService = new NotificationRequestService(null, restConnection, new MetaService(null));
+        notificationRequestService.setRetainItemJson(retainItemJson);
+        jsonParser = restConnection.jsonParser;
+        notificationPage = PagePayloads.createNotificationPage(pageSize);
+    }
+
+    @Benchmark
+    public List<NotificationView> notificationsFromTree() throws IntegrationException {
+        final JsonObject page = jsonParser.parse(notificationPage).getAsJsonObject();
+        return notificationRequestService.getItems(page);
+    }
+
+    @Benchmark
+    public HubPage<NotificationView> notificationsFromStream() throws IOException {
+        final JsonReader reader = new JsonReader(new StringReader(notificationPage));
+        reader.setLenient(true);
+        return notificationRequestService.readPage(reader);
+    }
+
+}
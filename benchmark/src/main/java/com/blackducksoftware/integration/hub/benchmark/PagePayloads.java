@@ -0,0 +1,125 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Builds page payloads in the shape the Hub returns them. Notification pages repeat the notifications recorded in src/test/resources/json, BOM and
+ * project pages are generated since no recorded pages of them are kept.
+ */
+public class PagePayloads {
+    private static final String[] RECORDED_NOTIFICATIONS = { "json/RuleViolationNotification_valid03.txt", "json/RuleViolationClearedNotification_valid04.txt" };
+
+    private static final String HUB_URL = "https://hub-server.com";
+
+    public static String createNotificationPage(final int pageSize) throws IOException {
+        final List<String> recordedNotifications = new ArrayList<>();
+        for (final String resource : RECORDED_NOTIFICATIONS) {
+            try (InputStream inputStream = PagePayloads.class.getClassLoader().getResourceAsStream(resource)) {
+                recordedNotifications.add(IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+            }
+        }
+        final List<String> items = new ArrayList<>();
+        for (int index = 0; index < pageSize; index++) {
+            items.add(recordedNotifications.get(index % recordedNotifications.size()));
+        }
+        return createPage(pageSize * 10, items);
+    }
+
+    public static String createBomComponentPage(final int pageSize) {
+        final List<String> items = new ArrayList<>();
+        for (int index = 0; index < pageSize; index++) {
+            final String componentUrl = HUB_URL + "/api/components/" + UUID.randomUUID();
+            final String componentVersionUrl = componentUrl + "/versions/" + UUID.randomUUID();
+            final StringBuilder item = new StringBuilder();
+            item.append("{\"componentName\":\"Component ").append(index).append("\",");
+            item.append("\"componentVersionName\":\"").append(index % 7).append(".").append(index % 13).append(".0\",");
+            item.append("\"component\":\"").append(componentUrl).append("\",");
+            item.append("\"componentVersion\":\"").append(componentVersionUrl).append("\",");
+            item.append("\"releasedOn\":\"2017-03-").append(10 + index % 18).append("T12:00:00.000Z\",");
+            item.append("\"reviewStatus\":\"NOT_REVIEWED\",\"approvalStatus\":\"NOT_IN_VIOLATION\",\"policyStatus\":\"NOT_IN_VIOLATION\",");
+            item.append("\"licenses\":[{\"licenseType\":\"CONJUNCTIVE\",\"licenses\":[{\"license\":\"").append(HUB_URL).append("/api/licenses/").append(UUID.randomUUID())
+                    .append("\",\"licenseDisplay\":\"Apache License 2.0\",\"licenseType\":null,\"licenses\":[]}],\"licenseDisplay\":\"Apache License 2.0\"}],");
+            item.append("\"origins\":[{\"name\":\"").append(index).append("\",\"externalNamespace\":\"maven\",\"externalId\":\"org.example:component-").append(index)
+                    .append(":1.0\",\"externalNamespaceDistribution\":false}],");
+            item.append("\"usages\":[\"DYNAMICALLY_LINKED\"],\"matchTypes\":[\"FILE_DEPENDENCY_DIRECT\"],");
+            item.append("\"securityRiskProfile\":{\"counts\":[{\"countType\":\"UNKNOWN\",\"count\":0},{\"countType\":\"OK\",\"count\":1},")
+                    .append("{\"countType\":\"LOW\",\"count\":0},{\"countType\":\"MEDIUM\",\"count\":").append(index % 3).append("},{\"countType\":\"HIGH\",\"count\":0}]},");
+            item.append(createMeta(componentVersionUrl, "matched-files", "vulnerabilities", "policy-rules"));
+            item.append("}");
+            items.add(item.toString());
+        }
+        return createPage(pageSize * 10, items);
+    }
+
+    public static String createProjectPage(final int pageSize) {
+        final List<String> items = new ArrayList<>();
+        for (int index = 0; index < pageSize; index++) {
+            final String projectUrl = HUB_URL + "/api/projects/" + UUID.randomUUID();
+            final StringBuilder item = new StringBuilder();
+            item.append("{\"name\":\"Project ").append(index).append("\",");
+            item.append("\"description\":\"A generated project used to benchmark parsing project listings\",");
+            item.append("\"projectLevelAdjustments\":true,\"projectTier\":").append(1 + index % 5).append(",\"source\":\"CUSTOM\",");
+            item.append(createMeta(projectUrl, "versions", "canonicalVersion", "project-mappings"));
+            item.append("}");
+            items.add(item.toString());
+        }
+        return createPage(pageSize * 10, items);
+    }
+
+    private static String createMeta(final String href, final String... links) {
+        final StringBuilder meta = new StringBuilder();
+        meta.append("\"_meta\":{\"allow\":[\"GET\",\"PUT\",\"DELETE\"],\"href\":\"").append(href).append("\",\"links\":[");
+        for (int index = 0; index < links.length; index++) {
+            if (index > 0) {
+                meta.append(",");
+            }
+            meta.append("{\"rel\":\"").append(links[index]).append("\",\"href\":\"").append(href).append("/").append(links[index]).append("\"}");
+        }
+        meta.append("]}");
+        return meta.toString();
+    }
+
+    private static String createPage(final int totalCount, final List<String> items) {
+        final StringBuilder page = new StringBuilder();
+        page.append("{\"totalCount\":").append(totalCount).append(",\"items\":[");
+        for (int index = 0; index < items.size(); index++) {
+            if (index > 0) {
+                page.append(",");
+            }
+            page.append(items.get(index));
+        }
+        page.append("]}");
+        return page.toString();
+    }
+
+}
@@ -0,0 +1,173 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.dataservice.ItemTransform;
+import com.blackducksoftware.integration.hub.dataservice.parallel.ParallelResourceProcessor;
+import com.blackducksoftware.integration.hub.dataservice.parallel.ParallelResourceProcessorResults;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Transforms that each request a project version from a local mock Hub answering after hubLatencyMillis, processed on platform threads and on virtual
+ * threads with the same concurrency limit. The virtual mode needs Java 21, run it with -p executor=platform on older JVMs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelProcessorBenchmark {
+    private static final String PROJECT_VERSION_JSON = "{\"versionName\":\"1.0\",\"phase\":\"DEVELOPMENT\",\"distribution\":\"EXTERNAL\",\"_meta\":{\"href\":\"http://localhost/api/projects/1/versions/1\",\"links\":[]}}";
+
+    @Param({ "platform", "virtual" })
+    public String executor;
+
+    @Param({ "4", "64" })
+    public int maxConcurrency;
+
+    @Param({ "20" })
+    public int hubLatencyMillis;
+
+    @Param({ "200" })
+    public int itemCount;
+
+    private HttpServer mockHub;
+
+    private ExecutorService mockHubExecutor;
+
+    private HubExecutor hubExecutor;
+
+    private ParallelResourceProcessor<ProjectVersionView, Integer> processor;
+
+    private List<Integer> items;
+
+    @Setup
+    public void setup() throws IOException {
+        mockHub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        mockHub.createContext("/api/projects", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    Thread.sleep(hubLatencyMillis);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                final byte[] body = PROJECT_VERSION_JSON.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            }
+        });
+        mockHubExecutor = Executors.newCachedThreadPool();
+        mockHub.setExecutor(mockHubExecutor);
+        mockHub.start();
+
+        if ("virtual".equals(executor)) {
+            hubExecutor = HubExecutor.createVirtualThreadExecutor("benchmark", maxConcurrency);
+        } else {
+            hubExecutor = new HubExecutor("benchmark", maxConcurrency, itemCount);
+        }
+        processor = new ParallelResourceProcessor<>(null, hubExecutor);
+        processor.addTransform(Integer.class, new MockHubTransform("http://localhost:" + mockHub.getAddress().getPort() + "/api/projects/"));
+        items = new ArrayList<>();
+        for (int index = 0; index < itemCount; index++) {
+            items.add(index);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        hubExecutor.close();
+        mockHub.stop(0);
+        mockHubExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public ParallelResourceProcessorResults<ProjectVersionView> processItems() {
+        return processor.process(items);
+    }
+
+    private static class MockHubTransform implements ItemTransform<List<ProjectVersionView>, Integer> {
+        private final String projectsUrl;
+
+        private final Gson gson = new Gson();
+
+        public MockHubTransform(final String projectsUrl) {
+            this.projectsUrl = projectsUrl;
+        }
+
+        @Override
+        public List<ProjectVersionView> transform(final Integer item) throws IntegrationException {
+            try {
+                final HttpURLConnection connection = (HttpURLConnection) new URL(projectsUrl + item + "/versions/1").openConnection();
+                try (InputStream inputStream = connection.getInputStream()) {
+                    return Collections.singletonList(gson.fromJson(new InputStreamReader(inputStream, StandardCharsets.UTF_8), ProjectVersionView.class));
+                } finally {
+                    connection.disconnect();
+                }
+            } catch (final IOException e) {
+                throw new HubIntegrationException(e);
+            }
+        }
+    }
+
+}
@@ -25,6 +25,7 @@ package com.blackducksoftware.integration.hub.api.aggregate.bom;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.api.item.MetaService;
@@ -58,4 +59,46 @@ public class AggregateBomRequestService extends HubResponseService {
         return allComponentItems;
     }
 
+    /**
+     * The remaining pages are fetched in parallel once the first page reports the totalCount, at most maxConcurrentPages at a time
+     */
+    public List<VersionBomComponentView> getBomEntries(final ProjectVersionView projectVersion, final int maxConcurrentPages) throws IntegrationException {
+        if (metaService.hasLink(projectVersion, MetaService.COMPONENTS_LINK)) {
+            final String componentURL = metaService.getFirstLink(projectVersion, MetaService.COMPONENTS_LINK);
+            return getBomEntries(componentURL, maxConcurrentPages);
+        } else {
+            // In some versions of the Hub, if the BOM is empty the version will not have the components link
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * The remaining pages are fetched in parallel once the first page reports the totalCount, at most maxConcurrentPages at a time
+     */
+    public List<VersionBomComponentView> getBomEntries(final String componentsUrl, final int maxConcurrentPages) throws IntegrationException {
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(componentsUrl);
+        return getAllItemsConcurrently(hubPagedRequest, VersionBomComponentView.class, maxConcurrentPages);
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<VersionBomComponentView> streamBomEntries(final ProjectVersionView projectVersion) throws IntegrationException {
+        if (metaService.hasLink(projectVersion, MetaService.COMPONENTS_LINK)) {
+            final String componentURL = metaService.getFirstLink(projectVersion, MetaService.COMPONENTS_LINK);
+            return streamBomEntries(componentURL);
+        } else {
+            // In some versions of the Hub, if the BOM is empty the version will not have the components link
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<VersionBomComponentView> streamBomEntries(final String componentsUrl) {
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(componentsUrl);
+        return streamAllItems(hubPagedRequest, VersionBomComponentView.class);
+    }
+
 }
@@ -29,6 +29,7 @@ import com.blackducksoftware.integration.hub.model.view.IssueView;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 
 import okhttp3.Response;
 
@@ -43,26 +44,37 @@ public class BomComponentIssueRequestService extends HubResponseService {
 
     public String createIssue(final IssueView issueItem, final String url) throws IntegrationException {
         final HubRequest request = getHubRequestFactory().createRequest(url);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = request.executePost(getGson().toJson(issueItem));
             return response.header("location");
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
     public void updateIssue(final IssueView issueItem, final String url) throws IntegrationException {
         final HubRequest request = getHubRequestFactory().createRequest(url);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = request.executePut(getGson().toJson(issueItem));
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } finally {
+            invalidateCachedItem(url);
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
@@ -73,6 +85,7 @@ public class BomComponentIssueRequestService extends HubResponseService {
 
     public void deleteIssue(final String issueItemUrl) throws IntegrationException {
         final HubRequest request = getHubRequestFactory().createRequest(issueItemUrl);
-        request.executeDelete();
+        executeDelete(request);
+        invalidateCachedItem(issueItemUrl);
     }
 }
@@ -39,6 +39,7 @@ import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 
 import okhttp3.Response;
 
@@ -54,17 +55,22 @@ public class BomImportRequestService extends HubResponseService {
     }
 
     public void importBomFile(final File file, final String mediaType) throws IntegrationException {
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             final HubRequest hubRequest = getHubRequestFactory().createRequest(BOM_IMPORT_SEGMENTS);
             response = hubRequest.executePost(mediaType, FileUtils.readFileToString(file, StandardCharsets.UTF_8));
-
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } catch (final IOException e) {
+            // the file could not be read, nothing was sent to the Hub
             throw new HubIntegrationException("Failed to import Bom file: " + file.getAbsolutePath() + " to the Hub with Error : " + e.getMessage(), e);
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
@@ -29,6 +29,7 @@ import static com.blackducksoftware.integration.hub.api.UrlConstants.SEGMENT_COD
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -42,6 +43,7 @@ import com.blackducksoftware.integration.hub.request.HubPagedRequest;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 
 import okhttp3.Response;
 
@@ -76,6 +78,48 @@ public class CodeLocationRequestService extends HubResponseService {
         return allCodeLocations;
     }
 
+    /**
+     * The remaining pages are fetched in parallel once the first page reports the totalCount, at most maxConcurrentPages at a time
+     */
+    public List<CodeLocationView> getAllCodeLocations(final int maxConcurrentPages) throws IntegrationException {
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(CODE_LOCATION_SEGMENTS);
+        return getAllItemsConcurrently(hubPagedRequest, CodeLocationView.class, maxConcurrentPages);
+    }
+
+    /**
+     * The remaining pages are fetched in parallel once the first page reports the totalCount, at most maxConcurrentPages at a time
+     */
+    public List<CodeLocationView> getAllCodeLocationsForProjectVersion(final ProjectVersionView version, final int maxConcurrentPages) throws IntegrationException {
+        final String codeLocationUrl = metaService.getFirstLink(version, MetaService.CODE_LOCATION_LINK);
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(codeLocationUrl);
+        return getAllItemsConcurrently(hubPagedRequest, CodeLocationView.class, maxConcurrentPages);
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<CodeLocationView> streamAllCodeLocations() {
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(CODE_LOCATION_SEGMENTS);
+        return streamAllItems(hubPagedRequest, CodeLocationView.class);
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<CodeLocationView> streamAllCodeLocationsForCodeLocationType(final CodeLocationEnum codeLocationType) {
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(CODE_LOCATION_SEGMENTS).addQueryParameter("codeLocationType", codeLocationType.toString());
+        return streamAllItems(hubPagedRequest, CodeLocationView.class);
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<CodeLocationView> streamAllCodeLocationsForProjectVersion(final ProjectVersionView version) throws IntegrationException {
+        final String codeLocationUrl = metaService.getFirstLink(version, MetaService.CODE_LOCATION_LINK);
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(codeLocationUrl);
+        return streamAllItems(hubPagedRequest, CodeLocationView.class);
+    }
+
     public void unmapCodeLocations(final List<CodeLocationView> codeLocationItems) throws IntegrationException {
         for (final CodeLocationView codeLocationItem : codeLocationItems) {
             unmapCodeLocation(codeLocationItem);
@@ -105,13 +149,19 @@ public class CodeLocationRequestService extends HubResponseService {
 
     public void updateCodeLocation(final String codeLocationItemUrl, final String codeLocationItemJson) throws IntegrationException {
         final HubRequest request = getHubRequestFactory().createRequest(codeLocationItemUrl);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = request.executePut(codeLocationItemJson);
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } finally {
+            invalidateCachedItem(codeLocationItemUrl);
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
 
     }
@@ -129,7 +179,8 @@ public class CodeLocationRequestService extends HubResponseService {
 
     public void deleteCodeLocation(final String codeLocationItemUrl) throws IntegrationException {
         final HubRequest request = getHubRequestFactory().createRequest(codeLocationItemUrl);
-        request.executeDelete();
+        executeDelete(request);
+        invalidateCachedItem(codeLocationItemUrl);
     }
 
     public CodeLocationView getCodeLocationByName(final String codeLocationName) throws IntegrationException {
@@ -36,6 +36,7 @@ import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 import com.google.gson.JsonObject;
 
 import okhttp3.Response;
@@ -49,6 +50,7 @@ public class HubRegistrationRequestService extends HubResponseService {
 
     public String getRegistrationId() throws IntegrationException {
         final HubRequest request = getHubRequestFactory().createRequest(REGISTRATION_SEGMENTS);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = request.executeGet();
@@ -56,12 +58,17 @@ public class HubRegistrationRequestService extends HubResponseService {
             final JsonObject jsonObject = getJsonParser().parse(jsonResponse).getAsJsonObject();
             final String registrationId = jsonObject.get("registrationId").getAsString();
             return registrationId;
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } catch (final IOException e) {
+            permit.failed(e);
             throw new HubIntegrationException(e);
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
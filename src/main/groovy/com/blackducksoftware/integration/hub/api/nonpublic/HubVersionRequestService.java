@@ -39,6 +39,7 @@ import com.blackducksoftware.integration.hub.model.response.VersionComparison;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 
 import okhttp3.Response;
 
@@ -53,37 +54,32 @@ public class HubVersionRequestService extends HubResponseService {
 
     public String getHubVersion() throws IntegrationException {
         final HubRequest request = getHubRequestFactory().createRequest(CURRENT_VERSION_SEGMENTS);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = request.executeGet();
             final String hubVersionWithPossibleSurroundingQuotes = response.body().string();
             final String hubVersion = hubVersionWithPossibleSurroundingQuotes.replace("\"", "");
             return hubVersion;
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } catch (final IOException e) {
+            permit.failed(e);
             throw new HubIntegrationException(e);
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
     public VersionComparison getHubVersionComparison(final String consumerVersion) throws IntegrationException {
         final HubRequest hubVersionRequest = getHubRequestFactory().createRequest(CURRENT_VERSION_COMPARISON_SEGMENTS).addQueryParameter(QUERY_VERSION,
                 consumerVersion);
-        Response response = null;
-        try {
-            response = hubVersionRequest.executeGet();
-            final String jsonResponse = response.body().string();
-            final VersionComparison versionComparison = getItemAs(jsonResponse, VersionComparison.class);
-            return versionComparison;
-        } catch (final IOException e) {
-            throw new HubIntegrationException(e);
-        } finally {
-            if (response != null) {
-                response.close();
-            }
-        }
+        final VersionComparison versionComparison = getItem(hubVersionRequest, VersionComparison.class);
+        return versionComparison;
     }
 
     public boolean isConsumerVersionLessThanOrEqualToServerVersion(final String consumerVersion) throws IntegrationException {
@@ -27,18 +27,31 @@ import static com.blackducksoftware.integration.hub.api.UrlConstants.SEGMENT_API
 import static com.blackducksoftware.integration.hub.api.UrlConstants.SEGMENT_NOTIFICATIONS;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.stream.Stream;
 
 import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.api.item.MetaService;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubPagingException;
 import com.blackducksoftware.integration.hub.model.view.NotificationView;
 import com.blackducksoftware.integration.hub.model.view.PolicyOverrideNotificationView;
 import com.blackducksoftware.integration.hub.model.view.RuleViolationClearedNotificationView;
@@ -48,16 +61,35 @@ import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificatio
 import com.blackducksoftware.integration.hub.request.HubPagedRequest;
 import com.blackducksoftware.integration.hub.request.HubRequestFactory;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.executor.HubTaskGroup;
+import com.blackducksoftware.integration.hub.service.metrics.HubRequestListener;
+import com.blackducksoftware.integration.hub.service.metrics.HubRequestTimer;
+import com.blackducksoftware.integration.hub.service.paging.AdaptivePageSizer;
+import com.blackducksoftware.integration.hub.service.paging.CheckpointingPageFetcher;
+import com.blackducksoftware.integration.hub.service.paging.HubPage;
+import com.blackducksoftware.integration.hub.service.paging.HubPageFetcher;
+import com.blackducksoftware.integration.hub.service.paging.HubPagedItemIterator;
+import com.blackducksoftware.integration.hub.service.paging.HubPagingCheckpoint;
+import com.blackducksoftware.integration.hub.service.paging.RetryingPageFetcher;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
 import com.blackducksoftware.integration.log.IntLogger;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
 import okhttp3.Response;
 
 public class NotificationRequestService {
+    public static final int DEFAULT_MAX_PARTITION_ITEMS = 1000;
+
+    private static final long MIN_PARTITION_MILLIS = 1000L;
+
     private static final List<String> NOTIFICATIONS_SEGMENTS = Arrays.asList(SEGMENT_API, SEGMENT_NOTIFICATIONS);
 
     private final Map<String, Class<? extends NotificationView>> typeMap = new HashMap<>();
@@ -70,6 +102,22 @@ public class NotificationRequestService {
 
     private final Gson gson;
 
+    private boolean retainItemJson;
+
+    private AdaptivePageSizer pageSizer;
+
+    private RetryPolicy retryPolicy;
+
+    private HubRequestListener requestListener;
+
+    private HubRateLimiter rateLimiter;
+
+    private HubExecutor executor = HubExecutor.getSharedInstance();
+
+    private int partitionParallelism;
+
+    private int maxPartitionItems = DEFAULT_MAX_PARTITION_ITEMS;
+
     public NotificationRequestService(final IntLogger logger, final RestConnection restConnection, final MetaService metaService) {
         this.hubRequestFactory = new HubRequestFactory(restConnection);
         this.jsonParser = restConnection.jsonParser;
@@ -82,32 +130,157 @@ public class NotificationRequestService {
     }
 
     public List<NotificationView> getAllNotifications(final Date startDate, final Date endDate) throws IntegrationException {
-        final SimpleDateFormat sdf = new SimpleDateFormat(RestConnection.JSON_DATE_FORMAT);
-        sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
-        final String startDateString = sdf.format(startDate);
-        final String endDateString = sdf.format(endDate);
-
-        final HubPagedRequest hubPagedRequest = hubRequestFactory.createPagedRequest(100, NOTIFICATIONS_SEGMENTS);
-        hubPagedRequest.addQueryParameter("startDate", startDateString);
-        hubPagedRequest.addQueryParameter("endDate", endDateString);
-
+        if (partitionParallelism > 1) {
+            return getPartitionedNotifications(startDate, endDate, null);
+        }
+        final HubPagedRequest hubPagedRequest = createNotificationsRequest(startDate, endDate);
         final List<NotificationView> allNotificationItems = getAllItems(hubPagedRequest);
         return allNotificationItems;
     }
 
     public List<NotificationView> getUserNotifications(final Date startDate, final Date endDate, final UserView user) throws IntegrationException {
+        if (partitionParallelism > 1) {
+            return getPartitionedNotifications(startDate, endDate, user);
+        }
+        final HubPagedRequest hubPagedRequest = createUserNotificationsRequest(startDate, endDate, user);
+        final List<NotificationView> allNotificationItems = getAllItems(hubPagedRequest);
+        return allNotificationItems;
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<NotificationView> streamAllNotifications(final Date startDate, final Date endDate) {
+        final HubPagedRequest hubPagedRequest = createNotificationsRequest(startDate, endDate);
+        return streamAllItems(hubPagedRequest);
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<NotificationView> streamUserNotifications(final Date startDate, final Date endDate, final UserView user) throws IntegrationException {
+        final HubPagedRequest hubPagedRequest = createUserNotificationsRequest(startDate, endDate, user);
+        return streamAllItems(hubPagedRequest);
+    }
+
+    public HubPagedRequest createNotificationsRequest(final Date startDate, final Date endDate) {
+        final HubPagedRequest hubPagedRequest = hubRequestFactory.createPagedRequest(100, NOTIFICATIONS_SEGMENTS);
+        addDateRange(hubPagedRequest, startDate, endDate);
+        return hubPagedRequest;
+    }
+
+    public HubPagedRequest createUserNotificationsRequest(final Date startDate, final Date endDate, final UserView user) throws IntegrationException {
+        final String url = metaService.getFirstLink(user, MetaService.NOTIFICATIONS_LINK);
+        final HubPagedRequest hubPagedRequest = hubRequestFactory.createPagedRequest(100, url);
+        addDateRange(hubPagedRequest, startDate, endDate);
+        return hubPagedRequest;
+    }
+
+    private void addDateRange(final HubPagedRequest hubPagedRequest, final Date startDate, final Date endDate) {
         final SimpleDateFormat sdf = new SimpleDateFormat(RestConnection.JSON_DATE_FORMAT);
         sdf.setTimeZone(TimeZone.getTimeZone("UTC"));
         final String startDateString = sdf.format(startDate);
         final String endDateString = sdf.format(endDate);
-        final String url = metaService.getFirstLink(user, MetaService.NOTIFICATIONS_LINK);
 
-        final HubPagedRequest hubPagedRequest = hubRequestFactory.createPagedRequest(100, url);
         hubPagedRequest.addQueryParameter("startDate", startDateString);
         hubPagedRequest.addQueryParameter("endDate", endDateString);
+    }
 
-        final List<NotificationView> allNotificationItems = getAllItems(hubPagedRequest);
-        return allNotificationItems;
+    public boolean isRetainItemJson() {
+        return retainItemJson;
+    }
+
+    /**
+     * When true, the json field of the notifications read from a response stream is filled in by serializing them back to JSON. Defaults to false,
+     * which leaves it null.
+     */
+    public void setRetainItemJson(final boolean retainItemJson) {
+        this.retainItemJson = retainItemJson;
+    }
+
+    public AdaptivePageSizer getPageSizer() {
+        return pageSizer;
+    }
+
+    /**
+     * When set, the limit of each notification page request is adjusted within the bounds of the sizer. Every listing starts with a fresh copy of it.
+     */
+    public void setPageSizer(final AdaptivePageSizer pageSizer) {
+        this.pageSizer = pageSizer;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * When set, a notification page that fails with a retryable error is requested again on its own instead of failing the whole listing
+     */
+    public void setRetryPolicy(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public HubRequestListener getRequestListener() {
+        return requestListener;
+    }
+
+    /**
+     * When set, the listener is told about every notification page this service requests
+     */
+    public void setRequestListener(final HubRequestListener requestListener) {
+        this.requestListener = requestListener;
+    }
+
+    public HubRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * When set, every notification page request waits for a permit from the limiter and reports its latency and status back to it
+     */
+    public void setRateLimiter(final HubRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    private HubRateLimiter.Permit acquirePermit() throws IntegrationException {
+        if (rateLimiter == null) {
+            return HubRateLimiter.Permit.unlimited();
+        }
+        return rateLimiter.acquire();
+    }
+
+    public HubExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * The executor the windows of a partitioned fetch run on, which is not closed by this service. Defaults to the shared HubExecutor.
+     */
+    public void setExecutor(final HubExecutor executor) {
+        this.executor = executor;
+    }
+
+    public int getPartitionParallelism() {
+        return partitionParallelism;
+    }
+
+    /**
+     * When above 1, getAllNotifications and getUserNotifications split the date range into this many windows and fetch them concurrently, this many
+     * at a time. The notifications are returned in createdAt order. Defaults to 0, which walks the whole range with a single pager.
+     */
+    public void setPartitionParallelism(final int partitionParallelism) {
+        this.partitionParallelism = partitionParallelism;
+    }
+
+    public int getMaxPartitionItems() {
+        return maxPartitionItems;
+    }
+
+    /**
+     * A window of a partitioned fetch holding more notifications than this is split in half again, down to windows of one second
+     */
+    public void setMaxPartitionItems(final int maxPartitionItems) {
+        this.maxPartitionItems = maxPartitionItems;
     }
 
     public <T extends NotificationView> T getItemAs(final JsonElement item, final Class<T> clazz) {
@@ -116,68 +289,334 @@ public class NotificationRequestService {
         return hubItem;
     }
 
+    /**
+     * Reads the next notification of the reader. The type is only known once the whole notification has been read, so each notification is parsed
+     * into a tree before it is deserialized as its specific class, whether or not its json is retained.
+     */
+    public NotificationView getItemAs(final JsonReader reader) throws IOException {
+        final JsonElement element = jsonParser.parse(reader);
+        final Class<? extends NotificationView> notificationClass = getNotificationClass(element);
+        final NotificationView item = gson.fromJson(element, notificationClass);
+        if (retainItemJson) {
+            item.json = gson.toJson(element);
+        }
+        return item;
+    }
+
     public List<NotificationView> getItems(final JsonObject jsonObject) throws IntegrationException {
         final LinkedList<NotificationView> itemList = new LinkedList<>();
         final JsonElement itemsElement = jsonObject.get("items");
         final JsonArray itemsArray = itemsElement.getAsJsonArray();
         for (final JsonElement element : itemsArray) {
-            final String type = element.getAsJsonObject().get("type").getAsString();
-            Class<? extends NotificationView> notificationClass = NotificationView.class;
-            if (typeMap.containsKey(type)) {
-                notificationClass = typeMap.get(type);
-            }
-            final NotificationView item = getItemAs(element, notificationClass);
+            final NotificationView item = getItemAs(element, getNotificationClass(element));
             itemList.add(item);
         }
         return itemList;
     }
 
+    private Class<? extends NotificationView> getNotificationClass(final JsonElement element) {
+        final String type = element.getAsJsonObject().get("type").getAsString();
+        Class<? extends NotificationView> notificationClass = NotificationView.class;
+        if (typeMap.containsKey(type)) {
+            notificationClass = typeMap.get(type);
+        }
+        return notificationClass;
+    }
+
     /**
      * Will NOT make further paged requests to get the full list of items
      */
     public List<NotificationView> getItems(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        return getPage(hubPagedRequest).getItems();
+    }
+
+    /**
+     * Will NOT make further paged requests to get the full list of items
+     */
+    public HubPage<NotificationView> getPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        final HubRateLimiter.Permit permit = acquirePermit();
+        final HubRequestTimer requestTimer = HubRequestTimer.forRequest(requestListener, hubPagedRequest);
         Response response = null;
         try {
             response = hubPagedRequest.executeGet();
-            final String jsonResponse = response.body().string();
-
-            final JsonObject jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-            return getItems(jsonObject);
+            permit.responseReceived(requestTimer.getUrl());
+            final InputStream body = requestTimer.responseReceived(response);
+            final JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            reader.setLenient(true);
+            final HubPage<NotificationView> page = readPage(reader);
+            return new HubPage<>(page.getTotalCount(), page.getItems(), requestTimer.getByteCount());
+        } catch (final IntegrationRestException e) {
+            requestTimer.failed(e.getHttpStatusCode());
+            permit.failed(e);
+            throw e;
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } catch (final IOException e) {
+            permit.failed(e);
             throw new HubIntegrationException(e);
         } finally {
             if (response != null) {
                 response.close();
             }
+            requestTimer.finish();
+            permit.release();
         }
     }
 
     /**
-     * Will make further paged requests to get the full list of items
+     * Reads a page object, deserializing the entries of its items array one at a time as they are read
      */
-    public List<NotificationView> getAllItems(final HubPagedRequest hubPagedRequest) throws IntegrationException {
-        final LinkedList<NotificationView> allItems = new LinkedList<>();
+    public HubPage<NotificationView> readPage(final JsonReader reader) throws IOException {
         int totalCount = 0;
-        int currentOffset = hubPagedRequest.offset;
-        Response response = null;
+        final List<NotificationView> itemList = new LinkedList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if ("totalCount".equals(name)) {
+                totalCount = reader.nextInt();
+            } else if ("items".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    itemList.add(getItemAs(reader));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new HubPage<>(totalCount, itemList);
+    }
+
+    public HubPageFetcher<NotificationView> createPageFetcher() {
+        final HubPageFetcher<NotificationView> pageFetcher = new HubPageFetcher<NotificationView>() {
+            @Override
+            public HubPage<NotificationView> fetchPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+                return getPage(hubPagedRequest);
+            }
+        };
+        if (retryPolicy == null) {
+            return pageFetcher;
+        }
+        return new RetryingPageFetcher<>(pageFetcher, retryPolicy);
+    }
+
+    /**
+     * Will make further paged requests lazily, only when the items of the current page have been consumed
+     */
+    public HubPagedItemIterator<NotificationView> getAllItemsIterator(final HubPagedRequest hubPagedRequest) {
+        return new HubPagedItemIterator<>(hubPagedRequest, createPageFetcher(), createRunPageSizer());
+    }
+
+    /**
+     * Will make further paged requests to get the full list of items, recording each page in the checkpoint. If the checkpoint holds the pages of an
+     * earlier call that failed, the listing continues after them rather than starting over.
+     */
+    public List<NotificationView> getAllItems(final HubPagedRequest hubPagedRequest, final HubPagingCheckpoint<NotificationView> checkpoint) throws IntegrationException {
+        if (!checkpoint.isComplete()) {
+            checkpoint.applyTo(hubPagedRequest);
+            final HubPageFetcher<NotificationView> pageFetcher = new CheckpointingPageFetcher<>(createPageFetcher(), checkpoint);
+            final HubPagedItemIterator<NotificationView> iterator = new HubPagedItemIterator<>(hubPagedRequest, pageFetcher, createRunPageSizer());
+            try {
+                while (iterator.hasNext()) {
+                    iterator.next();
+                }
+            } catch (final HubPagingException e) {
+                throw e.getIntegrationException();
+            }
+        }
+        return checkpoint.getItems();
+    }
+
+    private List<NotificationView> getPartitionedNotifications(final Date startDate, final Date endDate, final UserView user) throws IntegrationException {
+        final HubTaskGroup taskGroup = executor.createTaskGroup(partitionParallelism);
+        final ExecutorCompletionService<NotificationPartition> completionService = new ExecutorCompletionService<>(taskGroup);
+        final List<NotificationView> allItems = new ArrayList<>();
         try {
-            response = hubPagedRequest.executeGet();
-            final String jsonResponse = response.body().string();
-
-            final JsonObject jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-            totalCount = jsonObject.get("totalCount").getAsInt();
-            allItems.addAll(getItems(jsonObject));
-            while (currentOffset < totalCount) {
-                currentOffset = currentOffset + hubPagedRequest.limit;
-                hubPagedRequest.offset = currentOffset;
-                allItems.addAll(getItems(hubPagedRequest));
+            final int totalCount = fetchCountPage(createPartitionRequest(new NotificationPartition(startDate, endDate, 0), user)).getTotalCount();
+            final int estimatedWindowItems = (totalCount + partitionParallelism - 1) / partitionParallelism;
+            final long windowMillis = Math.max(1L, (endDate.getTime() - startDate.getTime()) / partitionParallelism);
+            int pending = 0;
+            long windowStart = startDate.getTime();
+            while (windowStart < endDate.getTime() || pending == 0) {
+                final long windowEnd = Math.min(endDate.getTime(), windowStart + windowMillis);
+                final NotificationPartition partition = new NotificationPartition(new Date(windowStart), new Date(windowEnd), estimatedWindowItems);
+                completionService.submit(new NotificationPartitionCallable(partition, user));
+                pending++;
+                windowStart = windowEnd;
             }
-        } catch (final IOException e) {
-            throw new HubIntegrationException(e);
+            while (pending > 0) {
+                final NotificationPartition partition = taskGroup.take(completionService).get();
+                pending--;
+                if (partition.items != null) {
+                    allItems.addAll(partition.items);
+                } else {
+                    final Date middle = new Date(partition.startDate.getTime() + partition.getDurationMillis() / 2);
+                    final int estimatedHalfItems = (partition.totalCount + 1) / 2;
+                    final NotificationPartition firstHalf = new NotificationPartition(partition.startDate, middle, estimatedHalfItems);
+                    final NotificationPartition secondHalf = new NotificationPartition(middle, partition.endDate, estimatedHalfItems);
+                    completionService.submit(new NotificationPartitionCallable(firstHalf, user));
+                    completionService.submit(new NotificationPartitionCallable(secondHalf, user));
+                    pending += 2;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while getting the notifications", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IntegrationException) {
+                throw (IntegrationException) e.getCause();
+            }
+            throw new HubIntegrationException("Error getting the notifications: " + e.getCause().getMessage(), e.getCause());
         } finally {
-            if (response != null) {
-                response.close();
+            taskGroup.cancelPending();
+        }
+        return mergePartitions(allItems);
+    }
+
+    /**
+     * Adjacent windows share their boundary, so a notification created exactly on it is returned by both and is kept once by its href. A notification
+     * without an href can not be recognized and is kept every time. Notifications without a createdAt are kept after the others.
+     */
+    private List<NotificationView> mergePartitions(final List<NotificationView> allItems) {
+        Collections.sort(allItems, new Comparator<NotificationView>() {
+            @Override
+            public int compare(final NotificationView first, final NotificationView second) {
+                if (first.createdAt == null || second.createdAt == null) {
+                    return Boolean.compare(first.createdAt == null, second.createdAt == null);
+                }
+                return first.createdAt.compareTo(second.createdAt);
+            }
+        });
+        final List<NotificationView> mergedItems = new ArrayList<>(allItems.size());
+        final Set<String> hrefs = new HashSet<>();
+        for (final NotificationView item : allItems) {
+            final String href = item.meta == null ? null : item.meta.href;
+            if (href == null || hrefs.add(href)) {
+                mergedItems.add(item);
+            }
+        }
+        return mergedItems;
+    }
+
+    private HubPagedRequest createPartitionRequest(final NotificationPartition partition, final UserView user) throws IntegrationException {
+        if (user == null) {
+            return createNotificationsRequest(partition.startDate, partition.endDate);
+        }
+        return createUserNotificationsRequest(partition.startDate, partition.endDate, user);
+    }
+
+    /**
+     * Fetches a page of a single item, for the totalCount of the request
+     */
+    private HubPage<NotificationView> fetchCountPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        final int limit = hubPagedRequest.limit;
+        hubPagedRequest.limit = 1;
+        try {
+            return createPageFetcher().fetchPage(hubPagedRequest);
+        } finally {
+            hubPagedRequest.limit = limit;
+        }
+    }
+
+    /**
+     * A window of a partitioned fetch. Its items stay null when the window holds too many notifications and has to be split.
+     */
+    private static class NotificationPartition {
+        private final Date startDate;
+
+        private final Date endDate;
+
+        // the share of the count of the enclosing range expected in this window, the notifications are rarely spread evenly
+        private final int estimatedCount;
+
+        private int totalCount;
+
+        private List<NotificationView> items;
+
+        public NotificationPartition(final Date startDate, final Date endDate, final int estimatedCount) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.estimatedCount = estimatedCount;
+        }
+
+        public long getDurationMillis() {
+            return endDate.getTime() - startDate.getTime();
+        }
+    }
+
+    /**
+     * Fetches the pages of the window. A window expected to hold too many notifications is first counted with a page of a single item, and is split
+     * without fetching any more of its items when the count confirms it. Splitting only spreads the load, so a window expected to be small is fetched
+     * right away even though the estimate may turn out low.
+     */
+    private class NotificationPartitionCallable implements Callable<NotificationPartition> {
+        private final NotificationPartition partition;
+
+        private final UserView user;
+
+        public NotificationPartitionCallable(final NotificationPartition partition, final UserView user) {
+            this.partition = partition;
+            this.user = user;
+        }
+
+        @Override
+        public NotificationPartition call() throws Exception {
+            final HubPagedRequest hubPagedRequest = createPartitionRequest(partition, user);
+            final List<NotificationView> items = new ArrayList<>();
+            if (partition.estimatedCount > maxPartitionItems && partition.getDurationMillis() >= 2 * MIN_PARTITION_MILLIS) {
+                final HubPage<NotificationView> countPage = fetchCountPage(hubPagedRequest);
+                partition.totalCount = countPage.getTotalCount();
+                if (partition.totalCount > maxPartitionItems) {
+                    return partition;
+                }
+                items.addAll(countPage.getItems());
+                if (items.size() >= partition.totalCount) {
+                    partition.items = items;
+                    return partition;
+                }
+                hubPagedRequest.offset += items.size();
+            }
+            final HubPagedItemIterator<NotificationView> iterator = getAllItemsIterator(hubPagedRequest);
+            try {
+                while (iterator.hasNext()) {
+                    items.add(iterator.next());
+                }
+            } catch (final HubPagingException e) {
+                throw e.getIntegrationException();
+            }
+            partition.items = items;
+            return partition;
+        }
+    }
+
+    private AdaptivePageSizer createRunPageSizer() {
+        if (pageSizer == null) {
+            return null;
+        }
+        return new AdaptivePageSizer(pageSizer);
+    }
+
+    /**
+     * Will make further paged requests lazily, only when the items of the current page have been consumed. A page that can not be retrieved is reported as a HubPagingException.
+     */
+    public Stream<NotificationView> streamAllItems(final HubPagedRequest hubPagedRequest) {
+        return getAllItemsIterator(hubPagedRequest).stream();
+    }
+
+    /**
+     * Will make further paged requests to get the full list of items
+     */
+    public List<NotificationView> getAllItems(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        final LinkedList<NotificationView> allItems = new LinkedList<>();
+        final HubPagedItemIterator<NotificationView> iterator = getAllItemsIterator(hubPagedRequest);
+        try {
+            while (iterator.hasNext()) {
+                allItems.add(iterator.next());
             }
+        } catch (final HubPagingException e) {
+            throw e.getIntegrationException();
         }
 
         return allItems;
@@ -28,6 +28,7 @@ import static com.blackducksoftware.integration.hub.api.UrlConstants.SEGMENT_PRO
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -40,6 +41,7 @@ import com.blackducksoftware.integration.hub.request.HubPagedRequest;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 
 import okhttp3.Response;
 
@@ -69,6 +71,25 @@ public class ProjectRequestService extends HubResponseService {
         return allProjectItems;
     }
 
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<ProjectView> streamAllProjects() {
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(PROJECTS_SEGMENTS);
+        return streamAllItems(hubPagedRequest, ProjectView.class);
+    }
+
+    /**
+     * Pages are requested lazily, as the Stream is consumed. Close the Stream to stop early.
+     */
+    public Stream<ProjectView> streamAllProjectMatches(final String projectName) {
+        final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(100, PROJECTS_SEGMENTS);
+        if (StringUtils.isNotBlank(projectName)) {
+            hubPagedRequest.q = "name:" + projectName;
+        }
+        return streamAllItems(hubPagedRequest, ProjectView.class);
+    }
+
     public List<ProjectView> getProjectMatches(final String projectName, final int limit) throws IntegrationException {
         final HubPagedRequest hubPagedRequest = getHubRequestFactory().createPagedRequest(limit, PROJECTS_SEGMENTS);
         if (StringUtils.isNotBlank(projectName)) {
@@ -91,21 +112,28 @@ public class ProjectRequestService extends HubResponseService {
 
     public String createHubProject(final ProjectRequest project) throws IntegrationException {
         final HubRequest projectItemRequest = getHubRequestFactory().createRequest(PROJECTS_SEGMENTS);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             final String projectJson = getGson().toJson(project);
             response = projectItemRequest.executePost(projectJson);
             return response.header("location");
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
     public void deleteHubProject(final ProjectView project) throws IntegrationException {
-        final HubRequest deleteRequest = getHubRequestFactory().createRequest(metaService.getHref(project));
-        deleteRequest.executeDelete();
+        final String projectUrl = metaService.getHref(project);
+        final HubRequest deleteRequest = getHubRequestFactory().createRequest(projectUrl);
+        executeDelete(deleteRequest);
+        invalidateCachedItem(projectUrl);
     }
 
 }
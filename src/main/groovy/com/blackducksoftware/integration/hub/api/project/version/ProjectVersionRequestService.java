@@ -37,6 +37,7 @@ import com.blackducksoftware.integration.hub.request.HubPagedRequest;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 
 import okhttp3.Response;
 
@@ -84,14 +85,19 @@ public class ProjectVersionRequestService extends HubResponseService {
             throws IntegrationException {
 
         final HubRequest hubRequest = getHubRequestFactory().createRequest(versionsUrl);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = hubRequest.executePost(getGson().toJson(version));
             return response.header("location");
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
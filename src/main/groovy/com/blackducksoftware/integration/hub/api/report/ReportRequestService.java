@@ -38,10 +38,11 @@ import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 import com.blackducksoftware.integration.log.IntLogger;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 import okhttp3.Response;
 
@@ -93,54 +94,108 @@ public class ReportRequestService extends HubResponseService {
         }
 
         final HubRequest hubRequest = getHubRequestFactory().createRequest(reportUrl);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = hubRequest.executePost(getGson().toJson(json));
             return response.header("location");
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
     public void deleteHubReport(final String reportUrl) throws IntegrationException {
         final HubRequest hubRequest = getHubRequestFactory().createRequest(reportUrl);
-        hubRequest.executeDelete();
+        executeDelete(hubRequest);
+        invalidateCachedItem(reportUrl);
     }
 
+    /**
+     * The report is deserialized directly from the response stream, it is never held as a String or a JSON tree
+     */
     public VersionReport getReportContent(final String reportContentUrl) throws IntegrationException {
-        final JsonElement fileContent = getReportContentJson(reportContentUrl);
-        final VersionReport report = getGson().fromJson(fileContent, VersionReport.class);
-        return report;
+        final HubRequest hubRequest = getHubRequestFactory().createRequest(reportContentUrl);
+        final HubRateLimiter.Permit permit = acquirePermit();
+        Response response = null;
+        try {
+            response = hubRequest.executeGet();
+            return readReportContent(createJsonReader(response), reportContentUrl);
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
+        } catch (final IOException e) {
+            permit.failed(e);
+            throw new HubIntegrationException(e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+            permit.release();
+        }
     }
 
     public String getNoticesReportContent(final String reportContentUrl) throws IntegrationException {
-        final JsonElement fileContent = getReportContentJson(reportContentUrl);
-        return fileContent.getAsString();
-    }
-
-    private JsonElement getReportContentJson(final String reportContentUrl) throws IntegrationException {
         final HubRequest hubRequest = getHubRequestFactory().createRequest(reportContentUrl);
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = hubRequest.executeGet();
-            final String jsonResponse = response.body().string();
-
-            final JsonObject json = getJsonParser().parse(jsonResponse).getAsJsonObject();
-            final JsonElement content = json.get("reportContent");
-            final JsonArray reportConentArray = content.getAsJsonArray();
-            final JsonObject reportFile = reportConentArray.get(0).getAsJsonObject();
-            return reportFile.get("fileContent");
+            return readNoticesReportContent(createJsonReader(response), reportContentUrl);
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } catch (final IOException e) {
+            permit.failed(e);
             throw new HubIntegrationException(e);
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 
+    VersionReport readReportContent(final JsonReader reader, final String reportContentUrl) throws IOException, HubIntegrationException {
+        moveToReportFileContent(reader, reportContentUrl);
+        return getGson().fromJson(reader, VersionReport.class);
+    }
+
+    String readNoticesReportContent(final JsonReader reader, final String reportContentUrl) throws IOException, HubIntegrationException {
+        moveToReportFileContent(reader, reportContentUrl);
+        return reader.nextString();
+    }
+
+    /**
+     * Positions the reader on the fileContent value of the first entry of the reportContent array, skipping everything before it
+     */
+    private void moveToReportFileContent(final JsonReader reader, final String reportContentUrl) throws IOException, HubIntegrationException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("reportContent".equals(reader.nextName())) {
+                reader.beginArray();
+                if (!reader.hasNext()) {
+                    break;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("fileContent".equals(reader.nextName())) {
+                        return;
+                    }
+                    reader.skipValue();
+                }
+                break;
+            }
+            reader.skipValue();
+        }
+        throw new HubIntegrationException("Could not find the report file content at : " + reportContentUrl);
+    }
+
     /**
      * Checks the report URL every 5 seconds until the report has a finished time available, then we know it is done being generated. Throws HubIntegrationException after 30 minutes if the report has not been generated yet.
      */
@@ -152,18 +207,7 @@ public class ReportRequestService extends HubResponseService {
 
         while (timeFinished == null) {
             final HubRequest hubRequest = getHubRequestFactory().createRequest(reportUrl);
-            Response response = null;
-            try {
-                response = hubRequest.executeGet();
-                final String jsonResponse = response.body().string();
-                reportInfo = getItemAs(jsonResponse, ReportView.class);
-            } catch (final IOException e) {
-                throw new HubIntegrationException(e);
-            } finally {
-                if (response != null) {
-                    response.close();
-                }
-            }
+            reportInfo = getItem(hubRequest, ReportView.class);
             timeFinished = reportInfo.finishedAt;
             if (timeFinished != null) {
                 break;
@@ -36,6 +36,7 @@ import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.model.response.DryRunUploadResponse;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
@@ -56,22 +57,23 @@ public class DryRunUploadRequestService extends HubResponseService {
     public DryRunUploadResponse uploadDryRunFile(final File dryRunFile) throws IntegrationException {
         final HttpUrl httpUrl = restConnection.createHttpUrl(DRY_RUN_UPLOAD_SEGMENTS);
         final Request request = restConnection.createPostRequest(httpUrl, RequestBody.create(MediaType.parse("application/json"), dryRunFile));
+        final HubRateLimiter.Permit permit = acquirePermit();
         Response response = null;
         try {
             response = restConnection.handleExecuteClientCall(request);
-            String responseString;
             try {
-                responseString = response.body().string();
+                return getItemAs(createJsonReader(response), DryRunUploadResponse.class);
             } catch (final IOException e) {
                 throw new IntegrationException(e);
             }
-            final DryRunUploadResponse uploadResponse = getGson().fromJson(responseString, DryRunUploadResponse.class);
-            uploadResponse.json = responseString;
-            return uploadResponse;
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } finally {
             if (response != null) {
                 response.close();
             }
+            permit.release();
         }
     }
 }
@@ -41,6 +41,8 @@ import com.blackducksoftware.integration.hub.model.view.ExternalExtensionUserVie
 import com.blackducksoftware.integration.hub.model.view.ExternalExtensionView;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
 import com.blackducksoftware.integration.log.IntLogger;
 
 public class ExtensionConfigDataService extends HubResponseService {
@@ -58,16 +60,34 @@ public class ExtensionConfigDataService extends HubResponseService {
     public ExtensionConfigDataService(final IntLogger logger, final RestConnection restConnection, final UserRequestService userRequestService,
             final ExtensionConfigRequestService extensionConfigRequestService,
             final ExtensionUserOptionRequestService extensionUserOptionRequestService, final MetaService metaService) {
+        this(logger, restConnection, userRequestService, extensionConfigRequestService, extensionUserOptionRequestService, metaService, HubExecutor.getSharedInstance());
+    }
+
+    /**
+     * The user configurations are transformed on the given executor, which is not closed by this service
+     */
+    public ExtensionConfigDataService(final IntLogger logger, final RestConnection restConnection, final UserRequestService userRequestService,
+            final ExtensionConfigRequestService extensionConfigRequestService,
+            final ExtensionUserOptionRequestService extensionUserOptionRequestService, final MetaService metaService, final HubExecutor executor) {
         super(restConnection);
         this.extensionConfigRequestService = extensionConfigRequestService;
         this.extensionUserOptionRequestService = extensionUserOptionRequestService;
         this.metaService = metaService;
         userConfigTransform = new UserConfigTransform(userRequestService, extensionConfigRequestService);
-        parallelProcessor = new ParallelResourceProcessor<>(logger);
+        parallelProcessor = new ParallelResourceProcessor<>(logger, executor);
         parallelProcessor.addTransform(ExternalExtensionUserView.class, userConfigTransform);
 
     }
 
+    /**
+     * The user configurations are also transformed no more at once than the current limit of the limiter
+     */
+    @Override
+    public void setRateLimiter(final HubRateLimiter rateLimiter) {
+        super.setRateLimiter(rateLimiter);
+        parallelProcessor.setRateLimiter(rateLimiter);
+    }
+
     public Map<String, ExternalExtensionConfigValueView> getGlobalConfigMap(final String extensionUrl) throws IntegrationException {
         Map<String, ExternalExtensionConfigValueView> globalConfigMap = new HashMap<>();
         final ExternalExtensionView extension = getItem(extensionUrl, ExternalExtensionView.class);
@@ -0,0 +1,193 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.hub.model.view.NotificationView;
+import com.blackducksoftware.integration.hub.model.view.PolicyOverrideNotificationView;
+import com.blackducksoftware.integration.hub.model.view.RuleViolationClearedNotificationView;
+import com.blackducksoftware.integration.hub.model.view.RuleViolationNotificationView;
+import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
+import com.blackducksoftware.integration.hub.model.view.components.AffectedProjectVersion;
+import com.blackducksoftware.integration.hub.model.view.components.ComponentVersionStatus;
+import com.blackducksoftware.integration.hub.model.view.components.VulnerabilityNotificationContent;
+import com.blackducksoftware.integration.hub.model.view.components.VulnerabilitySourceQualifiedId;
+
+/**
+ * Drops notifications that repeat another one of the same batch before they are transformed. Two notifications are the same when they have the same
+ * type, project version(s), component version(s) and policy rules or vulnerabilities. Of the same notifications created within the window of the
+ * first of them, only the latest is kept. Notifications of any other type are always kept.
+ */
+public class NotificationCoalescer {
+    private final long windowMillis;
+
+    public NotificationCoalescer(final long windowMillis) {
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("The coalescing window can not be negative.");
+        }
+        this.windowMillis = windowMillis;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    /**
+     * @return the notifications that were kept, in their original order
+     */
+    public List<NotificationView> coalesce(final List<NotificationView> notifications) {
+        final Map<String, List<NotificationView>> sameNotifications = new HashMap<>();
+        for (final NotificationView notification : notifications) {
+            final String key = createKey(notification);
+            if (key == null || notification.createdAt == null) {
+                continue;
+            }
+            List<NotificationView> group = sameNotifications.get(key);
+            if (group == null) {
+                group = new ArrayList<>();
+                sameNotifications.put(key, group);
+            }
+            group.add(notification);
+        }
+
+        final Set<NotificationView> coalesced = Collections.newSetFromMap(new IdentityHashMap<NotificationView, Boolean>());
+        for (final List<NotificationView> group : sameNotifications.values()) {
+            if (group.size() > 1) {
+                coalesceGroup(group, coalesced);
+            }
+        }
+        if (coalesced.isEmpty()) {
+            return notifications;
+        }
+
+        final List<NotificationView> keptNotifications = new ArrayList<>(notifications.size() - coalesced.size());
+        for (final NotificationView notification : notifications) {
+            if (!coalesced.contains(notification)) {
+                keptNotifications.add(notification);
+            }
+        }
+        return keptNotifications;
+    }
+
+    private void coalesceGroup(final List<NotificationView> group, final Set<NotificationView> coalesced) {
+        Collections.sort(group, new Comparator<NotificationView>() {
+            @Override
+            public int compare(final NotificationView first, final NotificationView second) {
+                return first.createdAt.compareTo(second.createdAt);
+            }
+        });
+        long windowStart = group.get(0).createdAt.getTime();
+        NotificationView latest = group.get(0);
+        for (final NotificationView notification : group.subList(1, group.size())) {
+            final long createdAt = notification.createdAt.getTime();
+            if (createdAt - windowStart <= windowMillis) {
+                coalesced.add(latest);
+            } else {
+                windowStart = createdAt;
+            }
+            latest = notification;
+        }
+    }
+
+    private String createKey(final NotificationView notification) {
+        if (notification instanceof RuleViolationNotificationView) {
+            final RuleViolationNotificationView ruleViolation = (RuleViolationNotificationView) notification;
+            return join("RULE_VIOLATION", ruleViolation.content.projectVersionLink, createComponentsKey(ruleViolation.content.componentVersionStatuses));
+        } else if (notification instanceof RuleViolationClearedNotificationView) {
+            final RuleViolationClearedNotificationView ruleViolationCleared = (RuleViolationClearedNotificationView) notification;
+            return join("RULE_VIOLATION_CLEARED", ruleViolationCleared.content.projectVersionLink,
+                    createComponentsKey(ruleViolationCleared.content.componentVersionStatuses));
+        } else if (notification instanceof PolicyOverrideNotificationView) {
+            final PolicyOverrideNotificationView policyOverride = (PolicyOverrideNotificationView) notification;
+            return join("POLICY_OVERRIDE", policyOverride.content.projectVersionLink, policyOverride.content.componentVersionLink,
+                    policyOverride.content.bomComponentVersionPolicyStatusLink, createSortedKey(policyOverride.content.policies));
+        } else if (notification instanceof VulnerabilityNotificationView) {
+            final VulnerabilityNotificationContent content = ((VulnerabilityNotificationView) notification).content;
+            return join("VULNERABILITY", content.componentVersionLink, createVulnerabilitiesKey(content.newVulnerabilityIds),
+                    createVulnerabilitiesKey(content.updatedVulnerabilityIds), createVulnerabilitiesKey(content.deletedVulnerabilityIds),
+                    createAffectedProjectVersionsKey(content.affectedProjectVersions));
+        }
+        return null;
+    }
+
+    private String createComponentsKey(final List<ComponentVersionStatus> componentVersionStatuses) {
+        final List<String> componentKeys = new ArrayList<>();
+        if (componentVersionStatuses != null) {
+            for (final ComponentVersionStatus componentVersionStatus : componentVersionStatuses) {
+                componentKeys.add(join(componentVersionStatus.componentVersionLink, componentVersionStatus.bomComponentVersionPolicyStatusLink,
+                        componentVersionStatus.componentIssueLink, createSortedKey(componentVersionStatus.policies)));
+            }
+        }
+        return createSortedKey(componentKeys);
+    }
+
+    private String createVulnerabilitiesKey(final List<VulnerabilitySourceQualifiedId> vulnerabilityIds) {
+        final List<String> vulnerabilityKeys = new ArrayList<>();
+        if (vulnerabilityIds != null) {
+            for (final VulnerabilitySourceQualifiedId vulnerabilityId : vulnerabilityIds) {
+                vulnerabilityKeys.add(join(vulnerabilityId.source, vulnerabilityId.vulnerabilityId));
+            }
+        }
+        return createSortedKey(vulnerabilityKeys);
+    }
+
+    private String createAffectedProjectVersionsKey(final List<AffectedProjectVersion> affectedProjectVersions) {
+        final List<String> projectVersionKeys = new ArrayList<>();
+        if (affectedProjectVersions != null) {
+            for (final AffectedProjectVersion affectedProjectVersion : affectedProjectVersions) {
+                projectVersionKeys.add(join(affectedProjectVersion.projectVersion, affectedProjectVersion.componentIssueUrl));
+            }
+        }
+        return createSortedKey(projectVersionKeys);
+    }
+
+    private String createSortedKey(final List<String> values) {
+        if (values == null) {
+            return "";
+        }
+        final List<String> sortedValues = new ArrayList<>(values);
+        Collections.sort(sortedValues, new Comparator<String>() {
+            @Override
+            public int compare(final String first, final String second) {
+                return StringUtils.defaultString(first).compareTo(StringUtils.defaultString(second));
+            }
+        });
+        return "[" + join(sortedValues.toArray(new String[sortedValues.size()])) + "]";
+    }
+
+    private String join(final String... values) {
+        return StringUtils.join(values, '|');
+    }
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * The position of a notification poll: the createdAt of the newest notification processed, and the ids of every processed notification created at
+ * that same instant. Several notifications can share a createdAt, so the ids are what keeps the next poll, which starts at that instant again, from
+ * returning them twice.
+ */
+public class NotificationCursor implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Date lastCreatedAt;
+
+    private final Set<String> notificationIds;
+
+    public NotificationCursor(final Date lastCreatedAt) {
+        this(lastCreatedAt, Collections.<String> emptySet());
+    }
+
+    public NotificationCursor(final Date lastCreatedAt, final Collection<String> notificationIds) {
+        if (lastCreatedAt == null) {
+            throw new IllegalArgumentException("The cursor needs a createdAt to start from.");
+        }
+        this.lastCreatedAt = new Date(lastCreatedAt.getTime());
+        this.notificationIds = Collections.unmodifiableSet(new LinkedHashSet<>(notificationIds));
+    }
+
+    public Date getLastCreatedAt() {
+        return new Date(lastCreatedAt.getTime());
+    }
+
+    /**
+     * @return the ids of the processed notifications created at exactly the last createdAt
+     */
+    public Set<String> getNotificationIds() {
+        return notificationIds;
+    }
+
+    /**
+     * @return true if the notification has not been processed before this cursor
+     */
+    public boolean isNew(final Date createdAt, final String notificationId) {
+        final int comparison = createdAt.compareTo(lastCreatedAt);
+        if (comparison == 0) {
+            return !notificationIds.contains(notificationId);
+        }
+        return comparison > 0;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
@@ -0,0 +1,109 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Keeps a NotificationCursor in a local file so polling resumes where it stopped after a restart. The file is replaced in a single move, so a crash
+ * while saving leaves the previous cursor in place.
+ */
+public class NotificationCursorStore {
+    private static final String LAST_CREATED_AT_PROPERTY = "lastCreatedAt";
+
+    private static final String NOTIFICATION_ID_PROPERTY_PREFIX = "notificationId.";
+
+    private final File cursorFile;
+
+    public NotificationCursorStore(final File cursorFile) {
+        this.cursorFile = cursorFile;
+    }
+
+    /**
+     * @return the saved cursor, or a cursor starting at the given date if nothing has been saved yet
+     */
+    public synchronized NotificationCursor load(final Date initialStartDate) throws IOException {
+        if (!cursorFile.isFile()) {
+            return new NotificationCursor(initialStartDate);
+        }
+        final Properties properties = new Properties();
+        try (InputStream inputStream = new FileInputStream(cursorFile)) {
+            properties.load(inputStream);
+        }
+        final String lastCreatedAt = properties.getProperty(LAST_CREATED_AT_PROPERTY);
+        if (lastCreatedAt == null) {
+            throw new IOException("The notification cursor file " + cursorFile.getAbsolutePath() + " has no " + LAST_CREATED_AT_PROPERTY);
+        }
+        final List<String> notificationIds = new ArrayList<>();
+        String notificationId;
+        while ((notificationId = properties.getProperty(NOTIFICATION_ID_PROPERTY_PREFIX + notificationIds.size())) != null) {
+            notificationIds.add(notificationId);
+        }
+        try {
+            return new NotificationCursor(new Date(Long.parseLong(lastCreatedAt)), notificationIds);
+        } catch (final NumberFormatException e) {
+            throw new IOException("The notification cursor file " + cursorFile.getAbsolutePath() + " has an invalid " + LAST_CREATED_AT_PROPERTY, e);
+        }
+    }
+
+    public synchronized void save(final NotificationCursor cursor) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(LAST_CREATED_AT_PROPERTY, String.valueOf(cursor.getLastCreatedAt().getTime()));
+        int index = 0;
+        for (final String notificationId : cursor.getNotificationIds()) {
+            properties.setProperty(NOTIFICATION_ID_PROPERTY_PREFIX + index, notificationId);
+            index++;
+        }
+
+        final File directory = cursorFile.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the notification cursor directory " + directory.getAbsolutePath());
+        }
+        final File temporaryFile = File.createTempFile(cursorFile.getName(), ".tmp", directory);
+        try {
+            try (OutputStream outputStream = new FileOutputStream(temporaryFile)) {
+                properties.store(outputStream, null);
+            }
+            Files.move(temporaryFile.toPath(), cursorFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temporaryFile.delete();
+        }
+    }
+
+    public File getCursorFile() {
+        return cursorFile;
+    }
+
+}
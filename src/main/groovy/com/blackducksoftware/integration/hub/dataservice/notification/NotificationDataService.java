@@ -23,34 +23,88 @@
  */
 package com.blackducksoftware.integration.hub.dataservice.notification;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.api.item.MetaService;
 import com.blackducksoftware.integration.hub.api.notification.NotificationRequestService;
 import com.blackducksoftware.integration.hub.api.policy.PolicyRequestService;
 import com.blackducksoftware.integration.hub.api.project.version.ProjectVersionRequestService;
+import com.blackducksoftware.integration.hub.dataservice.ItemTransform;
 import com.blackducksoftware.integration.hub.dataservice.notification.model.NotificationContentItem;
+import com.blackducksoftware.integration.hub.dataservice.notification.model.NotificationFilter;
 import com.blackducksoftware.integration.hub.dataservice.notification.model.PolicyNotificationFilter;
+import com.blackducksoftware.integration.hub.dataservice.notification.transformer.AbstractNotificationTransformer;
+import com.blackducksoftware.integration.hub.dataservice.notification.transformer.NotificationResolutionContext;
 import com.blackducksoftware.integration.hub.dataservice.notification.transformer.PolicyViolationClearedTransformer;
 import com.blackducksoftware.integration.hub.dataservice.notification.transformer.PolicyViolationOverrideTransformer;
 import com.blackducksoftware.integration.hub.dataservice.notification.transformer.PolicyViolationTransformer;
 import com.blackducksoftware.integration.hub.dataservice.notification.transformer.VulnerabilityTransformer;
+import com.blackducksoftware.integration.hub.dataservice.parallel.DeadLetterQueue;
 import com.blackducksoftware.integration.hub.dataservice.parallel.ParallelResourceProcessor;
 import com.blackducksoftware.integration.hub.dataservice.parallel.ParallelResourceProcessorResults;
+import com.blackducksoftware.integration.hub.dataservice.parallel.TransformCounters;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubPagingException;
+import com.blackducksoftware.integration.hub.model.HubResponse;
+import com.blackducksoftware.integration.hub.model.HubView;
 import com.blackducksoftware.integration.hub.model.view.NotificationView;
 import com.blackducksoftware.integration.hub.model.view.PolicyOverrideNotificationView;
 import com.blackducksoftware.integration.hub.model.view.RuleViolationClearedNotificationView;
 import com.blackducksoftware.integration.hub.model.view.RuleViolationNotificationView;
 import com.blackducksoftware.integration.hub.model.view.UserView;
 import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
+import com.blackducksoftware.integration.hub.model.view.components.ComponentVersionStatus;
+import com.blackducksoftware.integration.hub.model.view.components.PolicyOverrideNotificationContent;
+import com.blackducksoftware.integration.hub.model.view.components.RuleViolationClearedNotificationContent;
+import com.blackducksoftware.integration.hub.model.view.components.RuleViolationNotificationContent;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
 import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.executor.HubTaskGroup;
+import com.blackducksoftware.integration.hub.service.paging.HubPagedItemIterator;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
 import com.blackducksoftware.integration.log.IntLogger;
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 
 public class NotificationDataService {
+    public static final int DEFAULT_USER_FETCH_PARALLELISM = 4;
+
+    // leaves out the meta and json of the views, which differ between the users receiving the same notification, keys notifications of other types
+    private static final Gson NOTIFICATION_CONTENT_GSON = new GsonBuilder().setExclusionStrategies(new ExclusionStrategy() {
+        @Override
+        public boolean shouldSkipField(final FieldAttributes field) {
+            return field.getDeclaringClass() == HubView.class || field.getDeclaringClass() == HubResponse.class;
+        }
+
+        @Override
+        public boolean shouldSkipClass(final Class<?> clazz) {
+            return false;
+        }
+    }).create();
+
     private final HubResponseService hubResponseService;
 
     private final NotificationRequestService notificationRequestService;
@@ -65,6 +119,16 @@ public class NotificationDataService {
 
     private final MetaService metaService;
 
+    private final IntLogger logger;
+
+    private final HubExecutor executor;
+
+    private int pipelineCapacity;
+
+    private int prefetchParallelism;
+
+    private NotificationCoalescer coalescer;
+
     public NotificationDataService(final IntLogger logger, final HubResponseService hubResponseService,
             final NotificationRequestService notificationRequestService,
             final ProjectVersionRequestService projectVersionRequestService, final PolicyRequestService policyRequestService,
@@ -77,51 +141,508 @@ public class NotificationDataService {
             final NotificationRequestService notificationRequestService,
             final ProjectVersionRequestService projectVersionRequestService, final PolicyRequestService policyRequestService,
             final PolicyNotificationFilter policyNotificationFilter, final MetaService metaService) {
+        this(logger, hubResponseService, notificationRequestService, projectVersionRequestService, policyRequestService, policyNotificationFilter,
+                metaService, HubExecutor.getSharedInstance());
+    }
+
+    /**
+     * The notifications are transformed on the given executor, which is not closed by this service
+     */
+    public NotificationDataService(final IntLogger logger, final HubResponseService hubResponseService,
+            final NotificationRequestService notificationRequestService,
+            final ProjectVersionRequestService projectVersionRequestService, final PolicyRequestService policyRequestService,
+            final PolicyNotificationFilter policyNotificationFilter, final MetaService metaService, final HubExecutor executor) {
         this.hubResponseService = hubResponseService;
         this.notificationRequestService = notificationRequestService;
         this.projectVersionRequestService = projectVersionRequestService;
         this.policyRequestService = policyRequestService;
         this.policyNotificationFilter = policyNotificationFilter;
-        this.parallelProcessor = new ParallelResourceProcessor<>(logger);
+        this.parallelProcessor = new ParallelResourceProcessor<>(logger, executor);
         this.metaService = metaService;
-        populateTransformerMap(logger);
+        this.logger = logger;
+        this.executor = executor;
     }
 
-    private void populateTransformerMap(final IntLogger logger) {
-        parallelProcessor.addTransform(RuleViolationNotificationView.class,
+    /**
+     * Every batch gets its own transformers, all sharing one resolution context, so views referenced by many notifications of the batch are only
+     * requested once
+     */
+    private Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> createTransforms(final NotificationResolutionContext resolutionContext) {
+        final Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> transforms = new HashMap<>();
+        transforms.put(RuleViolationNotificationView.class,
                 new PolicyViolationTransformer(hubResponseService, logger, notificationRequestService, projectVersionRequestService, policyRequestService,
                         policyNotificationFilter, metaService));
-        parallelProcessor.addTransform(PolicyOverrideNotificationView.class,
+        transforms.put(PolicyOverrideNotificationView.class,
                 new PolicyViolationOverrideTransformer(hubResponseService, logger, notificationRequestService, projectVersionRequestService,
                         policyRequestService,
                         policyNotificationFilter, metaService));
-        parallelProcessor.addTransform(VulnerabilityNotificationView.class,
+        transforms.put(VulnerabilityNotificationView.class,
                 new VulnerabilityTransformer(hubResponseService, notificationRequestService, projectVersionRequestService, policyRequestService,
                         metaService,
                         logger));
-        parallelProcessor.addTransform(RuleViolationClearedNotificationView.class,
+        transforms.put(RuleViolationClearedNotificationView.class,
                 new PolicyViolationClearedTransformer(hubResponseService, logger, notificationRequestService, projectVersionRequestService,
                         policyRequestService,
                         policyNotificationFilter, metaService));
+        for (final ItemTransform<List<NotificationContentItem>, NotificationView> transform : transforms.values()) {
+            ((AbstractNotificationTransformer) transform).setResolutionContext(resolutionContext);
+        }
+        return transforms;
+    }
+
+    public int getPipelineCapacity() {
+        return pipelineCapacity;
+    }
+
+    /**
+     * When above 0, getAllNotifications and getUserNotifications hand the notifications of each page to the transformers as soon as the page
+     * arrives instead of waiting for the last page, with at most this many notifications waiting to be transformed. Defaults to 0, which fetches every
+     * page before transforming.
+     */
+    public void setPipelineCapacity(final int pipelineCapacity) {
+        this.pipelineCapacity = pipelineCapacity;
+    }
+
+    public int getPrefetchParallelism() {
+        return prefetchParallelism;
+    }
+
+    /**
+     * When above 0, the project versions, component versions, policy rules and policy statuses referenced by a batch of notifications are collected
+     * first and requested together, this many at a time, before the transformers run against them. Defaults to 0, where each transformer requests
+     * what it needs as it goes. It does not apply to the pipelined mode, where the batch is not known up front.
+     */
+    public void setPrefetchParallelism(final int prefetchParallelism) {
+        this.prefetchParallelism = prefetchParallelism;
+    }
+
+    public NotificationCoalescer getCoalescer() {
+        return coalescer;
+    }
+
+    /**
+     * When set, repeated notifications of a batch are merged by the coalescer before they are transformed, so only the latest of them is
+     * transformed. It does not apply to the pipelined mode.
+     */
+    public void setCoalescer(final NotificationCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    /**
+     * When set, a notification whose transform fails with a retryable error, a 5xx, a 429 or an IO failure, is transformed again after the backoff
+     * of the policy. Notifications are not retried by default.
+     */
+    public void setTransformRetryPolicy(final RetryPolicy retryPolicy) {
+        parallelProcessor.setRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * When set, no more notifications are transformed at once than the current limit of the limiter. Nothing is limited by default.
+     */
+    public void setRateLimiter(final HubRateLimiter rateLimiter) {
+        parallelProcessor.setRateLimiter(rateLimiter);
+    }
+
+    public DeadLetterQueue<NotificationView> getDeadLetterQueue() {
+        return parallelProcessor.getDeadLetterQueue();
+    }
+
+    /**
+     * When set, the notifications that could not be transformed, across every call of this service, are kept in the queue until they are replayed or
+     * drained. None are kept by default.
+     */
+    public void setDeadLetterQueue(final DeadLetterQueue<NotificationView> deadLetterQueue) {
+        parallelProcessor.setDeadLetterQueue(deadLetterQueue);
+    }
+
+    /**
+     * The success, failure and retry counts of the transform of each notification type
+     */
+    public List<TransformCounters> getTransformCounters() {
+        return parallelProcessor.getAllTransformCounters();
+    }
+
+    /**
+     * Drains the dead letter queue and transforms its notifications again. The ones failing again go back into the queue.
+     */
+    public NotificationResults replayDeadLetters() throws IntegrationException {
+        final DeadLetterQueue<NotificationView> deadLetterQueue = parallelProcessor.getDeadLetterQueue();
+        if (deadLetterQueue == null) {
+            return processNotifications(Collections.<NotificationView> emptyList());
+        }
+        return processNotifications(deadLetterQueue.drainItems());
     }
 
     public NotificationResults getAllNotifications(final Date startDate, final Date endDate) throws IntegrationException {
-        final SortedSet<NotificationContentItem> contentList = new TreeSet<>();
+        if (pipelineCapacity > 0) {
+            return processPipelined(notificationRequestService.createNotificationsRequest(startDate, endDate));
+        }
         final List<NotificationView> itemList = notificationRequestService.getAllNotifications(startDate, endDate);
-        final ParallelResourceProcessorResults<NotificationContentItem> processorResults = parallelProcessor.process(itemList);
-        contentList.addAll(processorResults.getResults());
-        final NotificationResults results = new NotificationResults(contentList, processorResults.getExceptions());
-        return results;
+        return processNotifications(itemList);
     }
 
     public NotificationResults getUserNotifications(final Date startDate, final Date endDate, final UserView user)
             throws IntegrationException {
-        final SortedSet<NotificationContentItem> contentList = new TreeSet<>();
+        if (pipelineCapacity > 0) {
+            return processPipelined(notificationRequestService.createUserNotificationsRequest(startDate, endDate, user));
+        }
         final List<NotificationView> itemList = notificationRequestService.getUserNotifications(startDate, endDate, user);
-        final ParallelResourceProcessorResults<NotificationContentItem> processorResults = parallelProcessor.process(itemList);
+        return processNotifications(itemList);
+    }
+
+    public Map<UserView, NotificationResults> getUserNotifications(final Date startDate, final Date endDate, final Collection<UserView> users)
+            throws IntegrationException {
+        return getUserNotifications(startDate, endDate, users, DEFAULT_USER_FETCH_PARALLELISM);
+    }
+
+    /**
+     * Gets the notifications of many users at once. The notification pages of the users are fetched concurrently, at most userFetchParallelism users
+     * at a time, a notification received by several users is transformed only once, and every view looked up while transforming is shared by the
+     * whole batch. A user whose notifications could not be fetched gets results holding only that exception. Coalescing is not applied.
+     */
+    public Map<UserView, NotificationResults> getUserNotifications(final Date startDate, final Date endDate, final Collection<UserView> users,
+            final int userFetchParallelism) throws IntegrationException {
+        final Map<UserView, Future<List<NotificationView>>> userFetches = new LinkedHashMap<>();
+        final HubTaskGroup taskGroup = executor.createTaskGroup(Math.min(userFetchParallelism, users.size()));
+        try {
+            for (final UserView user : users) {
+                userFetches.put(user, taskGroup.submit(new Callable<List<NotificationView>>() {
+                    @Override
+                    public List<NotificationView> call() throws Exception {
+                        return notificationRequestService.getUserNotifications(startDate, endDate, user);
+                    }
+                }));
+            }
+
+            final Map<String, NotificationView> uniqueItems = new LinkedHashMap<>();
+            final Map<UserView, List<String>> userItemIds = new LinkedHashMap<>();
+            final Map<UserView, Exception> userExceptions = new HashMap<>();
+            for (final Map.Entry<UserView, Future<List<NotificationView>>> userFetch : userFetches.entrySet()) {
+                final List<String> itemIds = new ArrayList<>();
+                try {
+                    for (final NotificationView item : filter(taskGroup.get(userFetch.getValue()))) {
+                        final String itemId = getNotificationKey(item);
+                        if (!uniqueItems.containsKey(itemId)) {
+                            uniqueItems.put(itemId, item);
+                        }
+                        itemIds.add(itemId);
+                    }
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    final String msg = "Error getting the notifications of a user: " + cause.getMessage();
+                    logger.error(msg, cause);
+                    if (cause instanceof IntegrationException) {
+                        userExceptions.put(userFetch.getKey(), (IntegrationException) cause);
+                    } else {
+                        userExceptions.put(userFetch.getKey(), new HubIntegrationException(msg, cause));
+                    }
+                }
+                userItemIds.put(userFetch.getKey(), itemIds);
+            }
+
+            final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+            final Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> transforms = createTransforms(resolutionContext);
+            final List<NotificationView> itemList = new ArrayList<>(uniqueItems.values());
+            prefetchReferences(itemList, transforms, resolutionContext);
+            final Map<NotificationView, List<NotificationContentItem>> itemResults = Collections.synchronizedMap(new IdentityHashMap<NotificationView, List<NotificationContentItem>>());
+            final Map<NotificationView, Exception> itemExceptions = Collections.synchronizedMap(new IdentityHashMap<NotificationView, Exception>());
+            parallelProcessor.process(itemList, recordItemResults(transforms, itemResults, itemExceptions));
+
+            final Map<UserView, NotificationResults> userResults = new LinkedHashMap<>();
+            for (final Map.Entry<UserView, List<String>> userItems : userItemIds.entrySet()) {
+                final SortedSet<NotificationContentItem> contentList = new TreeSet<>();
+                final List<Exception> exceptions = new ArrayList<>();
+                if (userExceptions.containsKey(userItems.getKey())) {
+                    exceptions.add(userExceptions.get(userItems.getKey()));
+                }
+                for (final String itemId : userItems.getValue()) {
+                    final NotificationView item = uniqueItems.get(itemId);
+                    if (itemResults.containsKey(item)) {
+                        contentList.addAll(itemResults.get(item));
+                    }
+                    if (itemExceptions.containsKey(item)) {
+                        exceptions.add(itemExceptions.get(item));
+                    }
+                }
+                userResults.put(userItems.getKey(), new NotificationResults(contentList, exceptions, resolutionContext.getStatistics()));
+            }
+            return userResults;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while getting the notifications of the users", e);
+        } finally {
+            taskGroup.cancelPending();
+        }
+    }
+
+    /**
+     * The notifications of a user have hrefs of their own, so the same notification received by several users is recognized by its type, createdAt
+     * and the links of its content instead. Only a notification of a type without known content links is serialized for its key.
+     */
+    private String getNotificationKey(final NotificationView item) {
+        final StringBuilder key = new StringBuilder(item.getClass().getName());
+        key.append(':').append(item.createdAt == null ? -1L : item.createdAt.getTime());
+        if (item instanceof VulnerabilityNotificationView && ((VulnerabilityNotificationView) item).content != null) {
+            key.append(':').append(((VulnerabilityNotificationView) item).content.componentVersionLink);
+        } else if (item instanceof RuleViolationNotificationView && ((RuleViolationNotificationView) item).content != null) {
+            final RuleViolationNotificationContent content = ((RuleViolationNotificationView) item).content;
+            key.append(':').append(content.projectVersionLink);
+            appendComponentVersionLinks(key, content.componentVersionStatuses);
+        } else if (item instanceof RuleViolationClearedNotificationView && ((RuleViolationClearedNotificationView) item).content != null) {
+            final RuleViolationClearedNotificationContent content = ((RuleViolationClearedNotificationView) item).content;
+            key.append(':').append(content.projectVersionLink);
+            appendComponentVersionLinks(key, content.componentVersionStatuses);
+        } else if (item instanceof PolicyOverrideNotificationView && ((PolicyOverrideNotificationView) item).content != null) {
+            final PolicyOverrideNotificationContent content = ((PolicyOverrideNotificationView) item).content;
+            key.append(':').append(content.projectVersionLink).append(':').append(content.componentVersionLink);
+        } else {
+            key.append(':').append(NOTIFICATION_CONTENT_GSON.toJson(item));
+        }
+        return key.toString();
+    }
+
+    private void appendComponentVersionLinks(final StringBuilder key, final List<ComponentVersionStatus> componentVersionStatuses) {
+        if (componentVersionStatuses != null) {
+            for (final ComponentVersionStatus componentVersionStatus : componentVersionStatuses) {
+                key.append(':').append(componentVersionStatus.componentVersionLink);
+            }
+        }
+    }
+
+    /**
+     * Fetches from the createdAt of the cursor up to now and transforms only the notifications the cursor has not seen. Start the next poll from the
+     * cursor of the results.
+     */
+    public NotificationPollResults getNotificationsSince(final NotificationCursor cursor) throws IntegrationException {
+        final List<NotificationView> itemList = notificationRequestService.getAllNotifications(cursor.getLastCreatedAt(), new Date());
+        return processNewNotifications(cursor, itemList);
+    }
+
+    public NotificationPollResults getUserNotificationsSince(final NotificationCursor cursor, final UserView user) throws IntegrationException {
+        final List<NotificationView> itemList = notificationRequestService.getUserNotifications(cursor.getLastCreatedAt(), new Date(), user);
+        return processNewNotifications(cursor, itemList);
+    }
+
+    /**
+     * Polls from the cursor saved in the store, or from the initial start date if none has been saved, and saves the advanced cursor once the new
+     * notifications are transformed. A notification that fails to transform is reported in the exceptions of the results, and the saved cursor is held
+     * at its createdAt so the next poll fetches it again.
+     */
+    public NotificationPollResults getNotificationsSince(final NotificationCursorStore cursorStore, final Date initialStartDate) throws IntegrationException {
+        final NotificationPollResults results = getNotificationsSince(loadCursor(cursorStore, initialStartDate));
+        saveCursor(cursorStore, results.getCursor());
+        return results;
+    }
+
+    public NotificationPollResults getUserNotificationsSince(final NotificationCursorStore cursorStore, final Date initialStartDate, final UserView user)
+            throws IntegrationException {
+        final NotificationPollResults results = getUserNotificationsSince(loadCursor(cursorStore, initialStartDate), user);
+        saveCursor(cursorStore, results.getCursor());
+        return results;
+    }
+
+    private NotificationResults processNotifications(final List<NotificationView> allItemList) throws IntegrationException {
+        final List<NotificationView> itemList = coalesce(filter(allItemList));
+        final SortedSet<NotificationContentItem> contentList = new TreeSet<>();
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        final Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> transforms = createTransforms(resolutionContext);
+        prefetchReferences(itemList, transforms, resolutionContext);
+        final ParallelResourceProcessorResults<NotificationContentItem> processorResults = parallelProcessor.process(itemList, transforms);
         contentList.addAll(processorResults.getResults());
-        final NotificationResults results = new NotificationResults(contentList, processorResults.getExceptions());
+        final NotificationResults results = new NotificationResults(contentList, processorResults.getExceptions(), resolutionContext.getStatistics());
         return results;
     }
 
+    /**
+     * Wraps the transforms so the results, or the failure, of each notification are also recorded against it
+     */
+    private Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> recordItemResults(
+            final Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> transforms,
+            final Map<NotificationView, List<NotificationContentItem>> itemResults, final Map<NotificationView, Exception> itemExceptions) {
+        final Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> recordingTransforms = new HashMap<>();
+        for (final Map.Entry<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> entry : transforms.entrySet()) {
+            final ItemTransform<List<NotificationContentItem>, NotificationView> transform = entry.getValue();
+            recordingTransforms.put(entry.getKey(), new ItemTransform<List<NotificationContentItem>, NotificationView>() {
+                @Override
+                public List<NotificationContentItem> transform(final NotificationView item) throws IntegrationException {
+                    try {
+                        final List<NotificationContentItem> contentItems = transform.transform(item);
+                        itemResults.put(item, contentItems);
+                        itemExceptions.remove(item);
+                        return contentItems;
+                    } catch (final IntegrationException | RuntimeException e) {
+                        itemExceptions.put(item, e);
+                        throw e;
+                    }
+                }
+            });
+        }
+        return recordingTransforms;
+    }
+
+    private NotificationResults processPipelined(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        final SortedSet<NotificationContentItem> contentList = new TreeSet<>();
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        final ParallelResourceProcessorResults<NotificationContentItem> processorResults;
+        try (HubPagedItemIterator<NotificationView> iterator = notificationRequestService.getAllItemsIterator(hubPagedRequest)) {
+            processorResults = parallelProcessor.process(filter(iterator), pipelineCapacity, createTransforms(resolutionContext));
+        } catch (final HubPagingException e) {
+            throw e.getIntegrationException();
+        }
+        contentList.addAll(processorResults.getResults());
+        return new NotificationResults(contentList, processorResults.getExceptions(), resolutionContext.getStatistics());
+    }
+
+    private NotificationPollResults processNewNotifications(final NotificationCursor cursor, final List<NotificationView> itemList) throws IntegrationException {
+        final List<NotificationView> newItemList = new ArrayList<>();
+        final Map<NotificationView, String> notificationIds = new IdentityHashMap<>();
+        for (final NotificationView item : itemList) {
+            final String notificationId = metaService.getHref(item);
+            if (item.createdAt != null && cursor.isNew(item.createdAt, notificationId)) {
+                newItemList.add(item);
+                notificationIds.put(item, notificationId);
+            }
+        }
+
+        final SortedSet<NotificationContentItem> contentList = new TreeSet<>();
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        final Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> transforms = createTransforms(resolutionContext);
+        final List<NotificationView> coalescedItemList = coalesce(filter(newItemList));
+        prefetchReferences(coalescedItemList, transforms, resolutionContext);
+        final Map<NotificationView, List<NotificationContentItem>> itemResults = Collections.synchronizedMap(new IdentityHashMap<NotificationView, List<NotificationContentItem>>());
+        final Map<NotificationView, Exception> itemExceptions = Collections.synchronizedMap(new IdentityHashMap<NotificationView, Exception>());
+        final ParallelResourceProcessorResults<NotificationContentItem> processorResults = parallelProcessor.process(coalescedItemList,
+                recordItemResults(transforms, itemResults, itemExceptions));
+        contentList.addAll(processorResults.getResults());
+        return new NotificationPollResults(contentList, processorResults.getExceptions(), resolutionContext.getStatistics(),
+                advanceCursor(cursor, newItemList, notificationIds, itemExceptions.keySet()));
+    }
+
+    /**
+     * Moves the cursor past the new notifications, but never past the earliest one that failed to transform, so the next poll fetches the failed
+     * notifications again. The notifications created after that one are then transformed again too.
+     */
+    private NotificationCursor advanceCursor(final NotificationCursor cursor, final List<NotificationView> newItemList,
+            final Map<NotificationView, String> newNotificationIds, final Set<NotificationView> failedItems) {
+        Date heldAt = null;
+        for (final NotificationView failedItem : failedItems) {
+            if (heldAt == null || failedItem.createdAt.before(heldAt)) {
+                heldAt = failedItem.createdAt;
+            }
+        }
+        Date lastCreatedAt = cursor.getLastCreatedAt();
+        final Set<String> notificationIds = new HashSet<>(cursor.getNotificationIds());
+        for (final NotificationView item : newItemList) {
+            if (failedItems.contains(item) || (heldAt != null && item.createdAt.after(heldAt))) {
+                continue;
+            }
+            final int comparison = item.createdAt.compareTo(lastCreatedAt);
+            if (comparison > 0) {
+                lastCreatedAt = item.createdAt;
+                notificationIds.clear();
+            }
+            if (comparison >= 0) {
+                notificationIds.add(newNotificationIds.get(item));
+            }
+        }
+        if (heldAt != null && heldAt.after(lastCreatedAt)) {
+            lastCreatedAt = heldAt;
+            notificationIds.clear();
+        }
+        return new NotificationCursor(lastCreatedAt, notificationIds);
+    }
+
+    /**
+     * When the filter is a NotificationFilter, the notifications it does not accept are dropped before anything is requested for them
+     */
+    private List<NotificationView> filter(final List<NotificationView> itemList) {
+        if (!(policyNotificationFilter instanceof NotificationFilter)) {
+            return itemList;
+        }
+        final NotificationFilter notificationFilter = (NotificationFilter) policyNotificationFilter;
+        final List<NotificationView> acceptedItemList = new ArrayList<>();
+        for (final NotificationView item : itemList) {
+            if (notificationFilter.accepts(item)) {
+                acceptedItemList.add(item);
+            }
+        }
+        return acceptedItemList;
+    }
+
+    private Iterator<NotificationView> filter(final Iterator<NotificationView> itemIterator) {
+        if (!(policyNotificationFilter instanceof NotificationFilter)) {
+            return itemIterator;
+        }
+        final NotificationFilter notificationFilter = (NotificationFilter) policyNotificationFilter;
+        return new Iterator<NotificationView>() {
+            private NotificationView nextItem;
+
+            @Override
+            public boolean hasNext() {
+                while (nextItem == null && itemIterator.hasNext()) {
+                    final NotificationView item = itemIterator.next();
+                    if (notificationFilter.accepts(item)) {
+                        nextItem = item;
+                    }
+                }
+                return nextItem != null;
+            }
+
+            @Override
+            public NotificationView next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final NotificationView item = nextItem;
+                nextItem = null;
+                return item;
+            }
+        };
+    }
+
+    private List<NotificationView> coalesce(final List<NotificationView> itemList) {
+        if (coalescer == null) {
+            return itemList;
+        }
+        final List<NotificationView> coalescedItemList = coalescer.coalesce(itemList);
+        logger.debug(String.format("Coalesced %d notifications into %d", itemList.size(), coalescedItemList.size()));
+        return coalescedItemList;
+    }
+
+    private void prefetchReferences(final List<NotificationView> itemList,
+            final Map<Class<?>, ItemTransform<List<NotificationContentItem>, NotificationView>> transforms, final NotificationResolutionContext resolutionContext)
+            throws IntegrationException {
+        if (prefetchParallelism < 1) {
+            return;
+        }
+        for (final NotificationView item : itemList) {
+            final ItemTransform<List<NotificationContentItem>, NotificationView> transform = transforms.get(item.getClass());
+            if (transform instanceof AbstractNotificationTransformer) {
+                ((AbstractNotificationTransformer) transform).addReferences(item, resolutionContext);
+            }
+        }
+        try {
+            resolutionContext.prefetch(executor, prefetchParallelism);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while prefetching the items referenced by the notifications", e);
+        }
+    }
+
+    private NotificationCursor loadCursor(final NotificationCursorStore cursorStore, final Date initialStartDate) throws IntegrationException {
+        try {
+            return cursorStore.load(initialStartDate);
+        } catch (final IOException e) {
+            throw new HubIntegrationException("Could not load the notification cursor from " + cursorStore.getCursorFile().getAbsolutePath() + " : " + e.getMessage(), e);
+        }
+    }
+
+    private void saveCursor(final NotificationCursorStore cursorStore, final NotificationCursor cursor) throws IntegrationException {
+        try {
+            cursorStore.save(cursor);
+        } catch (final IOException e) {
+            throw new HubIntegrationException("Could not save the notification cursor to " + cursorStore.getCursorFile().getAbsolutePath() + " : " + e.getMessage(), e);
+        }
+    }
+
 }
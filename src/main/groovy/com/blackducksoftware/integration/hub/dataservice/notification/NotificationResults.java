@@ -30,16 +30,25 @@ import org.apache.commons.lang3.builder.RecursiveToStringStyle;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 
 import com.blackducksoftware.integration.hub.dataservice.notification.model.NotificationContentItem;
+import com.blackducksoftware.integration.hub.dataservice.notification.transformer.NotificationResolutionStatistics;
 
 public class NotificationResults {
     private final SortedSet<NotificationContentItem> notificationContentItems;
 
     private final List<Exception> exceptions;
 
+    private final NotificationResolutionStatistics resolutionStatistics;
+
     public NotificationResults(final SortedSet<NotificationContentItem> notificationContentItems, final List<Exception> exceptions) {
+        this(notificationContentItems, exceptions, null);
+    }
+
+    public NotificationResults(final SortedSet<NotificationContentItem> notificationContentItems, final List<Exception> exceptions,
+            final NotificationResolutionStatistics resolutionStatistics) {
         super();
         this.notificationContentItems = notificationContentItems;
         this.exceptions = exceptions;
+        this.resolutionStatistics = resolutionStatistics;
     }
 
     public SortedSet<NotificationContentItem> getNotificationContentItems() {
@@ -50,6 +59,13 @@ public class NotificationResults {
         return exceptions;
     }
 
+    /**
+     * How many lookups the transformers of this batch made, and how many of them were answered without a request to the Hub
+     */
+    public NotificationResolutionStatistics getResolutionStatistics() {
+        return resolutionStatistics;
+    }
+
     public boolean isError() {
         if ((exceptions != null) && (exceptions.size() > 0)) {
             return true;
@@ -48,6 +48,8 @@ public class NotificationContentItem implements Comparable<NotificationContentIt
     // they are collected multi-threaded
     public final Date createdAt;
 
+    private transient String sortKey;
+
     public NotificationContentItem(final Date createdAt, final ProjectVersionModel projectVersion,
             final String componentName,
             final ComponentVersionView componentVersion,
@@ -95,7 +97,7 @@ public class NotificationContentItem implements Comparable<NotificationContentIt
 
     @Override
     public int compareTo(final NotificationContentItem o) {
-        if (equals(o)) {
+        if (this == o) {
             return 0;
         }
 
@@ -105,12 +107,20 @@ public class NotificationContentItem implements Comparable<NotificationContentIt
             return createdAtComparison;
         }
 
-        // Identify same-time non-equal items as non-equal
-        final String thisProjectVersionString = StringUtils.join(getProjectVersion().getProjectName(), getProjectVersion()
-                .getProjectVersionName(), getComponentName(), getComponentVersionName(getComponentVersion()));
-        final String otherProjectVersionString = StringUtils.join(o.getProjectVersion().getProjectName(), o
-                .getProjectVersion().getProjectVersionName(), o.getComponentName(), getComponentVersionName(o.getComponentVersion()));
-        return thisProjectVersionString.compareTo(otherProjectVersionString);
+        // Identify same-time non-equal items as non-equal. Equal items always have the same sort key, so they still compare as 0.
+        return getSortKey().compareTo(o.getSortKey());
+    }
+
+    /**
+     * The project name, project version name, component name and component version name joined together, which orders the items created at the
+     * same time. It is built on first use and then kept, so sorting a large collection does not build it on every comparison.
+     */
+    public String getSortKey() {
+        if (sortKey == null) {
+            sortKey = StringUtils.join(getProjectVersion().getProjectName(), getProjectVersion().getProjectVersionName(), getComponentName(),
+                    getComponentVersionName(getComponentVersion()));
+        }
+        return sortKey;
     }
 
     private String getComponentVersionName(final ComponentVersionView componentVersion) {
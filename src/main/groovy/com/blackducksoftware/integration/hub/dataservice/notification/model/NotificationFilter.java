@@ -0,0 +1,179 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification.model;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.blackducksoftware.integration.hub.model.enumeration.NotificationEnum;
+import com.blackducksoftware.integration.hub.model.view.NotificationView;
+import com.blackducksoftware.integration.hub.model.view.PolicyOverrideNotificationView;
+import com.blackducksoftware.integration.hub.model.view.RuleViolationClearedNotificationView;
+import com.blackducksoftware.integration.hub.model.view.RuleViolationNotificationView;
+import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
+import com.blackducksoftware.integration.hub.model.view.components.AffectedProjectVersion;
+import com.blackducksoftware.integration.hub.model.view.components.ComponentVersionStatus;
+
+/**
+ * Decides from the content of a notification alone, before anything is requested for it, whether it should be transformed. Each kind of allowlist
+ * is only applied once it has been set. The rule links are still also applied by the policy transformers, a notification is dropped here only when
+ * none of its rules are included.
+ */
+public class NotificationFilter extends PolicyNotificationFilter {
+    private Set<NotificationEnum> typesToInclude;
+
+    private Set<String> projectNamesToInclude;
+
+    private Set<List<String>> projectVersionsToInclude;
+
+    private Set<String> componentNamesToInclude;
+
+    /**
+     * @param ruleLinksToInclude
+     *            the policy rules to include, null to include every rule
+     */
+    public NotificationFilter(final List<String> ruleLinksToInclude) {
+        super(ruleLinksToInclude);
+    }
+
+    public void setTypesToInclude(final Collection<NotificationEnum> typesToInclude) {
+        this.typesToInclude = new HashSet<>(typesToInclude);
+    }
+
+    public void setProjectNamesToInclude(final Collection<String> projectNamesToInclude) {
+        this.projectNamesToInclude = new HashSet<>(projectNamesToInclude);
+    }
+
+    public void addProjectVersionToInclude(final String projectName, final String projectVersionName) {
+        if (projectVersionsToInclude == null) {
+            projectVersionsToInclude = new HashSet<>();
+        }
+        projectVersionsToInclude.add(Arrays.asList(projectName, projectVersionName));
+    }
+
+    public void setComponentNamesToInclude(final Collection<String> componentNamesToInclude) {
+        this.componentNamesToInclude = new HashSet<>(componentNamesToInclude);
+    }
+
+    public boolean accepts(final NotificationView notification) {
+        if (notification instanceof RuleViolationNotificationView) {
+            final RuleViolationNotificationView ruleViolation = (RuleViolationNotificationView) notification;
+            return acceptsType(NotificationEnum.RULE_VIOLATION)
+                    && acceptsProjectVersion(ruleViolation.content.projectName, ruleViolation.content.projectVersionName)
+                    && acceptsComponentVersionStatuses(ruleViolation.content.componentVersionStatuses);
+        } else if (notification instanceof RuleViolationClearedNotificationView) {
+            final RuleViolationClearedNotificationView ruleViolationCleared = (RuleViolationClearedNotificationView) notification;
+            return acceptsType(NotificationEnum.RULE_VIOLATION_CLEARED)
+                    && acceptsProjectVersion(ruleViolationCleared.content.projectName, ruleViolationCleared.content.projectVersionName)
+                    && acceptsComponentVersionStatuses(ruleViolationCleared.content.componentVersionStatuses);
+        } else if (notification instanceof PolicyOverrideNotificationView) {
+            final PolicyOverrideNotificationView policyOverride = (PolicyOverrideNotificationView) notification;
+            return acceptsType(NotificationEnum.POLICY_OVERRIDE)
+                    && acceptsProjectVersion(policyOverride.content.projectName, policyOverride.content.projectVersionName)
+                    && acceptsComponent(policyOverride.content.componentName) && acceptsRules(policyOverride.content.policies);
+        } else if (notification instanceof VulnerabilityNotificationView) {
+            final VulnerabilityNotificationView vulnerability = (VulnerabilityNotificationView) notification;
+            return acceptsType(NotificationEnum.VULNERABILITY) && acceptsComponent(vulnerability.content.componentName)
+                    && acceptsAffectedProjectVersions(vulnerability.content.affectedProjectVersions);
+        }
+        return typesToInclude == null || typesToInclude.contains(notification.type);
+    }
+
+    private boolean acceptsType(final NotificationEnum type) {
+        return typesToInclude == null || typesToInclude.contains(type);
+    }
+
+    private boolean acceptsProjectVersion(final String projectName, final String projectVersionName) {
+        if (projectNamesToInclude != null && !projectNamesToInclude.contains(projectName)) {
+            return false;
+        }
+        return projectVersionsToInclude == null || projectVersionsToInclude.contains(Arrays.asList(projectName, projectVersionName));
+    }
+
+    private boolean acceptsAffectedProjectVersions(final List<AffectedProjectVersion> affectedProjectVersions) {
+        if (projectNamesToInclude == null && projectVersionsToInclude == null) {
+            return true;
+        }
+        if (affectedProjectVersions != null) {
+            for (final AffectedProjectVersion affectedProjectVersion : affectedProjectVersions) {
+                if (acceptsProjectVersion(affectedProjectVersion.projectName, affectedProjectVersion.projectVersionName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean acceptsComponent(final String componentName) {
+        return componentNamesToInclude == null || componentNamesToInclude.contains(componentName);
+    }
+
+    /**
+     * A notification without component statuses is accepted, so the transformer reports it as it always has
+     */
+    private boolean acceptsComponentVersionStatuses(final List<ComponentVersionStatus> componentVersionStatuses) {
+        if (componentVersionStatuses == null || componentVersionStatuses.isEmpty()) {
+            return true;
+        }
+        for (final ComponentVersionStatus componentVersionStatus : componentVersionStatuses) {
+            if (acceptsComponent(componentVersionStatus.componentName) && acceptsRules(componentVersionStatus.policies)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean acceptsRules(final List<String> ruleLinks) {
+        if (getRuleLinksToInclude() == null || ruleLinks == null || ruleLinks.isEmpty()) {
+            return true;
+        }
+        for (final String ruleLink : ruleLinks) {
+            if (getRuleLinksToInclude().contains(ruleLink)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("NotificationFilter [ruleLinksToInclude=");
+        builder.append(getRuleLinksToInclude());
+        builder.append(", typesToInclude=");
+        builder.append(typesToInclude);
+        builder.append(", projectNamesToInclude=");
+        builder.append(projectNamesToInclude);
+        builder.append(", projectVersionsToInclude=");
+        builder.append(projectVersionsToInclude);
+        builder.append(", componentNamesToInclude=");
+        builder.append(componentNamesToInclude);
+        builder.append("]");
+        return builder.toString();
+    }
+
+}
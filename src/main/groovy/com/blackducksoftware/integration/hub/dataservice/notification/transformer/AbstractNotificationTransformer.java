@@ -37,6 +37,7 @@ import com.blackducksoftware.integration.hub.dataservice.model.ProjectVersionMod
 import com.blackducksoftware.integration.hub.dataservice.notification.model.NotificationContentItem;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.exception.HubItemTransformException;
+import com.blackducksoftware.integration.hub.model.HubResponse;
 import com.blackducksoftware.integration.hub.model.view.ComponentVersionView;
 import com.blackducksoftware.integration.hub.model.view.NotificationView;
 import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
@@ -58,6 +59,8 @@ public abstract class AbstractNotificationTransformer
 
     private final MetaService metaService;
 
+    private NotificationResolutionContext resolutionContext;
+
     public AbstractNotificationTransformer(final HubResponseService hubResponseService, final NotificationRequestService notificationService,
             final ProjectVersionRequestService projectVersionService, final PolicyRequestService policyService,
             final MetaService metaService) {
@@ -101,14 +104,33 @@ public abstract class AbstractNotificationTransformer
         return policyService;
     }
 
+    public NotificationResolutionContext getResolutionContext() {
+        return resolutionContext;
+    }
+
+    /**
+     * When set, the project versions, component versions and policy rules this transformer looks up are shared with every other transformer using
+     * the same context. A context is meant to live for one batch of notifications.
+     */
+    public void setResolutionContext(final NotificationResolutionContext resolutionContext) {
+        this.resolutionContext = resolutionContext;
+    }
+
     @Override
     public abstract List<NotificationContentItem> transform(NotificationView item) throws HubItemTransformException;
 
+    /**
+     * Registers with the context the views that transform will look up for this notification, so the views of a whole batch can be requested before
+     * it is transformed. Registers nothing by default.
+     */
+    public void addReferences(final NotificationView item, final NotificationResolutionContext resolutionContext) {
+    }
+
     protected ProjectVersionModel createFullProjectVersion(final String projectVersionUrl, final String projectName, final String versionName)
             throws IntegrationException {
         ProjectVersionView item;
         try {
-            item = hubResponseService.getItem(projectVersionUrl, ProjectVersionView.class);
+            item = resolveItem(hubResponseService, projectVersionUrl, ProjectVersionView.class);
         } catch (final HubIntegrationException e) {
             final String msg = "Error getting the full ProjectVersion for this affected project version URL: "
                     + projectVersionUrl + ": " + e.getMessage();
@@ -143,7 +165,7 @@ public abstract class AbstractNotificationTransformer
     protected ComponentVersionView getComponentVersion(final String componentVersionLink) throws IntegrationException {
         ComponentVersionView componentVersion = null;
         if (!StringUtils.isBlank(componentVersionLink)) {
-            componentVersion = hubResponseService.getItem(componentVersionLink, ComponentVersionView.class);
+            componentVersion = resolveItem(hubResponseService, componentVersionLink, ComponentVersionView.class);
         }
         return componentVersion;
     }
@@ -158,4 +180,11 @@ public abstract class AbstractNotificationTransformer
         }
         return componentVersionName;
     }
+
+    protected <T extends HubResponse> T resolveItem(final HubResponseService itemService, final String url, final Class<T> clazz) throws IntegrationException {
+        if (resolutionContext == null) {
+            return itemService.getItem(url, clazz);
+        }
+        return resolutionContext.getItem(itemService, url, clazz);
+    }
 }
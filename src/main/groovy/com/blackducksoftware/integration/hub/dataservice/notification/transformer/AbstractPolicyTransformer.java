@@ -81,7 +81,7 @@ public abstract class AbstractPolicyTransformer extends AbstractNotificationTran
         }
         final List<PolicyRuleView> rules = new ArrayList<>();
         for (final String ruleUrlViolated : ruleUrlsViolated) {
-            final PolicyRuleView ruleViolated = getPolicyService().getItem(ruleUrlViolated, PolicyRuleView.class);
+            final PolicyRuleView ruleViolated = resolveItem(getPolicyService(), ruleUrlViolated, PolicyRuleView.class);
             rules.add(ruleViolated);
         }
         return rules;
@@ -111,10 +111,29 @@ public abstract class AbstractPolicyTransformer extends AbstractNotificationTran
     }
 
     protected PolicyRuleView getPolicyRule(final String ruleUrl) throws IntegrationException {
-        final PolicyRuleView rule = getPolicyService().getItem(ruleUrl, PolicyRuleView.class);
+        final PolicyRuleView rule = resolveItem(getPolicyService(), ruleUrl, PolicyRuleView.class);
         return rule;
     }
 
+    protected void addComponentReferences(final List<ComponentVersionStatus> componentVersionList, final NotificationResolutionContext resolutionContext) {
+        if (componentVersionList == null) {
+            return;
+        }
+        for (final ComponentVersionStatus componentVersion : componentVersionList) {
+            resolutionContext.addReference(getHubResponseService(), componentVersion.componentVersionLink, ComponentVersionView.class);
+            addRuleReferences(componentVersion.policies, resolutionContext);
+        }
+    }
+
+    protected void addRuleReferences(final List<String> rulesViolated, final NotificationResolutionContext resolutionContext) {
+        if (rulesViolated == null) {
+            return;
+        }
+        for (final String ruleUrl : getMatchingRuleUrls(rulesViolated)) {
+            resolutionContext.addReference(getPolicyService(), ruleUrl, PolicyRuleView.class);
+        }
+    }
+
     protected List<String> getMatchingRuleUrls(final List<String> rulesViolated) {
         final List<String> filteredRules = new ArrayList<>();
         if (policyFilter != null && policyFilter.getRuleLinksToInclude() != null) {
@@ -161,7 +180,7 @@ public abstract class AbstractPolicyTransformer extends AbstractNotificationTran
 
     protected BomComponentPolicyStatusView getBomComponentVersionPolicyStatus(final String policyStatusUrl) throws IntegrationException {
         BomComponentPolicyStatusView bomComponentVersionPolicyStatus;
-        bomComponentVersionPolicyStatus = getHubResponseService().getItem(policyStatusUrl, BomComponentPolicyStatusView.class);
+        bomComponentVersionPolicyStatus = resolveItem(getHubResponseService(), policyStatusUrl, BomComponentPolicyStatusView.class);
 
         return bomComponentVersionPolicyStatus;
     }
@@ -0,0 +1,153 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification.transformer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.model.HubResponse;
+import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.executor.HubTaskGroup;
+
+/**
+ * Remembers the views the transformers of one batch of notifications look up, by url and view type, so that a project version, component version or
+ * policy rule referenced by many notifications is only requested once for the batch. It is shared by all the transformer threads: a thread asking for
+ * a view another thread is already requesting waits for that request. A failed request is not remembered, the next lookup requests it again.
+ * The views of a whole batch can also be registered up front with addReference and then requested together by prefetch.
+ */
+public class NotificationResolutionContext {
+    private final ConcurrentMap<String, FutureTask<? extends HubResponse>> resolvedItems = new ConcurrentHashMap<>();
+
+    private final Queue<FutureTask<? extends HubResponse>> pendingTasks = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong lookupCount = new AtomicLong();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    public <T extends HubResponse> T getItem(final HubResponseService hubResponseService, final String url, final Class<T> clazz) throws IntegrationException {
+        lookupCount.incrementAndGet();
+        final String key = createKey(url, clazz);
+        FutureTask<? extends HubResponse> task = resolvedItems.get(key);
+        if (task == null) {
+            final FutureTask<T> newTask = createTask(hubResponseService, url, clazz);
+            task = resolvedItems.putIfAbsent(key, newTask);
+            if (task == null) {
+                task = newTask;
+            }
+        }
+        // does nothing if another thread, or a prefetch, has already started the request
+        task.run();
+        try {
+            return clazz.cast(task.get());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting for the response from " + url, e);
+        } catch (final ExecutionException e) {
+            resolvedItems.remove(key, task);
+            if (e.getCause() instanceof IntegrationException) {
+                throw (IntegrationException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new HubIntegrationException("Error getting the response from " + url + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Registers a view to be requested by the next prefetch, unless it has already been resolved or registered
+     */
+    public <T extends HubResponse> void addReference(final HubResponseService hubResponseService, final String url, final Class<T> clazz) {
+        if (StringUtils.isBlank(url)) {
+            return;
+        }
+        final FutureTask<T> task = createTask(hubResponseService, url, clazz);
+        if (resolvedItems.putIfAbsent(createKey(url, clazz), task) == null) {
+            pendingTasks.add(task);
+        }
+    }
+
+    /**
+     * Requests every registered view, at most parallelism at a time, and waits for all of them. A failed request is not reported here, the lookup
+     * that needs the view requests it again and gets the error.
+     */
+    public void prefetch(final int parallelism) throws InterruptedException {
+        prefetch(HubExecutor.getSharedInstance(), parallelism);
+    }
+
+    public void prefetch(final HubExecutor executor, final int parallelism) throws InterruptedException {
+        final List<FutureTask<? extends HubResponse>> tasks = new ArrayList<>();
+        FutureTask<? extends HubResponse> task;
+        while ((task = pendingTasks.poll()) != null) {
+            tasks.add(task);
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        final HubTaskGroup taskGroup = executor.createTaskGroup(Math.min(parallelism, tasks.size()));
+        for (final FutureTask<? extends HubResponse> pendingTask : tasks) {
+            taskGroup.execute(pendingTask);
+        }
+        // the tasks are not cancelled when interrupted, a lookup of a view that has not been requested yet requests it itself
+        for (final FutureTask<? extends HubResponse> pendingTask : tasks) {
+            try {
+                taskGroup.get(pendingTask);
+            } catch (final ExecutionException e) {
+                // the lookup that needs the view gets the error
+            }
+        }
+    }
+
+    private <T extends HubResponse> FutureTask<T> createTask(final HubResponseService hubResponseService, final String url, final Class<T> clazz) {
+        return new FutureTask<>(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                requestCount.incrementAndGet();
+                return hubResponseService.getItem(url, clazz);
+            }
+        });
+    }
+
+    private String createKey(final String url, final Class<?> clazz) {
+        return clazz.getName() + " " + url;
+    }
+
+    public NotificationResolutionStatistics getStatistics() {
+        return new NotificationResolutionStatistics(lookupCount.get(), requestCount.get(), resolvedItems.size());
+    }
+
+}
@@ -0,0 +1,72 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification.transformer;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+public class NotificationResolutionStatistics {
+    private final long lookupCount;
+
+    private final long requestCount;
+
+    private final int resolvedItemCount;
+
+    public NotificationResolutionStatistics(final long lookupCount, final long requestCount, final int resolvedItemCount) {
+        this.lookupCount = lookupCount;
+        this.requestCount = requestCount;
+        this.resolvedItemCount = resolvedItemCount;
+    }
+
+    /**
+     * The number of views the transformers asked for
+     */
+    public long getLookupCount() {
+        return lookupCount;
+    }
+
+    /**
+     * The number of requests made to the Hub to answer them
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * The number of requests avoided by reusing a view already requested in the batch
+     */
+    public long getSavedRequestCount() {
+        return lookupCount - requestCount;
+    }
+
+    public int getResolvedItemCount() {
+        return resolvedItemCount;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
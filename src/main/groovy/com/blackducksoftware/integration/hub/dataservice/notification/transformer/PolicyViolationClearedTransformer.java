@@ -88,6 +88,13 @@ public class PolicyViolationClearedTransformer extends AbstractPolicyTransformer
         return templateData;
     }
 
+    @Override
+    public void addReferences(final NotificationView item, final NotificationResolutionContext resolutionContext) {
+        final RuleViolationClearedNotificationView policyViolation = (RuleViolationClearedNotificationView) item;
+        resolutionContext.addReference(getProjectVersionService(), policyViolation.content.projectVersionLink, ProjectVersionView.class);
+        addComponentReferences(policyViolation.content.componentVersionStatuses, resolutionContext);
+    }
+
     @Override
     public void handleNotification(final List<ComponentVersionStatus> componentVersionList,
             final String projectName, final ProjectVersionView releaseItem, final NotificationView item,
@@ -129,7 +136,7 @@ public class PolicyViolationClearedTransformer extends AbstractPolicyTransformer
     }
 
     private ProjectVersionView getReleaseItem(final String projectVersionLink) throws IntegrationException {
-        final ProjectVersionView releaseItem = getProjectVersionService().getItem(projectVersionLink, ProjectVersionView.class);
+        final ProjectVersionView releaseItem = resolveItem(getProjectVersionService(), projectVersionLink, ProjectVersionView.class);
         return releaseItem;
     }
 
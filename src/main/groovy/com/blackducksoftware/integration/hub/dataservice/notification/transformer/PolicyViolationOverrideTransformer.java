@@ -81,7 +81,7 @@ public class PolicyViolationOverrideTransformer extends AbstractPolicyTransforme
         componentVersionList.add(componentStatus);
 
         try {
-            releaseItem = getProjectVersionService().getItem(policyOverride.content.projectVersionLink, ProjectVersionView.class);
+            releaseItem = resolveItem(getProjectVersionService(), policyOverride.content.projectVersionLink, ProjectVersionView.class);
         } catch (final IntegrationException e) {
             throw new HubItemTransformException(e);
         }
@@ -90,6 +90,15 @@ public class PolicyViolationOverrideTransformer extends AbstractPolicyTransforme
         return templateData;
     }
 
+    @Override
+    public void addReferences(final NotificationView item, final NotificationResolutionContext resolutionContext) {
+        final PolicyOverrideNotificationView policyOverride = (PolicyOverrideNotificationView) item;
+        resolutionContext.addReference(getProjectVersionService(), policyOverride.content.projectVersionLink, ProjectVersionView.class);
+        resolutionContext.addReference(getHubResponseService(), policyOverride.content.componentVersionLink, ComponentVersionView.class);
+        resolutionContext.addReference(getHubResponseService(), policyOverride.content.bomComponentVersionPolicyStatusLink, BomComponentPolicyStatusView.class);
+        addRuleReferences(policyOverride.content.policies, resolutionContext);
+    }
+
     @Override
     public void handleNotification(final List<ComponentVersionStatus> componentVersionList,
             final String projectName, final ProjectVersionView releaseItem, final NotificationView item,
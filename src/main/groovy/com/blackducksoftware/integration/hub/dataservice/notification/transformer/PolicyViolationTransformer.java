@@ -76,6 +76,13 @@ public class PolicyViolationTransformer extends AbstractPolicyTransformer {
         return templateData;
     }
 
+    @Override
+    public void addReferences(final NotificationView item, final NotificationResolutionContext resolutionContext) {
+        final RuleViolationNotificationView policyViolation = (RuleViolationNotificationView) item;
+        resolutionContext.addReference(getProjectVersionService(), policyViolation.content.projectVersionLink, ProjectVersionView.class);
+        addComponentReferences(policyViolation.content.componentVersionStatuses, resolutionContext);
+    }
+
     @Override
     public void handleNotification(final List<ComponentVersionStatus> componentVersionList, final String projectName, final ProjectVersionView releaseItem, final NotificationView item, final List<NotificationContentItem> templateData)
             throws HubItemTransformException {
@@ -112,7 +119,7 @@ public class PolicyViolationTransformer extends AbstractPolicyTransformer {
     }
 
     private ProjectVersionView getReleaseItem(final String projectVersionLink) throws IntegrationException {
-        final ProjectVersionView releaseItem = getProjectVersionService().getItem(projectVersionLink, ProjectVersionView.class);
+        final ProjectVersionView releaseItem = resolveItem(getProjectVersionService(), projectVersionLink, ProjectVersionView.class);
         return releaseItem;
     }
 
@@ -37,6 +37,7 @@ import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
 import com.blackducksoftware.integration.hub.exception.HubItemTransformException;
 import com.blackducksoftware.integration.hub.model.view.ComponentVersionView;
 import com.blackducksoftware.integration.hub.model.view.NotificationView;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
 import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
 import com.blackducksoftware.integration.hub.model.view.components.AffectedProjectVersion;
 import com.blackducksoftware.integration.hub.model.view.components.VulnerabilityNotificationContent;
@@ -118,6 +119,17 @@ public class VulnerabilityTransformer extends AbstractNotificationTransformer {
         return notificationContentItems;
     }
 
+    @Override
+    public void addReferences(final NotificationView item, final NotificationResolutionContext resolutionContext) {
+        final VulnerabilityNotificationContent vulnerabilityNotificationContent = ((VulnerabilityNotificationView) item).content;
+        resolutionContext.addReference(getHubResponseService(), vulnerabilityNotificationContent.componentVersionLink, ComponentVersionView.class);
+        if (vulnerabilityNotificationContent.affectedProjectVersions != null) {
+            for (final AffectedProjectVersion affectedProjectVersion : vulnerabilityNotificationContent.affectedProjectVersions) {
+                resolutionContext.addReference(getHubResponseService(), affectedProjectVersion.projectVersion, ProjectVersionView.class);
+            }
+        }
+    }
+
     private Throwable getOriginalException(final HubIntegrationException e) {
         Throwable originalException = e;
         while (originalException.getCause() != null) {
@@ -0,0 +1,71 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.parallel;
+
+import java.util.Date;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * An item whose transform failed for good, kept with the exception of its last attempt so that it can be processed again later
+ */
+public class DeadLetter<S> {
+    private final S item;
+
+    private final Exception exception;
+
+    private final int attempts;
+
+    private final Date failedAt;
+
+    public DeadLetter(final S item, final Exception exception, final int attempts) {
+        this.item = item;
+        this.exception = exception;
+        this.attempts = attempts;
+        this.failedAt = new Date();
+    }
+
+    public S getItem() {
+        return item;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Date getFailedAt() {
+        return failedAt;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
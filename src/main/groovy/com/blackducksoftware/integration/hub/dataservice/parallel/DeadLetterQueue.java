@@ -0,0 +1,102 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.parallel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the items a processor could not transform, across all of its calls, until they are drained. Pass drainItems() back to process to replay
+ * them. The queue holds at most capacity dead letters, once it is full the oldest one is dropped for each new one.
+ */
+public class DeadLetterQueue<S> {
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private final int capacity;
+
+    private final ArrayDeque<DeadLetter<S>> deadLetters = new ArrayDeque<>();
+
+    private long droppedCount;
+
+    public DeadLetterQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DeadLetterQueue(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The queue must hold at least one dead letter.");
+        }
+        this.capacity = capacity;
+    }
+
+    public synchronized void add(final DeadLetter<S> deadLetter) {
+        if (deadLetters.size() >= capacity) {
+            deadLetters.pollFirst();
+            droppedCount++;
+        }
+        deadLetters.addLast(deadLetter);
+    }
+
+    /**
+     * The dead letters collected so far, oldest first, leaving them in the queue
+     */
+    public synchronized List<DeadLetter<S>> getDeadLetters() {
+        return new ArrayList<>(deadLetters);
+    }
+
+    public synchronized List<DeadLetter<S>> drain() {
+        final List<DeadLetter<S>> drained = new ArrayList<>(deadLetters);
+        deadLetters.clear();
+        return drained;
+    }
+
+    public List<S> drainItems() {
+        final List<S> items = new ArrayList<>();
+        for (final DeadLetter<S> deadLetter : drain()) {
+            items.add(deadLetter.getItem());
+        }
+        return items;
+    }
+
+    public synchronized int size() {
+        return deadLetters.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return deadLetters.isEmpty();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of dead letters dropped to make room for newer ones
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.parallel;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * A batch started by ParallelResourceProcessor.processAsync. The future completes with the results of every item once the last one is done, or is
+ * cancelled along with the remaining items by cancel.
+ */
+public class ParallelProcessingHandle<R> {
+    private final CompletableFuture<ParallelResourceProcessorResults<R>> future = new CompletableFuture<>();
+
+    private final List<Future<?>> itemFutures = new CopyOnWriteArrayList<>();
+
+    private final List<R> results = new LinkedList<>();
+
+    private final List<Exception> exceptions = new ArrayList<>();
+
+    private final AtomicInteger remainingCount = new AtomicInteger(1);
+
+    private final AtomicInteger completedCount = new AtomicInteger();
+
+    public CompletableFuture<ParallelResourceProcessorResults<R>> getFuture() {
+        return future;
+    }
+
+    /**
+     * Interrupts the items still being transformed and cancels the future. Items completing after this call are not reported.
+     */
+    public void cancel() {
+        future.cancel(false);
+        for (final Future<?> itemFuture : itemFutures) {
+            itemFuture.cancel(true);
+        }
+    }
+
+    public boolean isCancelled() {
+        return future.isCancelled();
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public int getSubmittedCount() {
+        return itemFutures.size();
+    }
+
+    public int getCompletedCount() {
+        return completedCount.get();
+    }
+
+    void addItem(final Future<?> itemFuture) {
+        remainingCount.incrementAndGet();
+        itemFutures.add(itemFuture);
+        if (future.isCancelled()) {
+            itemFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Called once every item has been submitted, so the future cannot complete while items are still being added
+     */
+    void allItemsAdded() {
+        itemDone();
+    }
+
+    void addResults(final List<R> itemResults) {
+        synchronized (results) {
+            results.addAll(itemResults);
+        }
+        completedCount.incrementAndGet();
+    }
+
+    void addException(final Exception exception) {
+        synchronized (results) {
+            exceptions.add(exception);
+        }
+        completedCount.incrementAndGet();
+    }
+
+    /**
+     * Called exactly once for every item added, however it ended, after its results or exception have been added
+     */
+    void itemDone() {
+        if (remainingCount.decrementAndGet() == 0) {
+            synchronized (results) {
+                future.complete(new ParallelResourceProcessorResults<>(results, exceptions));
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
@@ -0,0 +1,41 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.parallel;
+
+import java.util.List;
+
+/**
+ * Notified as each item of an asynchronous batch is transformed. Implementations are called from the worker threads, in the order the items
+ * complete, so they must be thread safe and should return quickly.
+ */
+public interface ParallelResourceListener<R, S> {
+    public void itemProcessed(S item, List<R> results);
+
+    /**
+     * @param exception
+     *            a TimeoutException if the item took longer than the item timeout, otherwise the exception the transform threw
+     */
+    public void itemFailed(S item, Exception exception);
+
+}
@@ -25,39 +25,83 @@ package com.blackducksoftware.integration.hub.dataservice.parallel;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.dataservice.ItemTransform;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.executor.HubTaskGroup;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
 import com.blackducksoftware.integration.log.IntLogger;
 
 public class ParallelResourceProcessor<R, S> {
+    private static final Object END_OF_ITEMS = new Object();
+
+    private static final String DEFAULT_PRODUCER_NAME = "hub-parallel";
+
+    private static final AtomicInteger PRODUCER_THREAD_NUMBER = new AtomicInteger();
+
     private final Map<Class<?>, ItemTransform<List<R>, S>> transformerMap = new HashMap<>();;
 
+    private final HubExecutor executor;
+
     private final ExecutorService executorService;
 
     private final ExecutorCompletionService<List<R>> completionService;
 
     private final IntLogger logger;
 
+    private volatile DeadLetterQueue<S> deadLetterQueue;
+
+    private final ConcurrentMap<Class<?>, TransformCounters> transformCounters = new ConcurrentHashMap<>();
+
+    private volatile RetryPolicy retryPolicy;
+
+    private volatile HubRateLimiter rateLimiter;
+
     public ParallelResourceProcessor(final IntLogger logger) {
+        this(logger, HubExecutor.getSharedInstance());
+    }
+
+    /**
+     * Runs the transforms on the shared executor. Every call gets a task group of its own, so concurrent calls only share the threads, and a call
+     * waiting for its transforms runs them itself when every thread is busy.
+     */
+    public ParallelResourceProcessor(final IntLogger logger, final HubExecutor executor) {
         this.logger = logger;
-        final ThreadFactory threadFactory = Executors.defaultThreadFactory();
-        executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory);
-        completionService = new ExecutorCompletionService<>(executorService);
+        this.executor = executor;
+        this.executorService = executor.getExecutorService();
+        this.completionService = null;
     }
 
     public ParallelResourceProcessor(final IntLogger logger, final ExecutorService executorService,
             final ExecutorCompletionService<List<R>> completionService) {
         this.logger = logger;
+        this.executor = null;
         this.executorService = executorService;
         this.completionService = completionService;
     }
@@ -70,20 +114,226 @@ public class ParallelResourceProcessor<R, S> {
         transformerMap.remove(clazz);
     }
 
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * When set, an item whose transform fails with a retryable error is transformed again on the same worker after the backoff of the policy. Items
+     * are not retried by default.
+     */
+    public void setRetryPolicy(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public HubRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * When set, each call runs no more transforms at once than the current limit of the limiter, read when the call starts, so that a Hub that is
+     * slowing down is not sent more requests than it can take. The requests of the transforms still take their permits from the limiter of their
+     * services.
+     */
+    public void setRateLimiter(final HubRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public DeadLetterQueue<S> getDeadLetterQueue() {
+        return deadLetterQueue;
+    }
+
+    /**
+     * When set, every item whose transform failed for good, with or without retries, is added to the queue as well as reported in the exceptions of
+     * the results. No dead letters are kept by default.
+     */
+    public void setDeadLetterQueue(final DeadLetterQueue<S> deadLetterQueue) {
+        this.deadLetterQueue = deadLetterQueue;
+    }
+
+    public TransformCounters getTransformCounters(final Class<?> itemClass) {
+        TransformCounters counters = transformCounters.get(itemClass);
+        if (counters == null) {
+            final TransformCounters newCounters = new TransformCounters(itemClass);
+            counters = transformCounters.putIfAbsent(itemClass, newCounters);
+            if (counters == null) {
+                counters = newCounters;
+            }
+        }
+        return counters;
+    }
+
+    public List<TransformCounters> getAllTransformCounters() {
+        return new ArrayList<>(transformCounters.values());
+    }
+
     public ParallelResourceProcessorResults<R> process(final List<S> itemsToProcess) {
-        final int submitted = submitItems(itemsToProcess);
-        final ParallelResourceProcessorResults<R> results = processItems(submitted);
+        return process(itemsToProcess, transformerMap);
+    }
+
+    /**
+     * Transforms the items with the given transforms instead of the ones added to this processor, so that each call can use transforms holding state
+     * of its own
+     */
+    public ParallelResourceProcessorResults<R> process(final List<S> itemsToProcess, final Map<Class<?>, ItemTransform<List<R>, S>> transforms) {
+        final ProcessingRun run = new ProcessingRun();
+        final int submitted = submitItems(itemsToProcess, transforms, run);
+        final ParallelResourceProcessorResults<R> results = processItems(submitted, run);
         return results;
     }
 
-    private int submitItems(final List<S> itemList) {
+    /**
+     * Transforms the items while they are still being produced. A separate thread walks the iterator, which may fetch pages as it goes, into a queue
+     * holding at most maxQueuedItems, and each item is handed to the transform workers as soon as it is taken from the queue. Once maxQueuedItems
+     * transforms are pending no more items are taken, so the queue fills up and the iterator is not advanced until the workers catch up.
+     *
+     * @throws RuntimeException
+     *             the exception the iterator threw, once the items it did produce have been transformed
+     */
+    public ParallelResourceProcessorResults<R> process(final Iterator<S> itemIterator, final int maxQueuedItems) {
+        return process(itemIterator, maxQueuedItems, transformerMap);
+    }
+
+    public ParallelResourceProcessorResults<R> process(final Iterator<S> itemIterator, final int maxQueuedItems,
+            final Map<Class<?>, ItemTransform<List<R>, S>> transforms) {
+        if (maxQueuedItems < 1) {
+            throw new IllegalArgumentException("At least one item must be allowed in the queue.");
+        }
+        final ProcessingRun run = new ProcessingRun();
+        final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(maxQueuedItems);
+        final AtomicReference<RuntimeException> iteratorException = new AtomicReference<>();
+        final Thread producerThread = createProducerThread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (itemIterator.hasNext()) {
+                        queue.put(itemIterator.next());
+                    }
+                } catch (final RuntimeException e) {
+                    iteratorException.set(e);
+                } catch (final InterruptedException e) {
+                    return;
+                }
+                try {
+                    queue.put(END_OF_ITEMS);
+                } catch (final InterruptedException e) {
+                    // the consumer has given up
+                }
+            }
+        });
+        producerThread.start();
+
+        final List<R> resultsList = new LinkedList<>();
+        final List<Exception> exceptions = new ArrayList<>();
+        int pending = 0;
+        try {
+            Object queuedItem;
+            while ((queuedItem = queue.take()) != END_OF_ITEMS) {
+                @SuppressWarnings("unchecked")
+                final S item = (S) queuedItem;
+                if (submitItem(item, transforms, run)) {
+                    pending++;
+                }
+                Future<List<R>> completed;
+                while ((completed = run.poll()) != null) {
+                    addResult(completed, resultsList, exceptions);
+                    pending--;
+                }
+                while (pending >= maxQueuedItems) {
+                    addResult(run.take(), resultsList, exceptions);
+                    pending--;
+                }
+            }
+            while (pending > 0) {
+                addResult(run.take(), resultsList, exceptions);
+                pending--;
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final String msg = "Error from parallel task: " + e.getMessage();
+            logger.error(msg, e);
+            exceptions.add(e);
+        } finally {
+            // a producer still blocked on a full queue is never drained again
+            producerThread.interrupt();
+        }
+        if (iteratorException.get() != null) {
+            throw iteratorException.get();
+        }
+        return new ParallelResourceProcessorResults<>(resultsList, exceptions);
+    }
+
+    public ParallelProcessingHandle<R> processAsync(final List<S> itemsToProcess, final ParallelResourceListener<R, S> listener) {
+        return processAsync(itemsToProcess, 0, TimeUnit.MILLISECONDS, listener, transformerMap);
+    }
+
+    public ParallelProcessingHandle<R> processAsync(final List<S> itemsToProcess, final long itemTimeout, final TimeUnit timeUnit,
+            final ParallelResourceListener<R, S> listener) {
+        return processAsync(itemsToProcess, itemTimeout, timeUnit, listener, transformerMap);
+    }
+
+    /**
+     * Starts transforming the items and returns without waiting for them. The listener, which may be null, is told about each item as soon as it is
+     * done, and the future of the handle completes with all of the results once the last item is done. An item still being transformed itemTimeout
+     * after it started is interrupted and reported as a TimeoutException, a timeout of 0 lets every item take as long as it needs.
+     */
+    public ParallelProcessingHandle<R> processAsync(final List<S> itemsToProcess, final long itemTimeout, final TimeUnit timeUnit,
+            final ParallelResourceListener<R, S> listener, final Map<Class<?>, ItemTransform<List<R>, S>> transforms) {
+        final ParallelProcessingHandle<R> handle = new ParallelProcessingHandle<>();
+        final long itemTimeoutNanos = timeUnit.toNanos(itemTimeout);
+        final Executor itemExecutor = createAsyncExecutor();
+        for (final S item : itemsToProcess) {
+            final ItemTransform<List<R>, S> converter = transforms.get(item.getClass());
+            if (converter == null) {
+                continue;
+            }
+            final AsyncTransformTask task = new AsyncTransformTask(item, converter, itemTimeoutNanos, handle, listener);
+            handle.addItem(task);
+            if (handle.isCancelled()) {
+                break;
+            }
+            try {
+                itemExecutor.execute(task);
+            } catch (final RejectedExecutionException e) {
+                task.reject(e);
+            }
+        }
+        handle.allItemsAdded();
+        return handle;
+    }
+
+    /**
+     * The producer gets a thread of its own rather than one of the executor, as it blocks while the queue is full and the executor would run it on the
+     * calling thread once its own queue is full, which is the thread that has to drain the queue. The thread is named after the executor and never
+     * outlives the call.
+     */
+    private Thread createProducerThread(final Runnable producer) {
+        final String executorName = executor == null ? DEFAULT_PRODUCER_NAME : executor.getName();
+        final Thread thread = new Thread(producer, executorName + "-producer-" + PRODUCER_THREAD_NUMBER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private Executor createAsyncExecutor() {
+        if (executor == null) {
+            return executorService;
+        }
+        return executor.createTaskGroup(getParallelism());
+    }
+
+    private int getParallelism() {
+        final HubRateLimiter itemRateLimiter = rateLimiter;
+        if (itemRateLimiter == null) {
+            return executor.getMaximumPoolSize();
+        }
+        return Math.min(executor.getMaximumPoolSize(), itemRateLimiter.getCurrentLimit());
+    }
+
+    private int submitItems(final List<S> itemList, final Map<Class<?>, ItemTransform<List<R>, S>> transforms,
+            final ProcessingRun run) {
         int submitted = 0;
         for (final S item : itemList) {
-            final Class<?> key = item.getClass();
-            if (transformerMap.containsKey(key)) {
-                final ItemTransform<List<R>, S> converter = transformerMap.get(key);
-                final TransformCallable callable = new TransformCallable(item, converter);
-                completionService.submit(callable);
+            if (submitItem(item, transforms, run)) {
                 submitted++;
             }
         }
@@ -91,15 +341,25 @@ public class ParallelResourceProcessor<R, S> {
         return submitted;
     }
 
-    private ParallelResourceProcessorResults<R> processItems(final int submitted) {
+    private boolean submitItem(final S item, final Map<Class<?>, ItemTransform<List<R>, S>> transforms,
+            final ProcessingRun run) {
+        final Class<?> key = item.getClass();
+        if (transforms.containsKey(key)) {
+            final ItemTransform<List<R>, S> converter = transforms.get(key);
+            final TransformCallable callable = new TransformCallable(item, converter);
+            run.submit(callable);
+            return true;
+        }
+        return false;
+    }
+
+    private ParallelResourceProcessorResults<R> processItems(final int submitted, final ProcessingRun run) {
         final List<R> resultsList = new LinkedList<>();
         final List<Exception> exceptions = new ArrayList<>();
         for (int index = 0; index < submitted; index++) {
             try {
-                final Future<List<R>> future = completionService.take();
-                final List<R> contentItems = future.get();
-                resultsList.addAll(contentItems);
-            } catch (final ExecutionException | InterruptedException e) {
+                addResult(run.take(), resultsList, exceptions);
+            } catch (final InterruptedException e) {
                 final String msg = "Error from parallel task: " + e.getMessage();
                 logger.error(msg, e);
                 exceptions.add(e);
@@ -109,19 +369,247 @@ public class ParallelResourceProcessor<R, S> {
         return resultsObject;
     }
 
+    private void addResult(final Future<List<R>> future, final List<R> resultsList, final List<Exception> exceptions) throws InterruptedException {
+        try {
+            final List<R> contentItems = future.get();
+            resultsList.addAll(contentItems);
+        } catch (final ExecutionException e) {
+            final String msg = "Error from parallel task: " + e.getMessage();
+            logger.error(msg, e);
+            exceptions.add(e);
+        }
+    }
+
+    /**
+     * The transforms of a single synchronous call. On a HubExecutor they run in a task group of the call, otherwise on the completion service given
+     * to the constructor.
+     */
+    private class ProcessingRun {
+        private final HubTaskGroup taskGroup;
+
+        private final ExecutorCompletionService<List<R>> runCompletionService;
+
+        public ProcessingRun() {
+            if (executor == null) {
+                taskGroup = null;
+                runCompletionService = completionService;
+            } else {
+                taskGroup = executor.createTaskGroup(getParallelism());
+                runCompletionService = new ExecutorCompletionService<>(taskGroup);
+            }
+        }
+
+        public void submit(final Callable<List<R>> callable) {
+            runCompletionService.submit(callable);
+        }
+
+        public Future<List<R>> poll() {
+            return runCompletionService.poll();
+        }
+
+        public Future<List<R>> take() throws InterruptedException {
+            if (taskGroup == null) {
+                return runCompletionService.take();
+            }
+            return taskGroup.take(runCompletionService);
+        }
+    }
+
+    /**
+     * Reports its item to the handle and the listener when done. The timeout only starts once a worker picks the task up, time spent queued does not
+     * count.
+     */
+    private class AsyncTransformTask extends FutureTask<List<R>> {
+        private final S item;
+
+        private final long itemTimeoutNanos;
+
+        private final ParallelProcessingHandle<R> handle;
+
+        private final ParallelResourceListener<R, S> listener;
+
+        private volatile boolean timedOut;
+
+        private final TransformCallable callable;
+
+        private volatile ScheduledFuture<?> timeoutFuture;
+
+        public AsyncTransformTask(final S item, final ItemTransform<List<R>, S> converter, final long itemTimeoutNanos, final ParallelProcessingHandle<R> handle,
+                final ParallelResourceListener<R, S> listener) {
+            this(item, new TransformCallable(item, converter), itemTimeoutNanos, handle, listener);
+        }
+
+        private AsyncTransformTask(final S item, final TransformCallable callable, final long itemTimeoutNanos, final ParallelProcessingHandle<R> handle,
+                final ParallelResourceListener<R, S> listener) {
+            super(callable);
+            this.callable = callable;
+            this.item = item;
+            this.itemTimeoutNanos = itemTimeoutNanos;
+            this.handle = handle;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            if (itemTimeoutNanos > 0 && !isDone()) {
+                timeoutFuture = TimeoutScheduler.INSTANCE.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        timedOut = true;
+                        cancel(true);
+                    }
+                }, itemTimeoutNanos, TimeUnit.NANOSECONDS);
+            }
+            super.run();
+        }
+
+        public void reject(final RejectedExecutionException e) {
+            setException(e);
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            // a transform that swallows the interrupt must not be retried either
+            callable.stop();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        /**
+         * Called exactly once, however the task ended, so every item is accounted for in the handle exactly once
+         */
+        @Override
+        protected void done() {
+            try {
+                if (timeoutFuture != null) {
+                    timeoutFuture.cancel(false);
+                }
+                if (!handle.isCancelled()) {
+                    reportOutcome();
+                }
+            } finally {
+                handle.itemDone();
+            }
+        }
+
+        private void reportOutcome() {
+            try {
+                final List<R> itemResults = get();
+                notifyListener(itemResults, null);
+                handle.addResults(itemResults);
+            } catch (final CancellationException e) {
+                final Exception exception;
+                if (timedOut) {
+                    exception = new TimeoutException("The transform of " + item + " did not finish within "
+                            + TimeUnit.NANOSECONDS.toMillis(itemTimeoutNanos) + " ms");
+                } else {
+                    // cancelled by the executor, for example when it was closed
+                    exception = e;
+                }
+                logger.error("Error from parallel task: " + exception.getMessage(), exception);
+                notifyListener(null, exception);
+                handle.addException(exception);
+            } catch (final ExecutionException e) {
+                final String msg = "Error from parallel task: " + e.getMessage();
+                logger.error(msg, e);
+                notifyListener(null, e);
+                handle.addException(e);
+            } catch (final InterruptedException e) {
+                // get() does not wait once the task is done
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void notifyListener(final List<R> itemResults, final Exception exception) {
+            if (listener == null) {
+                return;
+            }
+            try {
+                if (exception == null) {
+                    listener.itemProcessed(item, itemResults);
+                } else {
+                    listener.itemFailed(item, exception);
+                }
+            } catch (final RuntimeException e) {
+                logger.error("Error from parallel resource listener: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static class TimeoutScheduler {
+        private static final ScheduledThreadPoolExecutor INSTANCE = createScheduler();
+
+        private static ScheduledThreadPoolExecutor createScheduler() {
+            final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "hub-parallel-timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            scheduler.setRemoveOnCancelPolicy(true);
+            return scheduler;
+        }
+    }
+
     private class TransformCallable implements Callable<List<R>> {
         private final S item;
 
         private final ItemTransform<List<R>, S> converter;
 
+        private volatile boolean stopped;
+
         public TransformCallable(final S item, final ItemTransform<List<R>, S> converter) {
             this.item = item;
             this.converter = converter;
         }
 
+        public void stop() {
+            stopped = true;
+        }
+
         @Override
         public List<R> call() throws Exception {
-            return converter.transform(item);
+            final TransformCounters counters = getTransformCounters(item.getClass());
+            final RetryPolicy itemRetryPolicy = retryPolicy;
+            int attempt = 1;
+            while (true) {
+                try {
+                    final List<R> results = converter.transform(item);
+                    counters.recordSuccess();
+                    return results;
+                } catch (final IntegrationException e) {
+                    if (itemRetryPolicy == null || !itemRetryPolicy.shouldRetry(attempt, e) || isStopped()) {
+                        throw failed(counters, e, attempt);
+                    }
+                    counters.recordRetry();
+                    try {
+                        itemRetryPolicy.waitBeforeRetry(attempt);
+                    } catch (final InterruptedException interruptedException) {
+                        Thread.currentThread().interrupt();
+                        throw failed(counters, e, attempt);
+                    }
+                    if (isStopped()) {
+                        throw failed(counters, e, attempt);
+                    }
+                    attempt++;
+                } catch (final RuntimeException e) {
+                    throw failed(counters, e, attempt);
+                }
+            }
+        }
+
+        private boolean isStopped() {
+            return stopped || Thread.currentThread().isInterrupted();
+        }
+
+        private <E extends Exception> E failed(final TransformCounters counters, final E exception, final int attempts) {
+            counters.recordFailure();
+            final DeadLetterQueue<S> itemDeadLetterQueue = deadLetterQueue;
+            if (itemDeadLetterQueue != null) {
+                itemDeadLetterQueue.add(new DeadLetter<>(item, exception, attempts));
+            }
+            return exception;
         }
     }
 }
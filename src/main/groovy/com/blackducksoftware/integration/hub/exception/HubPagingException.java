@@ -0,0 +1,42 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.exception;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+
+/**
+ * Thrown by the lazy paging iterators, which can not declare the checked IntegrationException, when a page could not be fetched.
+ */
+public class HubPagingException extends RuntimeException {
+    private static final long serialVersionUID = 4474838658713447283L;
+
+    public HubPagingException(final IntegrationException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    public IntegrationException getIntegrationException() {
+        return (IntegrationException) getCause();
+    }
+
+}
@@ -23,33 +23,84 @@
  */
 package com.blackducksoftware.integration.hub.service;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.stream.Stream;
 
 import com.blackducksoftware.integration.exception.IntegrationException;
 import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubPagingException;
 import com.blackducksoftware.integration.hub.model.HubResponse;
 import com.blackducksoftware.integration.hub.request.HubPagedRequest;
 import com.blackducksoftware.integration.hub.request.HubRequest;
 import com.blackducksoftware.integration.hub.request.HubRequestFactory;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.blackducksoftware.integration.hub.service.cache.DiskResponseStore;
+import com.blackducksoftware.integration.hub.service.cache.DiskResponseStore.StoredResponse;
+import com.blackducksoftware.integration.hub.service.cache.HubViewCache;
+import com.blackducksoftware.integration.hub.service.cache.SingleFlightGroup;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.metrics.HubRequestListener;
+import com.blackducksoftware.integration.hub.service.metrics.HubRequestTimer;
+import com.blackducksoftware.integration.hub.service.paging.AdaptivePageSizer;
+import com.blackducksoftware.integration.hub.service.paging.CheckpointingPageFetcher;
+import com.blackducksoftware.integration.hub.service.paging.ConcurrentPageLoader;
+import com.blackducksoftware.integration.hub.service.paging.HubPage;
+import com.blackducksoftware.integration.hub.service.paging.HubPageFetcher;
+import com.blackducksoftware.integration.hub.service.paging.HubPagedItemIterator;
+import com.blackducksoftware.integration.hub.service.paging.HubPagingCheckpoint;
+import com.blackducksoftware.integration.hub.service.paging.RetryingPageFetcher;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
+import okhttp3.Request;
 import okhttp3.Response;
 
 public class HubResponseService {
+    private final RestConnection restConnection;
+
     private final HubRequestFactory hubRequestFactory;
     private final URL hubBaseUrl;
     private final JsonParser jsonParser;
     private final Gson gson;
 
+    private boolean retainItemJson;
+
+    private HubViewCache viewCache;
+
+    private SingleFlightGroup singleFlightGroup;
+
+    private DiskResponseStore responseStore;
+
+    private AdaptivePageSizer pageSizer;
+
+    private RetryPolicy retryPolicy;
+
+    private HubRequestListener requestListener;
+
+    private HubRateLimiter rateLimiter;
+
+    private HubExecutor executor = HubExecutor.getSharedInstance();
+
     public HubResponseService(final RestConnection restConnection) {
+        this.restConnection = restConnection;
         this.hubRequestFactory = new HubRequestFactory(restConnection);
         this.hubBaseUrl = restConnection.hubBaseUrl;
         this.jsonParser = restConnection.jsonParser;
@@ -60,6 +111,10 @@ public class HubResponseService {
         return hubBaseUrl;
     }
 
+    public RestConnection getRestConnection() {
+        return restConnection;
+    }
+
     public HubRequestFactory getHubRequestFactory() {
         return hubRequestFactory;
     }
@@ -72,6 +127,149 @@ public class HubResponseService {
         return gson;
     }
 
+    public boolean isRetainItemJson() {
+        return retainItemJson;
+    }
+
+    /**
+     * When true, items read from a response stream are parsed into a tree first so that their json field can be filled in. Defaults to false, which
+     * binds the items straight from the stream and leaves their json field null.
+     */
+    public void setRetainItemJson(final boolean retainItemJson) {
+        this.retainItemJson = retainItemJson;
+    }
+
+    public HubViewCache getViewCache() {
+        return viewCache;
+    }
+
+    /**
+     * When set, getItem(String, Class) serves the view types the cache accepts from the cache. Cached views are shared between every service using
+     * the same cache, so they should be treated as read only.
+     */
+    public void setViewCache(final HubViewCache viewCache) {
+        this.viewCache = viewCache;
+    }
+
+    public SingleFlightGroup getSingleFlightGroup() {
+        return singleFlightGroup;
+    }
+
+    /**
+     * When set, concurrent getItem(String, Class) calls for the same url and type share a single request
+     */
+    public void setSingleFlightGroup(final SingleFlightGroup singleFlightGroup) {
+        this.singleFlightGroup = singleFlightGroup;
+    }
+
+    public DiskResponseStore getResponseStore() {
+        return responseStore;
+    }
+
+    /**
+     * When set, getItem(String, Class) stores bodies that come with an ETag or Last-Modified header and revalidates them with a conditional request
+     * the next time, reading the stored body when the Hub answers 304 Not Modified
+     */
+    public void setResponseStore(final DiskResponseStore responseStore) {
+        this.responseStore = responseStore;
+    }
+
+    public AdaptivePageSizer getPageSizer() {
+        return pageSizer;
+    }
+
+    /**
+     * When set, getAllItems and the other lazy listings adjust the limit of each page request within the bounds of the sizer, starting from the limit
+     * of the provided request. Every listing starts with a fresh copy of the sizer.
+     */
+    public void setPageSizer(final AdaptivePageSizer pageSizer) {
+        this.pageSizer = pageSizer;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * When set, a page that fails with a retryable error is requested again on its own instead of failing the whole listing
+     */
+    public void setRetryPolicy(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public HubRequestListener getRequestListener() {
+        return requestListener;
+    }
+
+    /**
+     * When set, the listener is told about every GET this service makes for items and pages: the endpoint, status, latency, bytes read, parse time
+     * and page number
+     */
+    public void setRequestListener(final HubRequestListener requestListener) {
+        this.requestListener = requestListener;
+    }
+
+    public HubRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * When set, every GET this service makes for items and pages waits for a permit from the limiter and reports its latency and status back to it
+     */
+    public void setRateLimiter(final HubRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    public HubExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * The executor the pages of getAllItemsConcurrently are fetched on, which is not closed by this service. Defaults to the shared HubExecutor.
+     */
+    public void setExecutor(final HubExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Every request a service makes to the Hub holds a permit until its response has been read. Report an exception that fails the request to the
+     * permit before releasing it.
+     */
+    protected HubRateLimiter.Permit acquirePermit() throws IntegrationException {
+        if (rateLimiter == null) {
+            return HubRateLimiter.Permit.unlimited();
+        }
+        return rateLimiter.acquire();
+    }
+
+    /**
+     * Deletes the item of the request while holding a permit of the rate limiter
+     */
+    protected void executeDelete(final HubRequest request) throws IntegrationException {
+        final HubRateLimiter.Permit permit = acquirePermit();
+        try {
+            request.executeDelete();
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
+        } finally {
+            permit.release();
+        }
+    }
+
+    public HubRequestTimer createRequestTimer(final HubRequest request) {
+        return HubRequestTimer.forRequest(requestListener, request);
+    }
+
+    public void invalidateCachedItem(final String url) {
+        if (viewCache != null) {
+            viewCache.invalidate(url);
+        }
+        if (responseStore != null) {
+            responseStore.remove(url);
+        }
+    }
+
     public <T extends HubResponse> T getItemAs(final JsonElement item, final Class<T> clazz) {
         final T hubItem = gson.fromJson(item, clazz);
         hubItem.json = gson.toJson(item);
@@ -84,29 +282,165 @@ public class HubResponseService {
         return hubItem;
     }
 
+    /**
+     * A lenient reader over the body of the response, the body is read as it is parsed rather than being buffered into a String first
+     */
+    public JsonReader createJsonReader(final Response response) {
+        final JsonReader reader = new JsonReader(response.body().charStream());
+        reader.setLenient(true);
+        return reader;
+    }
+
+    public JsonReader createJsonReader(final InputStream inputStream) {
+        final JsonReader reader = new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Reads the next value of the reader as a single item. The JSON is only parsed into a tree when the json field must be retained.
+     */
+    public <T extends HubResponse> T getItemAs(final JsonReader reader, final Class<T> clazz) throws IOException {
+        if (retainItemJson) {
+            final JsonElement element = jsonParser.parse(reader);
+            return getItemAs(element, clazz);
+        }
+        return gson.fromJson(reader, clazz);
+    }
+
     public <T extends HubResponse> T getItem(final HubRequest request, final Class<T> clazz) throws IntegrationException {
+        final HubRateLimiter.Permit permit = acquirePermit();
+        final HubRequestTimer requestTimer = createRequestTimer(request);
         Response response = null;
         try {
             response = request.executeGet();
-            // the string method closes the body
-            final String jsonResponse = response.body().string();
-
-            final JsonObject jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-            return getItemAs(jsonObject, clazz);
+            permit.responseReceived(requestTimer.getUrl());
+            final InputStream body = requestTimer.responseReceived(response);
+            return getItemAs(createJsonReader(body), clazz);
+        } catch (final IntegrationRestException e) {
+            requestTimer.failed(e.getHttpStatusCode());
+            permit.failed(e);
+            throw e;
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } catch (final IOException e) {
+            permit.failed(e);
             throw new HubIntegrationException(e);
         } finally {
             if (response != null) {
                 response.close();
             }
+            requestTimer.finish();
+            permit.release();
         }
     }
 
     public <T extends HubResponse> T getItem(final String url, final Class<T> clazz) throws IntegrationException {
+        if (viewCache == null || !viewCache.isCacheable(clazz)) {
+            return fetchItem(url, clazz);
+        }
+        final T cachedItem = viewCache.get(url, clazz);
+        if (cachedItem != null) {
+            return cachedItem;
+        }
+        final T item = fetchItem(url, clazz);
+        viewCache.put(url, clazz, item);
+        return item;
+    }
+
+    private <T extends HubResponse> T fetchItem(final String url, final Class<T> clazz) throws IntegrationException {
+        if (singleFlightGroup == null) {
+            return requestItem(url, clazz);
+        }
+        return singleFlightGroup.execute(url, clazz, new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                return requestItem(url, clazz);
+            }
+        });
+    }
+
+    private <T extends HubResponse> T requestItem(final String url, final Class<T> clazz) throws IntegrationException {
+        if (responseStore != null) {
+            final T item = getConditionalItem(url, clazz);
+            if (item != null) {
+                return item;
+            }
+            // the stored body was replaced or deleted by another thread after the Hub confirmed it, so it is requested again
+        }
         final HubRequest request = getHubRequestFactory().createRequest(url);
         return getItem(request, clazz);
     }
 
+    /**
+     * @return null if the Hub confirmed the stored response but the store no longer holds its body
+     */
+
+    private <T extends HubResponse> T getConditionalItem(final String url, final Class<T> clazz) throws IntegrationException {
+        final HubRateLimiter.Permit permit = acquirePermit();
+        final HubRequestTimer requestTimer = new HubRequestTimer(requestListener, url, 0);
+        Response response = null;
+        try {
+            final StoredResponse storedResponse = responseStore.get(url);
+            final Map<String, String> headers = new HashMap<>();
+            if (storedResponse != null && storedResponse.getEtag() != null) {
+                headers.put("If-None-Match", storedResponse.getEtag());
+            }
+            if (storedResponse != null && storedResponse.getLastModified() != null) {
+                headers.put("If-Modified-Since", storedResponse.getLastModified());
+            }
+            final Request request = restConnection.createGetRequest(restConnection.createHttpUrl(url), headers);
+            try {
+                response = restConnection.handleExecuteClientCall(request);
+                permit.responseReceived(url);
+            } catch (final IntegrationRestException e) {
+                requestTimer.failed(e.getHttpStatusCode());
+                if (storedResponse != null && e.getHttpStatusCode() == 304) {
+                    permit.responseReceived(url);
+                    return readStoredItem(storedResponse, clazz);
+                }
+                permit.failed(e);
+                throw e;
+            } catch (final IntegrationException e) {
+                permit.failed(e);
+                throw e;
+            }
+            final InputStream body = requestTimer.responseReceived(response);
+            if (storedResponse != null && response.code() == 304) {
+                return readStoredItem(storedResponse, clazz);
+            }
+
+            final String etag = response.header("ETag");
+            final String lastModified = response.header("Last-Modified");
+            if (etag == null && lastModified == null) {
+                return getItemAs(createJsonReader(body), clazz);
+            }
+            final StoredResponse newStoredResponse = responseStore.put(url, etag, lastModified, body);
+            return readStoredItem(newStoredResponse, clazz);
+        } catch (final IOException e) {
+            permit.failed(e);
+            throw new HubIntegrationException(e);
+        } finally {
+            if (response != null) {
+                response.close();
+            }
+            requestTimer.finish();
+            permit.release();
+        }
+    }
+
+    private <T extends HubResponse> T readStoredItem(final StoredResponse storedResponse, final Class<T> clazz) throws IOException {
+        responseStore.touch(storedResponse);
+        try (Reader storedBody = storedResponse.openReader()) {
+            final JsonReader reader = new JsonReader(storedBody);
+            reader.setLenient(true);
+            return getItemAs(reader, clazz);
+        } catch (final FileNotFoundException e) {
+            return null;
+        }
+    }
+
     public <T extends HubResponse> List<T> getItems(final JsonArray itemsArray, final Class<T> clazz) {
         final LinkedList<T> itemList = new LinkedList<>();
         for (final JsonElement element : itemsArray) {
@@ -134,20 +468,99 @@ public class HubResponseService {
      * Will NOT make further paged requests to get the full list of items
      */
     public <T extends HubResponse> List<T> getItems(final HubPagedRequest hubPagedRequest, final Class<T> clazz) throws IntegrationException {
+        return getPage(hubPagedRequest, clazz).getItems();
+    }
+
+    /**
+     * Will NOT make further paged requests to get the full list of items
+     */
+    public <T extends HubResponse> HubPage<T> getPage(final HubPagedRequest hubPagedRequest, final Class<T> clazz) throws IntegrationException {
+        final HubRateLimiter.Permit permit = acquirePermit();
+        final HubRequestTimer requestTimer = createRequestTimer(hubPagedRequest);
         Response response = null;
         try {
             response = hubPagedRequest.executeGet();
-            final String jsonResponse = response.body().string();
-
-            final JsonObject jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-            return getItems(jsonObject, clazz);
+            permit.responseReceived(requestTimer.getUrl());
+            final InputStream body = requestTimer.responseReceived(response);
+            final HubPage<T> page = readPage(createJsonReader(body), clazz);
+            return new HubPage<>(page.getTotalCount(), page.getItems(), requestTimer.getByteCount());
+        } catch (final IntegrationRestException e) {
+            requestTimer.failed(e.getHttpStatusCode());
+            permit.failed(e);
+            throw e;
+        } catch (final IntegrationException e) {
+            permit.failed(e);
+            throw e;
         } catch (final IOException e) {
+            permit.failed(e);
             throw new HubIntegrationException(e);
         } finally {
             if (response != null) {
                 response.close();
             }
+            requestTimer.finish();
+            permit.release();
+        }
+    }
+
+    /**
+     * Reads a page object, deserializing the entries of its items array one at a time as they are read
+     */
+    public <T extends HubResponse> HubPage<T> readPage(final JsonReader reader, final Class<T> clazz) throws IOException {
+        int totalCount = 0;
+        final List<T> itemList = new LinkedList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if ("totalCount".equals(name)) {
+                totalCount = reader.nextInt();
+            } else if ("items".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    itemList.add(getItemAs(reader, clazz));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
         }
+        reader.endObject();
+        return new HubPage<>(totalCount, itemList);
+    }
+
+    public <T extends HubResponse> HubPageFetcher<T> createPageFetcher(final Class<T> clazz) {
+        final HubPageFetcher<T> pageFetcher = new HubPageFetcher<T>() {
+            @Override
+            public HubPage<T> fetchPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+                return getPage(hubPagedRequest, clazz);
+            }
+        };
+        if (retryPolicy == null) {
+            return pageFetcher;
+        }
+        return new RetryingPageFetcher<>(pageFetcher, retryPolicy);
+    }
+
+    /**
+     * Will make further paged requests lazily, only when the items of the current page have been consumed
+     */
+    public <T extends HubResponse> HubPagedItemIterator<T> getAllItemsIterator(final HubPagedRequest hubPagedRequest, final Class<T> clazz) {
+        return new HubPagedItemIterator<>(hubPagedRequest, createPageFetcher(clazz), createRunPageSizer());
+    }
+
+    /**
+     * Will make further paged requests lazily, only when the items of the current page have been consumed. A page that can not be retrieved is reported as a HubPagingException.
+     */
+    public <T extends HubResponse> Stream<T> streamAllItems(final HubPagedRequest hubPagedRequest, final Class<T> clazz) {
+        return getAllItemsIterator(hubPagedRequest, clazz).stream();
+    }
+
+    /**
+     * Will make further paged requests lazily, only when the items of the current page have been consumed. A page that can not be retrieved is reported as a HubPagingException.
+     */
+    public <T extends HubResponse> Stream<T> streamAllItems(final String url, final Class<T> clazz) {
+        final HubPagedRequest pagedRequest = hubRequestFactory.createPagedRequest(url);
+        return streamAllItems(pagedRequest, clazz);
     }
 
     /**
@@ -155,31 +568,46 @@ public class HubResponseService {
      */
     public <T extends HubResponse> List<T> getAllItems(final HubPagedRequest hubPagedRequest, final Class<T> clazz) throws IntegrationException {
         final List<T> allItems = new LinkedList<>();
-        int totalCount = 0;
-        int currentOffset = hubPagedRequest.offset;
-        Response response = null;
+        final HubPagedItemIterator<T> iterator = getAllItemsIterator(hubPagedRequest, clazz);
         try {
-            response = hubPagedRequest.executeGet();
-            final String jsonResponse = response.body().string();
-
-            final JsonObject jsonObject = jsonParser.parse(jsonResponse).getAsJsonObject();
-            totalCount = jsonObject.get("totalCount").getAsInt();
-            allItems.addAll(getItems(jsonObject, clazz));
-            while (allItems.size() < totalCount && currentOffset < totalCount) {
-                currentOffset += hubPagedRequest.limit;
-                hubPagedRequest.offset = currentOffset;
-                allItems.addAll(getItems(hubPagedRequest, clazz));
-            }
-        } catch (final IOException e) {
-            throw new HubIntegrationException(e);
-        } finally {
-            if (response != null) {
-                response.close();
+            while (iterator.hasNext()) {
+                allItems.add(iterator.next());
             }
+        } catch (final HubPagingException e) {
+            throw e.getIntegrationException();
         }
         return allItems;
     }
 
+    /**
+     * Will make further paged requests to get the full list of items, recording each page in the checkpoint. If the checkpoint holds the pages of an
+     * earlier call that failed, the listing continues after them rather than starting over.
+     */
+    public <T extends HubResponse> List<T> getAllItems(final HubPagedRequest hubPagedRequest, final Class<T> clazz, final HubPagingCheckpoint<T> checkpoint) throws IntegrationException {
+        if (!checkpoint.isComplete()) {
+            checkpoint.applyTo(hubPagedRequest);
+            final HubPageFetcher<T> pageFetcher = new CheckpointingPageFetcher<>(createPageFetcher(clazz), checkpoint);
+            final HubPagedItemIterator<T> iterator = new HubPagedItemIterator<>(hubPagedRequest, pageFetcher, createRunPageSizer());
+            try {
+                while (iterator.hasNext()) {
+                    iterator.next();
+                }
+            } catch (final HubPagingException e) {
+                throw e.getIntegrationException();
+            }
+        }
+        return checkpoint.getItems();
+    }
+
+    /**
+     * Will make further paged requests to get the full list of items. Once the first page reports the totalCount, the remaining pages are fetched in parallel, at most maxConcurrentPages at a time. The items are returned in
+     * server order and the provided request is not modified.
+     */
+    public <T extends HubResponse> List<T> getAllItemsConcurrently(final HubPagedRequest hubPagedRequest, final Class<T> clazz, final int maxConcurrentPages) throws IntegrationException {
+        final ConcurrentPageLoader<T> pageLoader = new ConcurrentPageLoader<>(restConnection, createPageFetcher(clazz), maxConcurrentPages, executor);
+        return pageLoader.loadAllItems(hubPagedRequest);
+    }
+
     /**
      * Will make further paged requests to get the full list of items
      */
@@ -188,4 +616,11 @@ public class HubResponseService {
         return getAllItems(pagedRequest, clazz);
     }
 
+    private AdaptivePageSizer createRunPageSizer() {
+        if (pageSizer == null) {
+            return null;
+        }
+        return new AdaptivePageSizer(pageSizer);
+    }
+
 }
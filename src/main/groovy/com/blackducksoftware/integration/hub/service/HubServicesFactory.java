@@ -24,6 +24,7 @@
 package com.blackducksoftware.integration.hub.service;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.builder.RecursiveToStringStyle;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
@@ -67,21 +68,68 @@ import com.blackducksoftware.integration.hub.dataservice.scan.ScanStatusDataServ
 import com.blackducksoftware.integration.hub.dataservice.versionbomcomponent.VersionBomComponentDataService;
 import com.blackducksoftware.integration.hub.dataservice.vulnerability.VulnerabilityDataService;
 import com.blackducksoftware.integration.hub.global.HubServerConfig;
+import com.blackducksoftware.integration.hub.model.view.ComponentVersionView;
+import com.blackducksoftware.integration.hub.model.view.PolicyRuleView;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
 import com.blackducksoftware.integration.hub.rest.RestConnection;
 import com.blackducksoftware.integration.hub.scan.HubScanConfig;
+import com.blackducksoftware.integration.hub.service.cache.DiskResponseStore;
+import com.blackducksoftware.integration.hub.service.cache.HubViewCache;
+import com.blackducksoftware.integration.hub.service.cache.LruHubViewCache;
+import com.blackducksoftware.integration.hub.service.cache.SingleFlightGroup;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.metrics.HubMetricsRegistry;
+import com.blackducksoftware.integration.hub.service.paging.AdaptivePageSizer;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
 import com.blackducksoftware.integration.phonehome.PhoneHomeClient;
 import com.blackducksoftware.integration.util.CIEnvironmentVariables;
 import com.blackducksoftware.integration.util.IntegrationEscapeUtil;
 
-public class HubServicesFactory {
+public class HubServicesFactory implements AutoCloseable {
+    public static final long DEFAULT_VIEW_CACHE_TIME_TO_LIVE_IN_MINUTES = 5;
+
     private final CIEnvironmentVariables ciEnvironmentVariables;
     private final RestConnection restConnection;
-
+    private final HubViewCache viewCache;
+    private final SingleFlightGroup singleFlightGroup = new SingleFlightGroup();
+    private DiskResponseStore responseStore;
+    private AdaptivePageSizer pageSizer;
+    private RetryPolicy retryPolicy;
+    private HubMetricsRegistry metricsRegistry;
+    private HubRateLimiter rateLimiter;
+    private HubExecutor executor;
+    private HubExecutor ownedExecutor;
+
+    /**
+     * Nothing is cached, use the two argument constructor with createDefaultViewCache() to cache views
+     */
     public HubServicesFactory(final RestConnection restConnection) {
+        this(restConnection, null);
+    }
+
+    /**
+     * Every service created by this factory shares the given cache, a null cache turns caching off
+     */
+    public HubServicesFactory(final RestConnection restConnection, final HubViewCache viewCache) {
         this.ciEnvironmentVariables = new CIEnvironmentVariables();
         ciEnvironmentVariables.putAll(System.getenv());
 
         this.restConnection = restConnection;
+        this.viewCache = viewCache;
+    }
+
+    /**
+     * Caches the views that are fetched repeatedly for the same url while processing notifications and building reports. Views that are polled for
+     * changes are left uncached. Writes made through the services are not seen by the cache, so only use it where the cached views are not changed
+     * while it runs, or invalidate them through HubResponseService.invalidateCachedItem.
+     */
+    public static LruHubViewCache createDefaultViewCache() {
+        final LruHubViewCache viewCache = new LruHubViewCache();
+        viewCache.setTimeToLive(ProjectVersionView.class, DEFAULT_VIEW_CACHE_TIME_TO_LIVE_IN_MINUTES, TimeUnit.MINUTES);
+        viewCache.setTimeToLive(ComponentVersionView.class, DEFAULT_VIEW_CACHE_TIME_TO_LIVE_IN_MINUTES, TimeUnit.MINUTES);
+        viewCache.setTimeToLive(PolicyRuleView.class, DEFAULT_VIEW_CACHE_TIME_TO_LIVE_IN_MINUTES, TimeUnit.MINUTES);
+        return viewCache;
     }
 
     public void addEnvironmentVariable(final String key, final String value) {
@@ -110,12 +158,12 @@ public class HubServicesFactory {
     }
 
     public RiskReportDataService createRiskReportDataService(final long timeoutInMilliseconds) throws IntegrationException {
-        return new RiskReportDataService(restConnection.logger, restConnection, createProjectRequestService(), createProjectVersionRequestService(), createReportRequestService(timeoutInMilliseconds), createAggregateBomRequestService(),
-                createMetaService(), createCheckedHubSupport(), createIntegrationEscapeUtil());
+        return configure(new RiskReportDataService(restConnection.logger, restConnection, createProjectRequestService(), createProjectVersionRequestService(), createReportRequestService(timeoutInMilliseconds), createAggregateBomRequestService(),
+                createMetaService(), createCheckedHubSupport(), createIntegrationEscapeUtil()));
     }
 
     public PolicyStatusDataService createPolicyStatusDataService() {
-        return new PolicyStatusDataService(restConnection, createProjectRequestService(), createProjectVersionRequestService(), createMetaService());
+        return configure(new PolicyStatusDataService(restConnection, createProjectRequestService(), createProjectVersionRequestService(), createMetaService()));
     }
 
     public ScanStatusDataService createScanStatusDataService(final long timeoutInMilliseconds) {
@@ -124,20 +172,23 @@ public class HubServicesFactory {
     }
 
     public NotificationDataService createNotificationDataService() {
-        return new NotificationDataService(restConnection.logger, createHubResponseService(), createNotificationRequestService(), createProjectVersionRequestService(), createPolicyRequestService(), createMetaService());
+        return createNotificationDataService(null);
     }
 
     public NotificationDataService createNotificationDataService(final PolicyNotificationFilter policyNotificationFilter) {
-        return new NotificationDataService(restConnection.logger, createHubResponseService(), createNotificationRequestService(), createProjectVersionRequestService(), createPolicyRequestService(), policyNotificationFilter,
-                createMetaService());
+        final NotificationDataService notificationDataService = new NotificationDataService(restConnection.logger, createHubResponseService(), createNotificationRequestService(),
+                createProjectVersionRequestService(), createPolicyRequestService(), policyNotificationFilter, createMetaService(), getExecutor());
+        notificationDataService.setRateLimiter(rateLimiter);
+        return notificationDataService;
     }
 
     public ExtensionConfigDataService createExtensionConfigDataService() {
-        return new ExtensionConfigDataService(restConnection.logger, restConnection, createUserRequestService(), createExtensionConfigRequestService(), createExtensionUserOptionRequestService(), createMetaService());
+        return configure(new ExtensionConfigDataService(restConnection.logger, restConnection, createUserRequestService(), createExtensionConfigRequestService(), createExtensionUserOptionRequestService(), createMetaService(),
+                getExecutor()));
     }
 
     public VulnerabilityDataService createVulnerabilityDataService() {
-        return new VulnerabilityDataService(restConnection, createComponentRequestService(), createVulnerabilityRequestService(), createMetaService());
+        return configure(new VulnerabilityDataService(restConnection, createComponentRequestService(), createVulnerabilityRequestService(), createMetaService()));
     }
 
     public LicenseDataService createLicenseDataService() {
@@ -145,67 +196,73 @@ public class HubServicesFactory {
     }
 
     public BomImportRequestService createBomImportRequestService() {
-        return new BomImportRequestService(restConnection);
+        return configure(new BomImportRequestService(restConnection));
     }
 
     public DryRunUploadRequestService createDryRunUploadRequestService() {
-        return new DryRunUploadRequestService(restConnection);
+        return configure(new DryRunUploadRequestService(restConnection));
     }
 
     public CodeLocationRequestService createCodeLocationRequestService() {
-        return new CodeLocationRequestService(restConnection, createMetaService());
+        return configure(new CodeLocationRequestService(restConnection, createMetaService()));
     }
 
     public ComponentRequestService createComponentRequestService() {
-        return new ComponentRequestService(restConnection);
+        return configure(new ComponentRequestService(restConnection));
     }
 
     public HubVersionRequestService createHubVersionRequestService() {
-        return new HubVersionRequestService(restConnection);
+        return configure(new HubVersionRequestService(restConnection));
     }
 
     public NotificationRequestService createNotificationRequestService() {
-        return new NotificationRequestService(restConnection.logger, restConnection, createMetaService());
+        final NotificationRequestService notificationRequestService = new NotificationRequestService(restConnection.logger, restConnection, createMetaService());
+        notificationRequestService.setPageSizer(pageSizer);
+        notificationRequestService.setRetryPolicy(retryPolicy);
+        notificationRequestService.setRequestListener(metricsRegistry);
+        notificationRequestService.setRateLimiter(rateLimiter);
+        notificationRequestService.setExecutor(getExecutor());
+        return notificationRequestService;
     }
 
     public PolicyRequestService createPolicyRequestService() {
-        return new PolicyRequestService(restConnection);
+        return configure(new PolicyRequestService(restConnection));
     }
 
     public ProjectRequestService createProjectRequestService() {
-        return new ProjectRequestService(restConnection, createMetaService());
+        return configure(new ProjectRequestService(restConnection, createMetaService()));
     }
 
     public ProjectVersionRequestService createProjectVersionRequestService() {
-        return new ProjectVersionRequestService(restConnection, createMetaService());
+        return configure(new ProjectVersionRequestService(restConnection, createMetaService()));
     }
 
     public ScanSummaryRequestService createScanSummaryRequestService() {
-        return new ScanSummaryRequestService(restConnection);
+        return configure(new ScanSummaryRequestService(restConnection));
     }
 
     public UserRequestService createUserRequestService() {
-        return new UserRequestService(restConnection);
+        return configure(new UserRequestService(restConnection));
     }
 
     public VulnerabilityRequestService createVulnerabilityRequestService() {
-        return new VulnerabilityRequestService(restConnection);
+        return configure(new VulnerabilityRequestService(restConnection));
     }
 
     public ExtensionConfigRequestService createExtensionConfigRequestService() {
-        return new ExtensionConfigRequestService(restConnection);
+        return configure(new ExtensionConfigRequestService(restConnection));
     }
 
     public ExtensionUserOptionRequestService createExtensionUserOptionRequestService() {
-        return new ExtensionUserOptionRequestService(restConnection);
+        return configure(new ExtensionUserOptionRequestService(restConnection));
     }
 
     public VulnerableBomComponentRequestService createVulnerableBomComponentRequestService() {
-        return new VulnerableBomComponentRequestService(restConnection);
+        return configure(new VulnerableBomComponentRequestService(restConnection));
     }
 
     public MatchedFilesRequestService createMatchedFilesRequestService() {
-        return new MatchedFilesRequestService(restConnection);
+        return configure(new MatchedFilesRequestService(restConnection));
     }
 
     public CLIDownloadService createCliDownloadService() {
@@ -222,15 +279,15 @@ public class HubServicesFactory {
     }
 
     public HubRegistrationRequestService createHubRegistrationRequestService() {
-        return new HubRegistrationRequestService(restConnection);
+        return configure(new HubRegistrationRequestService(restConnection));
     }
 
     public ReportRequestService createReportRequestService(final long timeoutInMilliseconds) {
-        return new ReportRequestService(restConnection, restConnection.logger, createMetaService(), timeoutInMilliseconds);
+        return configure(new ReportRequestService(restConnection, restConnection.logger, createMetaService(), timeoutInMilliseconds));
     }
 
     public AggregateBomRequestService createAggregateBomRequestService() {
-        return new AggregateBomRequestService(restConnection, createMetaService());
+        return configure(new AggregateBomRequestService(restConnection, createMetaService()));
     }
 
     public MetaService createMetaService() {
@@ -238,13 +295,121 @@ public class HubServicesFactory {
     }
 
     public HubResponseService createHubResponseService() {
-        return new HubResponseService(restConnection);
+        return configure(new HubResponseService(restConnection));
     }
 
     public RestConnection getRestConnection() {
         return restConnection;
     }
 
+    public HubViewCache getViewCache() {
+        return viewCache;
+    }
+
+    public SingleFlightGroup getSingleFlightGroup() {
+        return singleFlightGroup;
+    }
+
+    public DiskResponseStore getResponseStore() {
+        return responseStore;
+    }
+
+    /**
+     * Services created after this call revalidate the views they fetch against the given store, none is used by default
+     */
+    public void setResponseStore(final DiskResponseStore responseStore) {
+        this.responseStore = responseStore;
+    }
+
+    public AdaptivePageSizer getPageSizer() {
+        return pageSizer;
+    }
+
+    /**
+     * Services created after this call size their page requests adaptively within the bounds of the sizer, pages have a fixed size by default
+     */
+    public void setPageSizer(final AdaptivePageSizer pageSizer) {
+        this.pageSizer = pageSizer;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Services created after this call retry failed pages according to the policy, a null policy turns retries off. Retries are off by default.
+     */
+    public void setRetryPolicy(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    public HubMetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Services created after this call report every request they make to the registry, nothing is recorded by default
+     */
+    public void setMetricsRegistry(final HubMetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+        registerRateLimiter();
+    }
+
+    public HubRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Services created after this call wait for a permit from the limiter before each request, nothing is limited by default. Give every factory the
+     * same limiter to limit the whole process.
+     */
+    public void setRateLimiter(final HubRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        registerRateLimiter();
+    }
+
+    private void registerRateLimiter() {
+        if (metricsRegistry != null) {
+            metricsRegistry.setRateLimiter(rateLimiter);
+        }
+    }
+
+    /**
+     * The executor every service and parallel processor created by this factory runs its concurrent work on, created on first use and closed with
+     * the factory
+     */
+    public synchronized HubExecutor getExecutor() {
+        if (executor == null) {
+            if (ownedExecutor == null) {
+                ownedExecutor = new HubExecutor();
+            }
+            executor = ownedExecutor;
+        }
+        return executor;
+    }
+
+    /**
+     * Services created after this call run their concurrent work on the given executor, which is left open when the factory is closed. An executor
+     * created by this factory before stays open for the services already holding it until the factory is closed.
+     */
+    public synchronized void setExecutor(final HubExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Closes the executor created by this factory. Services created before this call can no longer run concurrent work on it.
+     */
+    @Override
+    public synchronized void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.close();
+        }
+        if (executor == ownedExecutor) {
+            executor = null;
+        }
+        ownedExecutor = null;
+    }
+
     public HubSupportHelper createCheckedHubSupport() throws IntegrationException {
         final HubSupportHelper supportHelper = new HubSupportHelper();
         supportHelper.checkHubSupport(createHubVersionRequestService(), restConnection.logger);
@@ -256,7 +421,7 @@ public class HubServicesFactory {
     }
 
     public BomComponentIssueRequestService createBomComponentIssueRequestService() {
-        return new BomComponentIssueRequestService(restConnection, createMetaService());
+        return configure(new BomComponentIssueRequestService(restConnection, createMetaService()));
     }
 
     public ProjectDataService createProjectDataService() {
@@ -267,6 +432,18 @@ public class HubServicesFactory {
         return new VersionBomComponentDataService(createProjectRequestService(), createProjectVersionRequestService(), createAggregateBomRequestService(), createMatchedFilesRequestService(), createMetaService());
     }
 
+    private <T extends HubResponseService> T configure(final T service) {
+        service.setViewCache(viewCache);
+        service.setSingleFlightGroup(singleFlightGroup);
+        service.setResponseStore(responseStore);
+        service.setPageSizer(pageSizer);
+        service.setRetryPolicy(retryPolicy);
+        service.setRequestListener(metricsRegistry);
+        service.setRateLimiter(rateLimiter);
+        service.setExecutor(getExecutor());
+        return service;
+    }
+
     @Override
     public String toString() {
         return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
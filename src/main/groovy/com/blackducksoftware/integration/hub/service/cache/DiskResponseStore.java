@@ -0,0 +1,300 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Properties;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * A directory of response bodies keyed by url, each stored with the ETag and Last-Modified validators the Hub returned for it. Because the store
+ * lives on disk, a restarted process can revalidate what it fetched before instead of downloading it again. When the bodies exceed the size cap
+ * the least recently used ones are deleted.
+ *
+ * The validators and the body of a response are written to one file, which replaces the previous one in a single move, so a reader never sees the
+ * validators of one response with the body of another. A stored response can still be replaced or deleted by another thread after get returned it,
+ * in which case openReader throws a FileNotFoundException.
+ */
+public class DiskResponseStore {
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024L * 1024L;
+
+    private static final String RESPONSE_EXTENSION = ".response";
+
+    private static final String URL_PROPERTY = "url";
+
+    private static final String ETAG_PROPERTY = "etag";
+
+    private static final String LAST_MODIFIED_PROPERTY = "lastModified";
+
+    private final File directory;
+
+    private final long maxBytes;
+
+    private long storedBytes;
+
+    public DiskResponseStore(final File directory) throws IOException {
+        this(directory, DEFAULT_MAX_BYTES);
+    }
+
+    public DiskResponseStore(final File directory, final long maxBytes) throws IOException {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The store must allow at least one byte.");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the response store directory " + directory.getAbsolutePath());
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        for (final File responseFile : listResponseFiles()) {
+            storedBytes += getBodyLength(responseFile);
+        }
+    }
+
+    /**
+     * @return the stored response for the url, or null if nothing usable is stored
+     */
+    public StoredResponse get(final String url) throws IOException {
+        final File responseFile = new File(directory, createKey(url) + RESPONSE_EXTENSION);
+        final Properties validators;
+        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(responseFile))) {
+            validators = readValidators(inputStream);
+        } catch (final IOException e) {
+            // not stored, deleted since, or left incomplete by an older version
+            return null;
+        }
+        if (!url.equals(validators.getProperty(URL_PROPERTY))) {
+            return null;
+        }
+        return new StoredResponse(responseFile, validators.getProperty(ETAG_PROPERTY), validators.getProperty(LAST_MODIFIED_PROPERTY));
+    }
+
+    /**
+     * Marks the stored response as recently used so it is the last to be deleted when the store is over its size cap
+     */
+    public void touch(final StoredResponse storedResponse) {
+        storedResponse.file.setLastModified(System.currentTimeMillis());
+    }
+
+    /**
+     * Copies the body to the store and records its validators. The body is streamed to disk, it is never held in memory.
+     */
+    public StoredResponse put(final String url, final String etag, final String lastModified, final InputStream body) throws IOException {
+        final String key = createKey(url);
+        final File temporaryFile = File.createTempFile(key, RESPONSE_EXTENSION + ".tmp", directory);
+        try {
+            final Properties validators = new Properties();
+            validators.setProperty(URL_PROPERTY, url);
+            if (etag != null) {
+                validators.setProperty(ETAG_PROPERTY, etag);
+            }
+            if (lastModified != null) {
+                validators.setProperty(LAST_MODIFIED_PROPERTY, lastModified);
+            }
+            final ByteArrayOutputStream validatorBytes = new ByteArrayOutputStream();
+            validators.store(validatorBytes, null);
+            final long bodyLength;
+            try (DataOutputStream outputStream = new DataOutputStream(new FileOutputStream(temporaryFile))) {
+                outputStream.writeInt(validatorBytes.size());
+                validatorBytes.writeTo(outputStream);
+                bodyLength = IOUtils.copyLarge(body, outputStream);
+            }
+
+            final File responseFile = new File(directory, key + RESPONSE_EXTENSION);
+            synchronized (this) {
+                storedBytes -= getBodyLength(responseFile);
+                Files.move(temporaryFile.toPath(), responseFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                storedBytes += bodyLength;
+                deleteLeastRecentlyUsed(responseFile);
+            }
+            return new StoredResponse(responseFile, etag, lastModified);
+        } finally {
+            temporaryFile.delete();
+        }
+    }
+
+    public synchronized void remove(final String url) {
+        delete(new File(directory, createKey(url) + RESPONSE_EXTENSION));
+    }
+
+    public synchronized void clear() {
+        for (final File responseFile : listResponseFiles()) {
+            delete(responseFile);
+        }
+    }
+
+    public synchronized long getStoredBytes() {
+        return storedBytes;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    private void deleteLeastRecentlyUsed(final File newestResponseFile) {
+        if (storedBytes <= maxBytes) {
+            return;
+        }
+        final File[] responseFiles = listResponseFiles();
+        Arrays.sort(responseFiles, new Comparator<File>() {
+            @Override
+            public int compare(final File first, final File second) {
+                return Long.compare(first.lastModified(), second.lastModified());
+            }
+        });
+        for (final File responseFile : responseFiles) {
+            if (storedBytes <= maxBytes) {
+                return;
+            }
+            if (!responseFile.equals(newestResponseFile)) {
+                delete(responseFile);
+            }
+        }
+    }
+
+    private void delete(final File responseFile) {
+        final long bodyLength = getBodyLength(responseFile);
+        if (responseFile.delete()) {
+            storedBytes -= bodyLength;
+        }
+    }
+
+    /**
+     * @return the length of the stored body, without the validators in front of it, or 0 if the file is missing or unreadable
+     */
+    private long getBodyLength(final File responseFile) {
+        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(responseFile))) {
+            return Math.max(0L, responseFile.length() - 4 - inputStream.readInt());
+        } catch (final IOException e) {
+            return 0L;
+        }
+    }
+
+    private File[] listResponseFiles() {
+        final File[] responseFiles = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(final File file) {
+                return isStoredResponseFile(file);
+            }
+        });
+        if (responseFiles == null) {
+            return new File[0];
+        }
+        return responseFiles;
+    }
+
+    private boolean isStoredResponseFile(final File file) {
+        final String name = file.getName();
+        return file.isFile() && name.endsWith(RESPONSE_EXTENSION) && name.length() == 64 + RESPONSE_EXTENSION.length();
+    }
+
+    private String createKey(final String url) {
+        try {
+            final MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            final byte[] digest = messageDigest.digest(url.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder key = new StringBuilder();
+            for (final byte digestByte : digest) {
+                key.append(String.format("%02x", digestByte));
+            }
+            return key.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Properties readValidators(final DataInputStream inputStream) throws IOException {
+        final int validatorsLength = inputStream.readInt();
+        if (validatorsLength < 0) {
+            throw new IOException("The stored response is corrupt.");
+        }
+        final byte[] validatorBytes = new byte[validatorsLength];
+        inputStream.readFully(validatorBytes);
+        final Properties validators = new Properties();
+        validators.load(new ByteArrayInputStream(validatorBytes));
+        return validators;
+    }
+
+    public static class StoredResponse {
+        private final File file;
+
+        private final String etag;
+
+        private final String lastModified;
+
+        public StoredResponse(final File file, final String etag, final String lastModified) {
+            this.file = file;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Opens the body stored for the url. If another thread has replaced the response since, the body read is the newer one.
+         *
+         * @throws java.io.FileNotFoundException
+         *             if the response has been deleted since it was returned by get
+         */
+        public Reader openReader() throws IOException {
+            final DataInputStream inputStream = new DataInputStream(new FileInputStream(file));
+            try {
+                readValidators(inputStream);
+            } catch (final IOException e) {
+                inputStream.close();
+                throw e;
+            }
+            return new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        }
+    }
+
+}
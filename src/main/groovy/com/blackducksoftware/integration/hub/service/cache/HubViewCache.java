@@ -0,0 +1,50 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.cache;
+
+import com.blackducksoftware.integration.hub.model.HubResponse;
+
+/**
+ * A cache of views keyed by the url they were fetched from. Only view types the cache reports as cacheable are ever looked up or stored.
+ */
+public interface HubViewCache {
+    public boolean isCacheable(Class<? extends HubResponse> clazz);
+
+    /**
+     * @return the cached view, or null if there is no live entry for the url and type
+     */
+    public <T extends HubResponse> T get(String url, Class<T> clazz);
+
+    public <T extends HubResponse> void put(String url, Class<T> clazz, T item);
+
+    /**
+     * Removes every type cached for the url, should be called whenever the resource behind the url is changed or deleted
+     */
+    public void invalidate(String url);
+
+    public void invalidateAll();
+
+    public HubViewCacheStatistics getStatistics();
+
+}
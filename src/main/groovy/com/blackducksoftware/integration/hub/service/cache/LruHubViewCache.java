@@ -0,0 +1,236 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.blackducksoftware.integration.hub.model.HubResponse;
+
+/**
+ * A bounded, least recently used cache of views. Each view type has its own time to live and types without one are not cached at all, so views that
+ * are polled for changes (scan summaries, report status, policy status) are always fetched unless a time to live is explicitly configured for them.
+ * The cache is bounded both by entry count and by an estimate of the retained bytes, whichever is reached first.
+ */
+public class LruHubViewCache implements HubViewCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    public static final long DEFAULT_MAX_BYTES = 64L * 1024L * 1024L;
+
+    private static final long ESTIMATED_BYTES_WITHOUT_JSON = 2048L;
+
+    private final int maxEntries;
+
+    private final long maxBytes;
+
+    private final Map<Class<?>, Long> timeToLiveNanos = new HashMap<>();
+
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long estimatedBytes;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long evictionCount;
+
+    public LruHubViewCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_BYTES);
+    }
+
+    public LruHubViewCache(final int maxEntries, final long maxBytes) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("The cache must allow at least one entry.");
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The cache must allow at least one byte.");
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * A time to live of zero stops the type from being cached
+     */
+    public synchronized void setTimeToLive(final Class<? extends HubResponse> clazz, final long duration, final TimeUnit timeUnit) {
+        if (duration <= 0) {
+            timeToLiveNanos.remove(clazz);
+            removeType(clazz);
+        } else {
+            timeToLiveNanos.put(clazz, timeUnit.toNanos(duration));
+        }
+    }
+
+    @Override
+    public synchronized boolean isCacheable(final Class<? extends HubResponse> clazz) {
+        return timeToLiveNanos.containsKey(clazz);
+    }
+
+    @Override
+    public synchronized <T extends HubResponse> T get(final String url, final Class<T> clazz) {
+        final CacheKey key = new CacheKey(url, clazz);
+        final CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (entry.expiresAtNanos - currentTimeNanos() <= 0) {
+            remove(key);
+            evictionCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return clazz.cast(entry.item);
+    }
+
+    @Override
+    public synchronized <T extends HubResponse> void put(final String url, final Class<T> clazz, final T item) {
+        final Long timeToLive = timeToLiveNanos.get(clazz);
+        if (timeToLive == null || item == null) {
+            return;
+        }
+        final CacheKey key = new CacheKey(url, clazz);
+        remove(key);
+        final long itemBytes = estimateBytes(item);
+        if (itemBytes > maxBytes) {
+            return;
+        }
+        entries.put(key, new CacheEntry(item, itemBytes, currentTimeNanos() + timeToLive));
+        estimatedBytes += itemBytes;
+        evictLeastRecentlyUsed();
+    }
+
+    @Override
+    public synchronized void invalidate(final String url) {
+        final Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (entry.getKey().url.equals(url)) {
+                estimatedBytes -= entry.getValue().estimatedBytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void invalidateAll() {
+        entries.clear();
+        estimatedBytes = 0;
+    }
+
+    @Override
+    public synchronized HubViewCacheStatistics getStatistics() {
+        return new HubViewCacheStatistics(hitCount, missCount, evictionCount, entries.size(), estimatedBytes);
+    }
+
+    /**
+     * The retained json is the bulk of a view, so its length is used as the estimate when it is kept
+     */
+    protected long estimateBytes(final HubResponse item) {
+        if (item.json == null) {
+            return ESTIMATED_BYTES_WITHOUT_JSON;
+        }
+        return ESTIMATED_BYTES_WITHOUT_JSON + 2L * item.json.length();
+    }
+
+    protected long currentTimeNanos() {
+        return System.nanoTime();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        final Iterator<CacheEntry> iterator = entries.values().iterator();
+        while ((entries.size() > maxEntries || estimatedBytes > maxBytes) && iterator.hasNext()) {
+            final CacheEntry entry = iterator.next();
+            estimatedBytes -= entry.estimatedBytes;
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    private void removeType(final Class<?> clazz) {
+        final Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<CacheKey, CacheEntry> entry = iterator.next();
+            if (entry.getKey().clazz.equals(clazz)) {
+                estimatedBytes -= entry.getValue().estimatedBytes;
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(final CacheKey key) {
+        final CacheEntry removed = entries.remove(key);
+        if (removed != null) {
+            estimatedBytes -= removed.estimatedBytes;
+        }
+    }
+
+    private static class CacheKey {
+        private final String url;
+
+        private final Class<?> clazz;
+
+        public CacheKey(final String url, final Class<?> clazz) {
+            this.url = url;
+            this.clazz = clazz;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * url.hashCode() + clazz.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CacheKey)) {
+                return false;
+            }
+            final CacheKey other = (CacheKey) obj;
+            return url.equals(other.url) && clazz.equals(other.clazz);
+        }
+    }
+
+    private static class CacheEntry {
+        private final HubResponse item;
+
+        private final long estimatedBytes;
+
+        private final long expiresAtNanos;
+
+        public CacheEntry(final HubResponse item, final long estimatedBytes, final long expiresAtNanos) {
+            this.item = item;
+            this.estimatedBytes = estimatedBytes;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.model.HubResponse;
+
+/**
+ * Deduplicates concurrent fetches of the same url and view type. The first caller makes the request and every caller that arrives while it is still
+ * pending waits for, and shares, that one response (or failure). Nothing is kept once the request completes, later callers make a new request.
+ */
+public class SingleFlightGroup {
+    private final ConcurrentMap<String, FutureTask<? extends HubResponse>> inFlightRequests = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+
+    private final AtomicLong sharedCount = new AtomicLong();
+
+    public <T extends HubResponse> T execute(final String url, final Class<T> clazz, final Callable<T> request) throws IntegrationException {
+        final String key = clazz.getName() + " " + url;
+        final FutureTask<T> task = new FutureTask<>(request);
+        final FutureTask<? extends HubResponse> inFlightTask = inFlightRequests.putIfAbsent(key, task);
+        if (inFlightTask != null) {
+            sharedCount.incrementAndGet();
+            return clazz.cast(waitForResponse(inFlightTask, url));
+        }
+
+        requestCount.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            inFlightRequests.remove(key, task);
+        }
+        return waitForResponse(task, url);
+    }
+
+    /**
+     * The number of requests actually made
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The number of callers that were given the response of a request already in flight instead of making their own
+     */
+    public long getSharedCount() {
+        return sharedCount.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlightRequests.size();
+    }
+
+    private <T extends HubResponse> T waitForResponse(final FutureTask<T> task, final String url) throws IntegrationException {
+        try {
+            return task.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting for the response from " + url, e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IntegrationException) {
+                throw (IntegrationException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new HubIntegrationException("Error getting the response from " + url + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,365 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.executor;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * A bounded pool of named daemon threads to be shared by every parallel processor. Idle threads exit after the keep alive time, so an unused executor
+ * holds no threads. Once the queue is full the submitting thread runs the task itself, which slows the producer down instead of failing it.
+ * <p>
+ * On JDK 21 and later createVirtualThreadExecutor runs every task on a virtual thread of its own instead, with a semaphore limiting how many run at
+ * once. As the transforms mostly wait on Hub requests, the limit can then be set well above the number of processors.
+ */
+public class HubExecutor implements AutoCloseable {
+    public static final String DEFAULT_NAME = "hub-common";
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    public static final long DEFAULT_KEEP_ALIVE_SECONDS = 60;
+
+    public static final long DEFAULT_CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final String name;
+
+    private final ThreadPoolExecutor threadPoolExecutor;
+
+    private final ExecutorService executorService;
+
+    private final Semaphore permits;
+
+    private final int maxConcurrency;
+
+    private final AtomicLong callerRunCount = new AtomicLong();
+
+    private final AtomicLong completedTaskCount = new AtomicLong();
+
+    private static volatile HubExecutor sharedInstance;
+
+    public HubExecutor() {
+        this(DEFAULT_NAME, Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public HubExecutor(final String name, final int threadCount, final int queueCapacity) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("There must be at least one thread.");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue must hold at least one task.");
+        }
+        this.name = name;
+        threadPoolExecutor = new ThreadPoolExecutor(threadCount, threadCount, DEFAULT_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(queueCapacity),
+                new NamedThreadFactory(name), new CallerRunsHandler());
+        threadPoolExecutor.allowCoreThreadTimeOut(true);
+        executorService = threadPoolExecutor;
+        permits = null;
+        maxConcurrency = threadCount;
+    }
+
+    private HubExecutor(final String name, final ExecutorService virtualThreadExecutor, final int maxConcurrency) {
+        this.name = name;
+        threadPoolExecutor = null;
+        permits = new Semaphore(maxConcurrency, true);
+        executorService = new PermitExecutorService(virtualThreadExecutor);
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * @param maxConcurrency
+     *            the number of tasks allowed to run at once, further tasks wait for a permit on virtual threads of their own
+     * @throws UnsupportedOperationException
+     *             if the JVM has no virtual threads
+     */
+    public static HubExecutor createVirtualThreadExecutor(final String name, final int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("At least one task must be allowed to run.");
+        }
+        return new HubExecutor(name, createVirtualThreadPerTaskExecutor(name), maxConcurrency);
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory()), looked up at runtime as hub-common is built for Java 8
+     */
+    private static ExecutorService createVirtualThreadPerTaskExecutor(final String name) {
+        if (!isVirtualThreadSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later, this is Java " + System.getProperty("java.version") + ".");
+        }
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null, threadFactory);
+        } catch (final ReflectiveOperationException e) {
+            throw new UnsupportedOperationException("Could not create a virtual thread executor: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The executor of the services and processors that were not given one, created on first use and shared by the whole process. It is never closed,
+     * its idle threads time out instead.
+     */
+    public static HubExecutor getSharedInstance() {
+        HubExecutor executor = sharedInstance;
+        if (executor == null) {
+            synchronized (HubExecutor.class) {
+                executor = sharedInstance;
+                if (executor == null) {
+                    executor = new HubExecutor(DEFAULT_NAME + "-shared", Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+                    sharedInstance = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * A group for the tasks of a single call, running at most parallelism of them at once on this executor
+     */
+    public HubTaskGroup createTaskGroup(final int parallelism) {
+        return new HubTaskGroup(executorService, Math.max(1, Math.min(parallelism, maxConcurrency)));
+    }
+
+    public boolean isVirtual() {
+        return threadPoolExecutor == null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The number of tasks waiting for a thread, or for a permit when running on virtual threads
+     */
+    public int getQueueDepth() {
+        if (isVirtual()) {
+            return permits.getQueueLength();
+        }
+        return threadPoolExecutor.getQueue().size();
+    }
+
+    /**
+     * Virtual threads have no queue to fill, so this is Integer.MAX_VALUE for them
+     */
+    public int getRemainingQueueCapacity() {
+        if (isVirtual()) {
+            return Integer.MAX_VALUE;
+        }
+        return threadPoolExecutor.getQueue().remainingCapacity();
+    }
+
+    public int getActiveCount() {
+        if (isVirtual()) {
+            return maxConcurrency - permits.availablePermits();
+        }
+        return threadPoolExecutor.getActiveCount();
+    }
+
+    /**
+     * The number of platform threads in the pool, or the number of tasks holding a permit when running on virtual threads
+     */
+    public int getPoolSize() {
+        if (isVirtual()) {
+            return getActiveCount();
+        }
+        return threadPoolExecutor.getPoolSize();
+    }
+
+    public int getMaximumPoolSize() {
+        return maxConcurrency;
+    }
+
+    /**
+     * The fraction of the threads, or permits, currently running a task, between 0 and 1
+     */
+    public double getUtilization() {
+        return (double) getActiveCount() / maxConcurrency;
+    }
+
+    public long getCompletedTaskCount() {
+        if (isVirtual()) {
+            return completedTaskCount.get();
+        }
+        return threadPoolExecutor.getCompletedTaskCount();
+    }
+
+    /**
+     * The number of tasks run by the submitting thread because the queue was full
+     */
+    public long getCallerRunCount() {
+        return callerRunCount.get();
+    }
+
+    public boolean isClosed() {
+        return executorService.isShutdown();
+    }
+
+    /**
+     * Lets the queued tasks finish, waiting at most DEFAULT_CLOSE_TIMEOUT_SECONDS before interrupting them. Queued tasks that never started are
+     * cancelled so that nobody waits on them forever.
+     */
+    @Override
+    public void close() {
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(DEFAULT_CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                cancelAll(executorService.shutdownNow());
+            }
+        } catch (final InterruptedException e) {
+            cancelAll(executorService.shutdownNow());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void cancelAll(final List<Runnable> tasks) {
+        for (final Runnable task : tasks) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        public NamedThreadFactory(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    /**
+     * Starts every task on a virtual thread right away, the thread then waits for a permit before running the task. A task whose thread is interrupted
+     * while waiting, by shutdownNow, is cancelled so that nobody waits on it forever.
+     */
+    private class PermitExecutorService extends AbstractExecutorService {
+        private final ExecutorService virtualThreadExecutor;
+
+        public PermitExecutorService(final ExecutorService virtualThreadExecutor) {
+            this.virtualThreadExecutor = virtualThreadExecutor;
+        }
+
+        @Override
+        public void execute(final Runnable runnable) {
+            virtualThreadExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        permits.acquire();
+                    } catch (final InterruptedException e) {
+                        if (runnable instanceof Future) {
+                            ((Future<?>) runnable).cancel(false);
+                        }
+                        return;
+                    }
+                    try {
+                        runnable.run();
+                    } finally {
+                        permits.release();
+                        completedTaskCount.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            virtualThreadExecutor.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return virtualThreadExecutor.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return virtualThreadExecutor.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return virtualThreadExecutor.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return virtualThreadExecutor.awaitTermination(timeout, unit);
+        }
+    }
+
+    private class CallerRunsHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(final Runnable runnable, final ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("The executor " + name + " has been closed.");
+            }
+            callerRunCount.incrementAndGet();
+            runnable.run();
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.executor;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The tasks of a single call, run on a shared executor by at most parallelism threads at once. The tasks wait in a queue of the group rather than
+ * in the executor, and a thread waiting for them through get or take runs the waiting ones itself whenever fewer than parallelism are running. A call
+ * therefore always makes progress, even when every thread of the executor is busy or is itself waiting on a nested group.
+ */
+public class HubTaskGroup implements Executor {
+    private final ExecutorService executorService;
+
+    private final int parallelism;
+
+    private final ConcurrentLinkedQueue<Runnable> pendingTasks = new ConcurrentLinkedQueue<>();
+
+    // workers handed to the executor that have not finished yet, whether they have started or not
+    private final AtomicInteger workerCount = new AtomicInteger();
+
+    // threads running a task of the group, workers and waiting callers alike
+    private final AtomicInteger runningCount = new AtomicInteger();
+
+    private final Object monitor = new Object();
+
+    public HubTaskGroup(final ExecutorService executorService, final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("At least one task must be allowed to run.");
+        }
+        this.executorService = executorService;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @throws RejectedExecutionException
+     *             if the executor has been closed
+     */
+    @Override
+    public void execute(final Runnable task) {
+        if (executorService.isShutdown()) {
+            throw new RejectedExecutionException("The executor has been closed.");
+        }
+        pendingTasks.add(task);
+        signalWaiters();
+        startWorkers();
+    }
+
+    public <T> Future<T> submit(final Callable<T> callable) {
+        final FutureTask<T> task = new FutureTask<>(callable);
+        execute(task);
+        return task;
+    }
+
+    /**
+     * Waits for the future, running the pending tasks of the group in the meantime
+     */
+    public <T> T get(final Future<T> future) throws InterruptedException, ExecutionException {
+        while (!future.isDone()) {
+            if (!runPendingTask()) {
+                synchronized (monitor) {
+                    if (!future.isDone() && !canRunPendingTask()) {
+                        monitor.wait();
+                    }
+                }
+            }
+        }
+        return future.get();
+    }
+
+    /**
+     * Takes the next completed task of a completion service running on this group, running the pending tasks of the group in the meantime
+     */
+    public <T> Future<T> take(final CompletionService<T> completionService) throws InterruptedException {
+        while (true) {
+            final Future<T> completed = completionService.poll();
+            if (completed != null) {
+                return completed;
+            }
+            if (!runPendingTask()) {
+                synchronized (monitor) {
+                    final Future<T> completedMeanwhile = completionService.poll();
+                    if (completedMeanwhile != null) {
+                        return completedMeanwhile;
+                    }
+                    if (!canRunPendingTask()) {
+                        monitor.wait();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels the tasks that have not started yet
+     */
+    public void cancelPending() {
+        Runnable task;
+        while ((task = pendingTasks.poll()) != null) {
+            if (task instanceof Future) {
+                ((Future<?>) task).cancel(false);
+            }
+        }
+        signalWaiters();
+    }
+
+    public int getPendingCount() {
+        return pendingTasks.size();
+    }
+
+    public int getRunningCount() {
+        return runningCount.get();
+    }
+
+    /**
+     * Runs one pending task on the calling thread, unless parallelism tasks are running already
+     *
+     * @return false if no task was run
+     */
+    private boolean runPendingTask() {
+        while (true) {
+            final int count = runningCount.get();
+            if (count >= parallelism) {
+                return false;
+            }
+            if (runningCount.compareAndSet(count, count + 1)) {
+                break;
+            }
+        }
+        try {
+            final Runnable task = pendingTasks.poll();
+            if (task == null) {
+                return false;
+            }
+            task.run();
+            return true;
+        } finally {
+            runningCount.decrementAndGet();
+            // a task completed and a running slot was freed, either may be what a waiting thread needs
+            signalWaiters();
+            if (!pendingTasks.isEmpty()) {
+                startWorkers();
+            }
+        }
+    }
+
+    private boolean canRunPendingTask() {
+        return runningCount.get() < parallelism && !pendingTasks.isEmpty();
+    }
+
+    private void signalWaiters() {
+        synchronized (monitor) {
+            monitor.notifyAll();
+        }
+    }
+
+    private void startWorkers() {
+        while (!pendingTasks.isEmpty()) {
+            final int count = workerCount.get();
+            if (count >= parallelism) {
+                return;
+            }
+            if (workerCount.compareAndSet(count, count + 1)) {
+                try {
+                    executorService.execute(new Worker());
+                } catch (final RejectedExecutionException e) {
+                    // the executor is closed, the waiting thread runs the tasks itself
+                    workerCount.decrementAndGet();
+                    return;
+                }
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            try {
+                while (runPendingTask()) {
+                    // keeps running tasks while there are any and a running slot is free
+                }
+            } finally {
+                workerCount.decrementAndGet();
+            }
+            // a task added after the last poll may have found every worker slot taken, a worker that found every running slot taken leaves the
+            // tasks to the threads holding the slots, which start workers again as they free them
+            if (runningCount.get() < parallelism) {
+                startWorkers();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * A histogram of durations with buckets that double in width, from one millisecond up to about seventeen minutes. Percentiles are reported as the upper
+ * bound of the bucket they fall in, so they are accurate to within a factor of two.
+ */
+public class DurationHistogram {
+    private static final int BUCKET_COUNT = 21;
+
+    private final long[] bucketCounts = new long[BUCKET_COUNT];
+
+    private long count;
+
+    private long totalNanos;
+
+    private long maxNanos;
+
+    public synchronized void record(final long nanos) {
+        final long boundedNanos = Math.max(0, nanos);
+        bucketCounts[getBucket(boundedNanos)]++;
+        count++;
+        totalNanos += boundedNanos;
+        maxNanos = Math.max(maxNanos, boundedNanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public synchronized long getMeanNanos() {
+        if (count == 0) {
+            return 0;
+        }
+        return totalNanos / count;
+    }
+
+    /**
+     * @param percentile
+     *            between 0 and 100
+     */
+    public synchronized long getPercentileNanos(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(count * percentile / 100.0);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += bucketCounts[bucket];
+            if (seen >= rank && seen > 0) {
+                return Math.min(maxNanos, getBucketUpperBoundNanos(bucket));
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * The number of recorded durations in each bucket, bucket i holding durations up to 2^i milliseconds
+     */
+    public synchronized long[] getBucketCounts() {
+        return bucketCounts.clone();
+    }
+
+    public static long getBucketUpperBoundNanos(final int bucket) {
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(1L << bucket);
+    }
+
+    private int getBucket(final long nanos) {
+        for (int bucket = 0; bucket < BUCKET_COUNT - 1; bucket++) {
+            if (nanos <= getBucketUpperBoundNanos(bucket)) {
+                return bucket;
+            }
+        }
+        return BUCKET_COUNT - 1;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
@@ -0,0 +1,113 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * The aggregate of every request made to one endpoint template
+ */
+public class EndpointMetrics {
+    private final String endpointTemplate;
+
+    private final DurationHistogram latency = new DurationHistogram();
+
+    private final DurationHistogram parseTime = new DurationHistogram();
+
+    private final Map<Integer, Long> statusCodeCounts = new TreeMap<>();
+
+    private long requestCount;
+
+    private long failureCount;
+
+    private long bytesRead;
+
+    private long pageCount;
+
+    public EndpointMetrics(final String endpointTemplate) {
+        this.endpointTemplate = endpointTemplate;
+    }
+
+    public void record(final HubRequestMetrics requestMetrics) {
+        latency.record(requestMetrics.getLatencyNanos());
+        parseTime.record(requestMetrics.getParseNanos());
+        synchronized (this) {
+            requestCount++;
+            if (!requestMetrics.isSuccessful()) {
+                failureCount++;
+            }
+            if (requestMetrics.getPageNumber() > 0) {
+                pageCount++;
+            }
+            bytesRead += requestMetrics.getBytesRead();
+            final Long statusCodeCount = statusCodeCounts.get(requestMetrics.getStatusCode());
+            statusCodeCounts.put(requestMetrics.getStatusCode(), statusCodeCount == null ? 1L : statusCodeCount + 1L);
+        }
+    }
+
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    public DurationHistogram getLatency() {
+        return latency;
+    }
+
+    public DurationHistogram getParseTime() {
+        return parseTime;
+    }
+
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    public synchronized long getBytesRead() {
+        return bytesRead;
+    }
+
+    public synchronized long getPageCount() {
+        return pageCount;
+    }
+
+    /**
+     * A copy of the number of responses per HTTP status, failures without a response are counted under HubRequestMetrics.UNKNOWN_STATUS_CODE
+     */
+    public synchronized Map<Integer, Long> getStatusCodeCounts() {
+        return new TreeMap<>(statusCodeCounts);
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+
+/**
+ * Aggregates the requests of every service it is given to, per endpoint template. Further listeners can be added to export or log the individual
+ * requests as well.
+ */
+public class HubMetricsRegistry implements HubRequestListener {
+    private final ConcurrentMap<String, EndpointMetrics> endpointMetrics = new ConcurrentHashMap<>();
+
+    private final List<HubRequestListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile HubRateLimiter rateLimiter;
+
+    @Override
+    public void requestCompleted(final HubRequestMetrics requestMetrics) {
+        getEndpointMetrics(requestMetrics.getEndpointTemplate()).record(requestMetrics);
+        for (final HubRequestListener listener : listeners) {
+            listener.requestCompleted(requestMetrics);
+        }
+    }
+
+    public void addListener(final HubRequestListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(final HubRequestListener listener) {
+        listeners.remove(listener);
+    }
+
+    public EndpointMetrics getEndpointMetrics(final String endpointTemplate) {
+        EndpointMetrics metrics = endpointMetrics.get(endpointTemplate);
+        if (metrics == null) {
+            final EndpointMetrics newMetrics = new EndpointMetrics(endpointTemplate);
+            metrics = endpointMetrics.putIfAbsent(endpointTemplate, newMetrics);
+            if (metrics == null) {
+                metrics = newMetrics;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Every endpoint requested so far, the endpoint with the most total latency first
+     */
+    public List<EndpointMetrics> getAllEndpointMetrics() {
+        final List<EndpointMetrics> allMetrics = new ArrayList<>(endpointMetrics.values());
+        Collections.sort(allMetrics, new Comparator<EndpointMetrics>() {
+            @Override
+            public int compare(final EndpointMetrics first, final EndpointMetrics second) {
+                final long firstTotal = first.getLatency().getTotalNanos() + first.getParseTime().getTotalNanos();
+                final long secondTotal = second.getLatency().getTotalNanos() + second.getParseTime().getTotalNanos();
+                return Long.compare(secondTotal, firstTotal);
+            }
+        });
+        return allMetrics;
+    }
+
+    public HubRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * The limiter whose state is reported along with the requests, the factories given this registry set it to their limiter
+     */
+    public void setRateLimiter(final HubRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * The number of requests the limiter currently allows to run at once, or -1 without a limiter
+     */
+    public int getCurrentRateLimit() {
+        final HubRateLimiter currentRateLimiter = rateLimiter;
+        if (currentRateLimiter == null) {
+            return -1;
+        }
+        return currentRateLimiter.getCurrentLimit();
+    }
+
+    /**
+     * The number of requests holding a permit of the limiter, or 0 without a limiter
+     */
+    public int getRateLimiterInFlightCount() {
+        final HubRateLimiter currentRateLimiter = rateLimiter;
+        if (currentRateLimiter == null) {
+            return 0;
+        }
+        return currentRateLimiter.getInFlightCount();
+    }
+
+    /**
+     * The number of responses the limiter counted as an overload of the Hub, or 0 without a limiter
+     */
+    public long getRateLimiterOverloadCount() {
+        final HubRateLimiter currentRateLimiter = rateLimiter;
+        if (currentRateLimiter == null) {
+            return 0;
+        }
+        return currentRateLimiter.getOverloadCount();
+    }
+
+    public long getTotalRequestCount() {
+        long total = 0;
+        for (final EndpointMetrics metrics : endpointMetrics.values()) {
+            total += metrics.getRequestCount();
+        }
+        return total;
+    }
+
+    public void clear() {
+        endpointMetrics.clear();
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.metrics;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * What was measured for a single request. Responses are parsed as they are read, so the parse time includes reading the body from the connection
+ * while the latency only covers the time until the response headers arrived.
+ */
+public class HubRequestMetrics {
+    public static final int UNKNOWN_STATUS_CODE = -1;
+
+    private final String endpointTemplate;
+
+    private final int statusCode;
+
+    private final long latencyNanos;
+
+    private final long parseNanos;
+
+    private final long bytesRead;
+
+    private final int pageNumber;
+
+    public HubRequestMetrics(final String endpointTemplate, final int statusCode, final long latencyNanos, final long parseNanos, final long bytesRead, final int pageNumber) {
+        this.endpointTemplate = endpointTemplate;
+        this.statusCode = statusCode;
+        this.latencyNanos = latencyNanos;
+        this.parseNanos = parseNanos;
+        this.bytesRead = bytesRead;
+        this.pageNumber = pageNumber;
+    }
+
+    /**
+     * The path of the request with the ids replaced by {id}, for example /api/projects/{id}/versions
+     */
+    public String getEndpointTemplate() {
+        return endpointTemplate;
+    }
+
+    /**
+     * The HTTP status of the response, or UNKNOWN_STATUS_CODE if no response was received
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 400;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * The 1 based number of the page for paged requests, 0 otherwise
+     */
+    public int getPageNumber() {
+        return pageNumber;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
@@ -0,0 +1,147 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.metrics;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+import com.blackducksoftware.integration.hub.request.HubRequest;
+
+import okhttp3.Response;
+
+/**
+ * Measures a single request for a HubRequestListener. Nothing is reported, and the endpoint template is never computed, when there is no listener.
+ */
+public class HubRequestTimer {
+    private static final Pattern ID_SEGMENT = Pattern.compile("[0-9]+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-fA-F]{24,}");
+
+    private final HubRequestListener requestListener;
+
+    private final String url;
+
+    private final int pageNumber;
+
+    private final long startNanos;
+
+    private long responseNanos;
+
+    private int statusCode = HubRequestMetrics.UNKNOWN_STATUS_CODE;
+
+    private CountingInputStream body;
+
+    public HubRequestTimer(final HubRequestListener requestListener, final String url, final int pageNumber) {
+        this.requestListener = requestListener;
+        this.url = url;
+        this.pageNumber = pageNumber;
+        this.startNanos = System.nanoTime();
+        this.responseNanos = startNanos;
+    }
+
+    /**
+     * Starts timing the request, taking the url from its segments when it has none and the page number from the offset of a paged request
+     */
+    public static HubRequestTimer forRequest(final HubRequestListener requestListener, final HubRequest request) {
+        int pageNumber = 0;
+        if (request instanceof HubPagedRequest) {
+            final HubPagedRequest hubPagedRequest = (HubPagedRequest) request;
+            pageNumber = hubPagedRequest.offset / Math.max(1, hubPagedRequest.limit) + 1;
+        }
+        String url = request.url;
+        if (url == null) {
+            url = "/" + StringUtils.join(request.urlSegments, "/");
+        }
+        return new HubRequestTimer(requestListener, url, pageNumber);
+    }
+
+    /**
+     * @return the body of the response, counting the bytes read from it
+     */
+    public InputStream responseReceived(final Response response) {
+        responseNanos = System.nanoTime();
+        statusCode = response.code();
+        body = new CountingInputStream(response.body().byteStream());
+        return body;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void failed(final int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public long getByteCount() {
+        if (body == null) {
+            return 0;
+        }
+        return body.getByteCount();
+    }
+
+    public void finish() {
+        if (requestListener == null) {
+            return;
+        }
+        final long endNanos = System.nanoTime();
+        long latencyNanos = responseNanos - startNanos;
+        long parseNanos = endNanos - responseNanos;
+        if (body == null) {
+            latencyNanos = endNanos - startNanos;
+            parseNanos = 0;
+        }
+        requestListener.requestCompleted(new HubRequestMetrics(toEndpointTemplate(url), statusCode, latencyNanos, parseNanos, getByteCount(), pageNumber));
+    }
+
+    /**
+     * The path of the url with the numeric, UUID and hash segments replaced by {id}, so requests for different items of the same kind are grouped together
+     */
+    public static String toEndpointTemplate(final String url) {
+        if (url == null) {
+            return "";
+        }
+        String path = url;
+        try {
+            final URI uri = new URI(url);
+            if (uri.getRawPath() != null) {
+                path = uri.getRawPath();
+            }
+        } catch (final URISyntaxException e) {
+            path = StringUtils.substringBefore(url, "?");
+        }
+        final String[] segments = path.split("/");
+        for (int index = 0; index < segments.length; index++) {
+            if (ID_SEGMENT.matcher(segments[index]).matches()) {
+                segments[index] = "{id}";
+            }
+        }
+        return StringUtils.join(segments, "/");
+    }
+
+}
@@ -0,0 +1,155 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * Chooses the limit of each page request from what the previous pages cost. The time and payload per item are tracked as moving averages, and the
+ * limit is the largest one expected to stay within both the target page latency and the maximum page size, bounded by the configured minimum and
+ * maximum limits. Once the totalCount is known the limit never asks for more than what is left, and a short last page is folded into the one before
+ * it when the whole rest still fits the target latency and size, saving its round trip.
+ *
+ * A sizer keeps state for a single listing, use the copy constructor to start a new listing with the same settings.
+ */
+public class AdaptivePageSizer {
+    public static final int DEFAULT_MIN_LIMIT = 25;
+
+    public static final int DEFAULT_MAX_LIMIT = 1000;
+
+    public static final long DEFAULT_TARGET_PAGE_MILLISECONDS = 2000;
+
+    public static final long DEFAULT_MAX_PAGE_BYTES = 4L * 1024L * 1024L;
+
+    // the limit may grow at most this many times from one page to the next, so a single fast page can not jump straight to the maximum
+    private static final int MAX_GROWTH_FACTOR = 4;
+
+    private static final double SMOOTHING_FACTOR = 0.5;
+
+    // a last page holding at most this fraction of the current limit is fetched together with the current page
+    private static final double MAX_TAIL_FRACTION = 0.25;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final long targetPageNanos;
+
+    private final long maxPageBytes;
+
+    private double nanosPerItem = -1;
+
+    private double bytesPerItem = -1;
+
+    public AdaptivePageSizer() {
+        this(DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_TARGET_PAGE_MILLISECONDS, DEFAULT_MAX_PAGE_BYTES);
+    }
+
+    public AdaptivePageSizer(final int minLimit, final int maxLimit, final long targetPageMilliseconds, final long maxPageBytes) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("The page limits must satisfy 1 <= minLimit <= maxLimit.");
+        }
+        if (targetPageMilliseconds < 1 || maxPageBytes < 1) {
+            throw new IllegalArgumentException("The target page latency and maximum page size must be positive.");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetPageNanos = targetPageMilliseconds * 1000000L;
+        this.maxPageBytes = maxPageBytes;
+    }
+
+    /**
+     * Copies the settings of the sizer, but none of what it has observed
+     */
+    public AdaptivePageSizer(final AdaptivePageSizer adaptivePageSizer) {
+        this.minLimit = adaptivePageSizer.minLimit;
+        this.maxLimit = adaptivePageSizer.maxLimit;
+        this.targetPageNanos = adaptivePageSizer.targetPageNanos;
+        this.maxPageBytes = adaptivePageSizer.maxPageBytes;
+    }
+
+    /**
+     * @param currentLimit
+     *            the limit of the previous page, or the limit of the request for the first page
+     * @param remainingItems
+     *            the number of items not yet requested, or -1 if the totalCount is not known yet
+     */
+    public synchronized int nextLimit(final int currentLimit, final int remainingItems) {
+        int limit = currentLimit;
+        long limitByCost = -1;
+        if (nanosPerItem > 0) {
+            limitByCost = (long) (targetPageNanos / nanosPerItem);
+            if (bytesPerItem > 0) {
+                limitByCost = Math.min(limitByCost, (long) (maxPageBytes / bytesPerItem));
+            }
+            limit = (int) Math.min(limitByCost, (long) currentLimit * MAX_GROWTH_FACTOR);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, limit));
+        if (remainingItems > 0 && remainingItems < limit) {
+            limit = remainingItems;
+        } else if (remainingItems > limit && remainingItems - limit <= limit * MAX_TAIL_FRACTION && remainingItems <= maxLimit
+                && remainingItems <= limitByCost) {
+            limit = remainingItems;
+        }
+        return limit;
+    }
+
+    /**
+     * @param elapsedNanos
+     *            the time the successful request took, not counting any failed attempt or backoff before it
+     * @param byteCount
+     *            the size of the response body, or -1 if it is not known
+     */
+    public synchronized void recordPage(final int itemCount, final long elapsedNanos, final long byteCount) {
+        if (itemCount < 1) {
+            return;
+        }
+        nanosPerItem = smooth(nanosPerItem, (double) Math.max(1, elapsedNanos) / itemCount);
+        if (byteCount > 0) {
+            bytesPerItem = smooth(bytesPerItem, (double) byteCount / itemCount);
+        }
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    private double smooth(final double average, final double sample) {
+        if (average < 0) {
+            return sample;
+        }
+        return SMOOTHING_FACTOR * sample + (1 - SMOOTHING_FACTOR) * average;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
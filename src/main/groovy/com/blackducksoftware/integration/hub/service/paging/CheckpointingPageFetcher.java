@@ -0,0 +1,51 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+
+/**
+ * Records every fetched page in a HubPagingCheckpoint
+ */
+public class CheckpointingPageFetcher<T> implements HubPageFetcher<T> {
+    private final HubPageFetcher<T> pageFetcher;
+
+    private final HubPagingCheckpoint<T> checkpoint;
+
+    public CheckpointingPageFetcher(final HubPageFetcher<T> pageFetcher, final HubPagingCheckpoint<T> checkpoint) {
+        this.pageFetcher = pageFetcher;
+        this.checkpoint = checkpoint;
+    }
+
+    @Override
+    public HubPage<T> fetchPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        final int offset = hubPagedRequest.offset;
+        final int limit = hubPagedRequest.limit;
+        final HubPage<T> page = pageFetcher.fetchPage(hubPagedRequest);
+        checkpoint.addPage(offset, limit, page);
+        return page;
+    }
+
+}
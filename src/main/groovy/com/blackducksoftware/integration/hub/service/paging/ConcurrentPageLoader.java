@@ -0,0 +1,155 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.executor.HubTaskGroup;
+
+/**
+ * Fetches the first page of a listing to learn the totalCount, then fetches the remaining offsets in parallel. At most maxConcurrentPages pages are in flight at once and the items are returned in server order. Every page gets
+ * its own copy of the HubPagedRequest so no request state is shared between threads.
+ */
+public class ConcurrentPageLoader<T> {
+    private final RestConnection restConnection;
+
+    private final HubPageFetcher<T> pageFetcher;
+
+    private final int maxConcurrentPages;
+
+    private final HubExecutor executor;
+
+    public ConcurrentPageLoader(final RestConnection restConnection, final HubPageFetcher<T> pageFetcher, final int maxConcurrentPages) {
+        this(restConnection, pageFetcher, maxConcurrentPages, HubExecutor.getSharedInstance());
+    }
+
+    /**
+     * The pages are fetched on the given executor, and the calling thread fetches the next page itself while every thread of the executor is busy.
+     */
+    public ConcurrentPageLoader(final RestConnection restConnection, final HubPageFetcher<T> pageFetcher, final int maxConcurrentPages,
+            final HubExecutor executor) {
+        if (maxConcurrentPages < 1) {
+            throw new IllegalArgumentException("maxConcurrentPages must be at least 1, but was " + maxConcurrentPages);
+        }
+        this.restConnection = restConnection;
+        this.pageFetcher = pageFetcher;
+        this.maxConcurrentPages = maxConcurrentPages;
+        this.executor = executor;
+    }
+
+    /**
+     * The provided request is used for the first page only and is not modified.
+     */
+    public List<T> loadAllItems(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        final HubPage<T> firstPage = pageFetcher.fetchPage(hubPagedRequest);
+        final int totalCount = firstPage.getTotalCount();
+        final List<T> allItems = new ArrayList<>(Math.max(totalCount - hubPagedRequest.offset, firstPage.getItems().size()));
+        allItems.addAll(firstPage.getItems());
+        if (firstPage.getItems().isEmpty()) {
+            return allItems;
+        }
+
+        // the Hub may cap its pages below the limit, the offsets follow the size of the pages it actually returns
+        final int limit = Math.min(hubPagedRequest.limit, firstPage.getItems().size());
+        int nextOffset = hubPagedRequest.offset + limit;
+        if (nextOffset >= totalCount || allItems.size() >= totalCount) {
+            return allItems;
+        }
+
+        final int remainingPages = (totalCount - nextOffset + limit - 1) / limit;
+        final HubTaskGroup taskGroup = executor.createTaskGroup(Math.min(maxConcurrentPages, remainingPages));
+        // the head of the window is always the next page in server order
+        final Deque<Future<HubPage<T>>> window = new ArrayDeque<>(maxConcurrentPages);
+        try {
+            while (window.size() < maxConcurrentPages && nextOffset < totalCount) {
+                window.add(taskGroup.submit(new PageCallable(copyForOffset(hubPagedRequest, nextOffset))));
+                nextOffset += limit;
+            }
+            while (!window.isEmpty()) {
+                final HubPage<T> page = waitForPage(taskGroup, window.poll());
+                allItems.addAll(page.getItems());
+                if (nextOffset < totalCount) {
+                    window.add(taskGroup.submit(new PageCallable(copyForOffset(hubPagedRequest, nextOffset))));
+                    nextOffset += limit;
+                }
+            }
+        } finally {
+            taskGroup.cancelPending();
+            for (final Future<HubPage<T>> future : window) {
+                future.cancel(true);
+            }
+        }
+        return allItems;
+    }
+
+    public HubPagedRequest copyForOffset(final HubPagedRequest hubPagedRequest, final int offset) {
+        final HubPagedRequest copy = new HubPagedRequest(restConnection);
+        copy.url = hubPagedRequest.url;
+        copy.urlSegments.addAll(hubPagedRequest.urlSegments);
+        copy.queryParameters.putAll(hubPagedRequest.queryParameters);
+        copy.q = hubPagedRequest.q;
+        copy.limit = hubPagedRequest.limit;
+        copy.offset = offset;
+        return copy;
+    }
+
+    private HubPage<T> waitForPage(final HubTaskGroup taskGroup, final Future<HubPage<T>> future) throws IntegrationException {
+        try {
+            return taskGroup.get(future);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HubIntegrationException("Interrupted while waiting for a page of items", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IntegrationException) {
+                throw (IntegrationException) e.getCause();
+            }
+            throw new HubIntegrationException("Error fetching a page of items: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private class PageCallable implements Callable<HubPage<T>> {
+        private final HubPagedRequest hubPagedRequest;
+
+        public PageCallable(final HubPagedRequest hubPagedRequest) {
+            this.hubPagedRequest = hubPagedRequest;
+        }
+
+        @Override
+        public HubPage<T> call() throws Exception {
+            return pageFetcher.fetchPage(hubPagedRequest);
+        }
+    }
+
+}
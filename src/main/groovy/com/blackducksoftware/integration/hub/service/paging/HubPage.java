@@ -0,0 +1,85 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import java.util.List;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+/**
+ * A single page of items along with the totalCount the Hub reported for the whole listing.
+ */
+public class HubPage<T> {
+    private final int totalCount;
+
+    private final List<T> items;
+
+    private final long byteCount;
+
+    private final long elapsedNanos;
+
+    public HubPage(final int totalCount, final List<T> items) {
+        this(totalCount, items, -1);
+    }
+
+    public HubPage(final int totalCount, final List<T> items, final long byteCount) {
+        this(totalCount, items, byteCount, -1);
+    }
+
+    public HubPage(final int totalCount, final List<T> items, final long byteCount, final long elapsedNanos) {
+        this.totalCount = totalCount;
+        this.items = items;
+        this.byteCount = byteCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * The size of the response body the page was read from, or -1 if it was not measured.
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * The time the request of the page took, or -1 if it was not measured.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
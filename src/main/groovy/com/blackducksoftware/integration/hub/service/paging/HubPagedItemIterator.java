@@ -0,0 +1,165 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubPagingException;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+
+/**
+ * Lazily walks a paged Hub listing. Only the current page is held in memory, the next page is requested when the consumer reaches the end of the current one. The offset of the provided HubPagedRequest is advanced as pages are
+ * fetched, so the request must not be shared with another iterator.
+ */
+public class HubPagedItemIterator<T> implements Iterator<T>, Closeable {
+    private final HubPagedRequest hubPagedRequest;
+
+    private final HubPageFetcher<T> pageFetcher;
+
+    private final AdaptivePageSizer pageSizer;
+
+    private Iterator<T> currentPage = Collections.emptyIterator();
+
+    // -1 until the first page tells us how many items there are
+    private int totalCount = -1;
+
+    private int nextOffset;
+
+    private int itemsFetched;
+
+    // set once a page comes back empty before totalCount items were fetched, as asking again would return the same empty page
+    private boolean exhausted;
+
+    private boolean closed;
+
+    public HubPagedItemIterator(final HubPagedRequest hubPagedRequest, final HubPageFetcher<T> pageFetcher) {
+        this(hubPagedRequest, pageFetcher, null);
+    }
+
+    /**
+     * When a pageSizer is provided, the limit of the request is changed before each page is fetched
+     */
+    public HubPagedItemIterator(final HubPagedRequest hubPagedRequest, final HubPageFetcher<T> pageFetcher, final AdaptivePageSizer pageSizer) {
+        this.hubPagedRequest = hubPagedRequest;
+        this.pageFetcher = pageFetcher;
+        this.pageSizer = pageSizer;
+        this.nextOffset = hubPagedRequest.offset;
+    }
+
+    /**
+     * @throws HubPagingException
+     *             if the next page could not be retrieved from the Hub
+     */
+    @Override
+    public boolean hasNext() {
+        while (!closed && !currentPage.hasNext()) {
+            if (!hasMorePages()) {
+                return false;
+            }
+            try {
+                fetchNextPage();
+            } catch (final IntegrationException e) {
+                throw new HubPagingException(e);
+            }
+        }
+        return !closed;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return currentPage.next();
+    }
+
+    /**
+     * Stops the iteration, no further pages will be requested.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        currentPage = Collections.emptyIterator();
+    }
+
+    /**
+     * The totalCount reported by the Hub, or -1 if no page has been fetched yet.
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * A sequential Stream over the remaining items. Closing the Stream closes this iterator.
+     */
+    public Stream<T> stream() {
+        final Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                close();
+            }
+        });
+    }
+
+    protected HubPagedRequest getHubPagedRequest() {
+        return hubPagedRequest;
+    }
+
+    private boolean hasMorePages() {
+        if (totalCount < 0) {
+            return true;
+        }
+        return !exhausted && itemsFetched < totalCount && nextOffset < totalCount;
+    }
+
+    private void fetchNextPage() throws IntegrationException {
+        hubPagedRequest.offset = nextOffset;
+        if (pageSizer != null) {
+            final int remainingItems = totalCount < 0 ? -1 : totalCount - nextOffset;
+            hubPagedRequest.limit = pageSizer.nextLimit(hubPagedRequest.limit, remainingItems);
+        }
+        final long startNanos = System.nanoTime();
+        final HubPage<T> page = pageFetcher.fetchPage(hubPagedRequest);
+        if (pageSizer != null) {
+            final long elapsedNanos = page.getElapsedNanos() >= 0 ? page.getElapsedNanos() : System.nanoTime() - startNanos;
+            pageSizer.recordPage(page.getItems().size(), elapsedNanos, page.getByteCount());
+        }
+        totalCount = page.getTotalCount();
+        itemsFetched += page.getItems().size();
+        // the Hub may return fewer items than the limit, the next page starts after the last item actually returned
+        nextOffset += page.getItems().size();
+        exhausted = page.getItems().isEmpty();
+        currentPage = page.getItems().iterator();
+    }
+
+}
@@ -0,0 +1,105 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+
+/**
+ * The progress of a listing: the offset of the next page to request and the items read so far. It is updated after every page, so if a listing
+ * fails the same checkpoint can be passed back in to continue from the page that failed rather than from the start. Override pageCompleted to persist
+ * the offset, totalCount and items, for example to resume after the process itself has stopped, and pass them back in through the constructor. The
+ * checkpoint itself is not Serializable, as the items read are Hub views, which are not.
+ */
+public class HubPagingCheckpoint<T> {
+    // -1 until the first page is read, the offset of the request is used until then
+    private int offset = -1;
+
+    private int totalCount = -1;
+
+    private final ArrayList<T> items = new ArrayList<>();
+
+    public HubPagingCheckpoint() {
+    }
+
+    /**
+     * Resumes from a previously saved position
+     */
+    public HubPagingCheckpoint(final int offset, final int totalCount, final List<T> items) {
+        this.offset = offset;
+        this.totalCount = totalCount;
+        this.items.addAll(items);
+    }
+
+    public synchronized int getOffset() {
+        return offset;
+    }
+
+    public synchronized int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * A copy of the items read so far
+     */
+    public synchronized List<T> getItems() {
+        return new ArrayList<>(items);
+    }
+
+    public synchronized boolean isComplete() {
+        return totalCount >= 0 && (offset >= totalCount || items.size() >= totalCount);
+    }
+
+    /**
+     * Moves the request to the offset of the checkpoint, if any page has been read
+     */
+    public synchronized void applyTo(final HubPagedRequest hubPagedRequest) {
+        if (offset >= 0) {
+            hubPagedRequest.offset = offset;
+        }
+    }
+
+    protected void pageCompleted() {
+    }
+
+    void addPage(final int pageOffset, final int pageLimit, final HubPage<T> page) {
+        synchronized (this) {
+            items.addAll(page.getItems());
+            offset = pageOffset + pageLimit;
+            totalCount = page.getTotalCount();
+        }
+        pageCompleted();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
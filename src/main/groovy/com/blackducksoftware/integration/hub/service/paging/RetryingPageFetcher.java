@@ -0,0 +1,75 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
+
+/**
+ * Retries a failed page on its own, according to the RetryPolicy, so a transient failure does not restart the whole listing. The page returned
+ * carries the time of the attempt that succeeded, so the failed attempts and the backoff are not mistaken for the latency of the page.
+ */
+public class RetryingPageFetcher<T> implements HubPageFetcher<T> {
+    private final HubPageFetcher<T> pageFetcher;
+
+    private final RetryPolicy retryPolicy;
+
+    public RetryingPageFetcher(final HubPageFetcher<T> pageFetcher, final RetryPolicy retryPolicy) {
+        this.pageFetcher = pageFetcher;
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public HubPage<T> fetchPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+        final int offset = hubPagedRequest.offset;
+        final int limit = hubPagedRequest.limit;
+        int attempt = 1;
+        while (true) {
+            final long startNanos = System.nanoTime();
+            try {
+                final HubPage<T> page = pageFetcher.fetchPage(hubPagedRequest);
+                if (page.getElapsedNanos() >= 0) {
+                    return page;
+                }
+                return new HubPage<>(page.getTotalCount(), page.getItems(), page.getByteCount(), System.nanoTime() - startNanos);
+            } catch (final IntegrationException e) {
+                if (!retryPolicy.shouldRetry(attempt, e)) {
+                    throw e;
+                }
+                try {
+                    retryPolicy.waitBeforeRetry(attempt);
+                } catch (final InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new HubIntegrationException("Interrupted while waiting to retry the page at offset " + offset, e);
+                }
+                hubPagedRequest.offset = offset;
+                hubPagedRequest.limit = limit;
+                attempt++;
+            }
+        }
+    }
+
+}
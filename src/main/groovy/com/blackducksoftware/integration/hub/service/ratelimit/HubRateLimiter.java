@@ -0,0 +1,360 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.ratelimit;
+
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.blackducksoftware.integration.hub.service.metrics.HubRequestTimer;
+
+/**
+ * Limits the requests made to the Hub, by rate with a token bucket and by concurrency with a limit adapted to how the Hub responds. The concurrency
+ * limit grows by about one for every limit requests answered in time and shrinks by the decrease factor whenever the Hub answers 429 or 503, a
+ * request times out or can not connect, or the smoothed latency of an endpoint exceeds the latency tolerance times the best latency seen for that
+ * endpoint, at most once per smoothed latency so that a burst of failures from the same round of requests is only counted once.
+ *
+ * The latency is the time until the response headers arrive, reported through Permit.responseReceived, so reading and parsing a large body is not
+ * mistaken for a slow Hub. Requests that never report it, such as report downloads and uploads, are not scored on latency at all.
+ *
+ * Share a single limiter between every factory, and so every service, of the process to limit the process as a whole.
+ */
+public class HubRateLimiter {
+    public static final int DEFAULT_INITIAL_LIMIT = 8;
+
+    public static final int DEFAULT_MIN_LIMIT = 1;
+
+    public static final int DEFAULT_MAX_LIMIT = 64;
+
+    public static final double DEFAULT_DECREASE_FACTOR = 0.75;
+
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    // the best latency drifts this far towards the smoothed latency with every request, so a Hub that stays slower eventually becomes the baseline
+    private static final double BASELINE_DRIFT = 0.01;
+
+    private final double permitsPerSecond;
+
+    private final double burstPermits;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double decreaseFactor;
+
+    private final double latencyTolerance;
+
+    private double limit;
+
+    private int inFlightCount;
+
+    private double availableTokens;
+
+    private long lastRefillNanos = System.nanoTime();
+
+    // across every endpoint, only used to space the decreases
+    private double smoothedLatencyNanos = -1;
+
+    private final Map<String, EndpointLatency> endpointLatencies = new HashMap<>();
+
+    private long lastDecreaseNanos;
+
+    private long throttledCount;
+
+    private long overloadCount;
+
+    /**
+     * No rate limit, only the adaptive concurrency limit
+     */
+    public HubRateLimiter() {
+        this(0, 0, DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_DECREASE_FACTOR, DEFAULT_LATENCY_TOLERANCE);
+    }
+
+    /**
+     * @param permitsPerSecond
+     *            the sustained request rate, 0 for no rate limit
+     * @param burstPermits
+     *            the number of requests that may be made at once after an idle period
+     */
+    public HubRateLimiter(final double permitsPerSecond, final double burstPermits, final int initialLimit, final int minLimit, final int maxLimit, final double decreaseFactor,
+            final double latencyTolerance) {
+        if (permitsPerSecond < 0 || (permitsPerSecond > 0 && burstPermits < 1)) {
+            throw new IllegalArgumentException("The rate must not be negative and a rate limit must allow a burst of at least one request.");
+        }
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("The concurrency limits must satisfy 1 <= minLimit <= initialLimit <= maxLimit.");
+        }
+        if (decreaseFactor <= 0.0 || decreaseFactor >= 1.0 || latencyTolerance <= 1.0) {
+            throw new IllegalArgumentException("The decrease factor must be between 0 and 1 and the latency tolerance above 1.");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burstPermits = burstPermits;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.decreaseFactor = decreaseFactor;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = initialLimit;
+        this.availableTokens = burstPermits;
+    }
+
+    /**
+     * Waits until both a token and a concurrency slot are free. The permit must be released once the response has been read.
+     */
+    public Permit acquire() throws HubIntegrationException {
+        boolean throttled = false;
+        synchronized (this) {
+            try {
+                while (true) {
+                    if (inFlightCount >= (int) limit) {
+                        throttled = true;
+                        wait();
+                        continue;
+                    }
+                    refill();
+                    if (permitsPerSecond <= 0 || availableTokens >= 1) {
+                        break;
+                    }
+                    throttled = true;
+                    final long waitNanos = (long) Math.ceil((1 - availableTokens) / permitsPerSecond * 1000000000L);
+                    wait(Math.max(1, waitNanos / 1000000L));
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HubIntegrationException("Interrupted while waiting to make a request to the Hub", e);
+            }
+            if (permitsPerSecond > 0) {
+                availableTokens -= 1;
+            }
+            inFlightCount++;
+            if (throttled) {
+                throttledCount++;
+            }
+        }
+        return new Permit(this);
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        if (permitsPerSecond > 0) {
+            availableTokens = Math.min(burstPermits, availableTokens + (now - lastRefillNanos) * permitsPerSecond / 1000000000L);
+        }
+        lastRefillNanos = now;
+    }
+
+    private synchronized void release(final String endpoint, final long latencyNanos, final int statusCode, final boolean ioFailure) {
+        final boolean limitReached = inFlightCount >= (int) limit;
+        inFlightCount--;
+        final boolean overloaded = ioFailure || isOverloadStatus(statusCode) || isLatencyTooHigh(endpoint, latencyNanos);
+        if (overloaded) {
+            overloadCount++;
+            final long now = System.nanoTime();
+            if (now - lastDecreaseNanos > smoothedLatencyNanos) {
+                limit = Math.max(minLimit, limit * decreaseFactor);
+                lastDecreaseNanos = now;
+            }
+        } else if (limitReached) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    private boolean isOverloadStatus(final int statusCode) {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    private boolean isLatencyTooHigh(final String endpoint, final long latencyNanos) {
+        if (endpoint == null || latencyNanos < 0) {
+            return false;
+        }
+        smoothedLatencyNanos = smoothedLatencyNanos < 0 ? latencyNanos : SMOOTHING_FACTOR * latencyNanos + (1 - SMOOTHING_FACTOR) * smoothedLatencyNanos;
+        EndpointLatency endpointLatency = endpointLatencies.get(endpoint);
+        if (endpointLatency == null) {
+            endpointLatency = new EndpointLatency(latencyNanos);
+            endpointLatencies.put(endpoint, endpointLatency);
+            return false;
+        }
+        return endpointLatency.record(latencyNanos);
+    }
+
+    /**
+     * The number of requests currently allowed to run at once
+     */
+    public synchronized int getCurrentLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlightCount() {
+        return inFlightCount;
+    }
+
+    public synchronized double getAvailableTokens() {
+        refill();
+        return availableTokens;
+    }
+
+    /**
+     * The number of requests that had to wait for a token or a concurrency slot
+     */
+    public synchronized long getThrottledCount() {
+        return throttledCount;
+    }
+
+    /**
+     * The number of responses that were an error or too slow
+     */
+    public synchronized long getOverloadCount() {
+        return overloadCount;
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+    /**
+     * The smoothed and the best latency of a single endpoint
+     */
+    private class EndpointLatency {
+        private double smoothedNanos;
+
+        private double baselineNanos;
+
+        public EndpointLatency(final long latencyNanos) {
+            this.smoothedNanos = latencyNanos;
+            this.baselineNanos = latencyNanos;
+        }
+
+        /**
+         * @return true if the smoothed latency is now too far above the best one
+         */
+        public boolean record(final long latencyNanos) {
+            smoothedNanos = SMOOTHING_FACTOR * latencyNanos + (1 - SMOOTHING_FACTOR) * smoothedNanos;
+            baselineNanos = Math.min(latencyNanos, baselineNanos + BASELINE_DRIFT * (smoothedNanos - baselineNanos));
+            return smoothedNanos > latencyTolerance * baselineNanos;
+        }
+    }
+
+    /**
+     * A slot taken from the limiter for a single request
+     */
+    public static class Permit {
+        private final HubRateLimiter rateLimiter;
+
+        private final long startNanos = System.nanoTime();
+
+        private String url;
+
+        private long latencyNanos = -1;
+
+        private int statusCode;
+
+        private boolean ioFailure;
+
+        private boolean released;
+
+        private Permit(final HubRateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+        }
+
+        /**
+         * A permit that does not limit anything, for services without a limiter
+         */
+        public static Permit unlimited() {
+            return new Permit(null);
+        }
+
+        /**
+         * Records the time until the response headers of the url arrived, which is the latency the limiter scores. The urls are grouped by their
+         * endpoint template, so the items of one kind share a baseline.
+         */
+        public void responseReceived(final String url) {
+            responseReceived(url, System.nanoTime() - startNanos);
+        }
+
+        void responseReceived(final String url, final long latencyNanos) {
+            if (this.latencyNanos < 0) {
+                this.url = url;
+                this.latencyNanos = latencyNanos;
+            }
+        }
+
+        public void failed(final int statusCode) {
+            this.statusCode = statusCode;
+        }
+
+        /**
+         * Records why the request failed. An IntegrationRestException reports the status the Hub answered with, a timeout or a refused connection
+         * anywhere among the causes counts as an overload of the Hub and any other exception, a response that could not be parsed for example, is
+         * not held against it.
+         */
+        public void failed(final Exception exception) {
+            Throwable cause = exception;
+            while (cause != null) {
+                if (cause instanceof IntegrationRestException) {
+                    statusCode = ((IntegrationRestException) cause).getHttpStatusCode();
+                    return;
+                }
+                if (cause instanceof InterruptedIOException || cause instanceof ConnectException) {
+                    ioFailure = true;
+                    return;
+                }
+                cause = cause.getCause();
+            }
+        }
+
+        /**
+         * Reports the latency and the outcome of the request to the limiter, only the first call has an effect
+         */
+        public void release() {
+            if (rateLimiter == null || released) {
+                return;
+            }
+            released = true;
+            final String endpoint = url == null ? null : HubRequestTimer.toEndpointTemplate(url);
+            rateLimiter.release(endpoint, latencyNanos, statusCode, ioFailure);
+        }
+    }
+
+}
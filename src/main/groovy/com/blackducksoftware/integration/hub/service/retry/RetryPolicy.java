@@ -0,0 +1,145 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.retry;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.MalformedJsonException;
+
+/**
+ * Decides whether a failed Hub request is worth repeating and how long to wait first. Connection failures, 5xx responses and 429 Too Many Requests
+ * are retried with an exponential backoff, randomized by the jitter so that concurrent callers do not retry in lock step. Anything else, a 404 or a
+ * response that can not be parsed for example, is failed immediately.
+ */
+public class RetryPolicy {
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+    public static final long DEFAULT_INITIAL_BACKOFF_MILLISECONDS = 500;
+
+    public static final long DEFAULT_MAX_BACKOFF_MILLISECONDS = 10000;
+
+    public static final double DEFAULT_BACKOFF_MULTIPLIER = 2.0;
+
+    public static final double DEFAULT_JITTER = 0.2;
+
+    private final int maxAttempts;
+
+    private final long initialBackoffMilliseconds;
+
+    private final long maxBackoffMilliseconds;
+
+    private final double backoffMultiplier;
+
+    private final double jitter;
+
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF_MILLISECONDS, DEFAULT_MAX_BACKOFF_MILLISECONDS, DEFAULT_BACKOFF_MULTIPLIER, DEFAULT_JITTER);
+    }
+
+    /**
+     * @param maxAttempts
+     *            the total number of attempts, including the first one
+     * @param jitter
+     *            the fraction, between 0 and 1, by which each backoff is randomly shortened or lengthened
+     */
+    public RetryPolicy(final int maxAttempts, final long initialBackoffMilliseconds, final long maxBackoffMilliseconds, final double backoffMultiplier, final double jitter) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("There must be at least one attempt.");
+        }
+        if (initialBackoffMilliseconds < 0 || maxBackoffMilliseconds < initialBackoffMilliseconds || backoffMultiplier < 1.0) {
+            throw new IllegalArgumentException("The backoff must satisfy 0 <= initialBackoff <= maxBackoff and multiplier >= 1.");
+        }
+        if (jitter < 0.0 || jitter > 1.0) {
+            throw new IllegalArgumentException("The jitter must be between 0 and 1.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMilliseconds = initialBackoffMilliseconds;
+        this.maxBackoffMilliseconds = maxBackoffMilliseconds;
+        this.backoffMultiplier = backoffMultiplier;
+        this.jitter = jitter;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isRetryable(final IntegrationException e) {
+        if (e instanceof IntegrationRestException) {
+            final int statusCode = ((IntegrationRestException) e).getHttpStatusCode();
+            return statusCode >= 500 || statusCode == 429;
+        }
+        Throwable cause = e.getCause();
+        while (cause != null) {
+            if (cause instanceof MalformedJsonException || cause instanceof JsonParseException) {
+                // the response arrived, it just could not be read, and requesting it again will not change that
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * @return true if another attempt should be made after the given (1 based) attempt failed with the exception
+     */
+    public boolean shouldRetry(final int attempt, final IntegrationException e) {
+        return attempt < maxAttempts && isRetryable(e);
+    }
+
+    /**
+     * The time to wait after the given (1 based) attempt failed
+     */
+    public long getBackoffMilliseconds(final int attempt) {
+        final double backoff = Math.min(maxBackoffMilliseconds, initialBackoffMilliseconds * Math.pow(backoffMultiplier, attempt - 1));
+        if (jitter == 0.0) {
+            return (long) backoff;
+        }
+        final double randomFactor = 1.0 + jitter * (2.0 * ThreadLocalRandom.current().nextDouble() - 1.0);
+        return (long) (backoff * randomFactor);
+    }
+
+    public void waitBeforeRetry(final int attempt) throws InterruptedException {
+        sleep(getBackoffMilliseconds(attempt));
+    }
+
+    protected void sleep(final long milliseconds) throws InterruptedException {
+        Thread.sleep(milliseconds);
+    }
+
+    @Override
+    public String toString() {
+        return ReflectionToStringBuilder.toString(this, RecursiveToStringStyle.JSON_STYLE);
+    }
+
+}
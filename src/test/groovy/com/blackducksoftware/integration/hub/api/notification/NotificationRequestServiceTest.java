@@ -0,0 +1,219 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.api.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.api.item.MetaService;
+import com.blackducksoftware.integration.hub.model.view.NotificationView;
+import com.blackducksoftware.integration.hub.model.view.RuleViolationNotificationView;
+import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
+import com.blackducksoftware.integration.hub.model.view.components.MetaView;
+import com.blackducksoftware.integration.hub.notification.processor.MockRestConnection;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.paging.HubPage;
+import com.blackducksoftware.integration.log.IntBufferedLogger;
+import com.blackducksoftware.integration.log.IntLogger;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+public class NotificationRequestServiceTest {
+    private static final String RULE_VIOLATION_JSON = "{\"type\":\"RULE_VIOLATION\",\"content\":{\"projectVersionLink\":\"http://hub/api/projects/1/versions/1\"}}";
+
+    private static final String PAGE_JSON = "{\"totalCount\":2,\"items\":[{\"content\":{\"componentVersionLink\":\"http://hub/api/components/1/versions/1\"},"
+            + "\"type\":\"VULNERABILITY\"}," + RULE_VIOLATION_JSON + "]}";
+
+    private final IntLogger logger = new IntBufferedLogger();
+
+    @Test
+    public void testLargeWindowsAreSplit() throws IntegrationException {
+        final List<NotificationView> notifications = new ArrayList<>();
+        for (int index = 0; index < 20; index++) {
+            notifications.add(createNotification(index * 1000L + 500L, "http://hub/api/notifications/" + index));
+        }
+        final WindowedNotificationRequestService notificationRequestService = new WindowedNotificationRequestService(notifications);
+        notificationRequestService.setPartitionParallelism(2);
+        notificationRequestService.setMaxPartitionItems(5);
+
+        final List<NotificationView> fetched = notificationRequestService.getAllNotifications(new Date(0), new Date(20000));
+        assertEquals(notifications, fetched);
+        // the range is counted, both windows of ten notifications are counted and split in two, and the first page of each half is all of it
+        assertEquals(7, notificationRequestService.pageCount.get());
+        assertEquals(7, notificationRequestService.windowCount.get());
+        // only the single item of each count page is fetched in vain
+        assertEquals(23, notificationRequestService.itemCount.get());
+    }
+
+    @Test
+    public void testPagesOfAWindowAreAllFetched() throws IntegrationException {
+        final List<NotificationView> notifications = new ArrayList<>();
+        for (int index = 0; index < 25; index++) {
+            notifications.add(createNotification(index * 100L, "http://hub/api/notifications/" + index));
+        }
+        final WindowedNotificationRequestService notificationRequestService = new WindowedNotificationRequestService(notifications);
+        notificationRequestService.pageLimit = 10;
+        notificationRequestService.setPartitionParallelism(2);
+
+        final List<NotificationView> fetched = notificationRequestService.getAllNotifications(new Date(0), new Date(2500));
+        assertEquals(notifications, fetched);
+        // the range is counted, each window of about twelve notifications takes two pages of ten, and no page is requested twice
+        assertEquals(5, notificationRequestService.pageCount.get());
+    }
+
+    @Test
+    public void testNotificationsOnTheBoundaryAreMerged() throws IntegrationException {
+        final NotificationView beforeBoundary = createNotification(4000, "http://hub/api/notifications/1");
+        final NotificationView onBoundary = createNotification(5000, "http://hub/api/notifications/2");
+        final NotificationView afterBoundary = createNotification(6000, "http://hub/api/notifications/3");
+        final NotificationView withoutCreatedAt = createNotification(-1, "http://hub/api/notifications/4");
+        final List<NotificationView> notifications = new ArrayList<>();
+        Collections.addAll(notifications, afterBoundary, withoutCreatedAt, onBoundary, beforeBoundary);
+        final WindowedNotificationRequestService notificationRequestService = new WindowedNotificationRequestService(notifications);
+        notificationRequestService.setPartitionParallelism(2);
+
+        final List<NotificationView> fetched = notificationRequestService.getAllNotifications(new Date(0), new Date(10000));
+        assertEquals(4, fetched.size());
+        assertTrue(fetched.get(0) == beforeBoundary);
+        assertTrue(fetched.get(1) == onBoundary);
+        assertTrue(fetched.get(2) == afterBoundary);
+        assertNull(fetched.get(3).createdAt);
+    }
+
+    @Test
+    public void testNotificationsWithoutHrefAreAllKept() throws IntegrationException {
+        final NotificationView first = createNotification(1000, null);
+        final NotificationView second = createNotification(6000, null);
+        final List<NotificationView> notifications = new ArrayList<>();
+        Collections.addAll(notifications, first, second);
+        final WindowedNotificationRequestService notificationRequestService = new WindowedNotificationRequestService(notifications);
+        notificationRequestService.setPartitionParallelism(2);
+
+        final List<NotificationView> fetched = notificationRequestService.getAllNotifications(new Date(0), new Date(10000));
+        assertEquals(2, fetched.size());
+        assertTrue(fetched.get(0) == first);
+        assertTrue(fetched.get(1) == second);
+    }
+
+    @Test
+    public void testPageNotificationsAreBoundAsTheirTypeWithoutTheirJsonByDefault() throws IOException {
+        final NotificationRequestService notificationRequestService = new NotificationRequestService(logger, new MockRestConnection(), new MetaService(logger));
+
+        final HubPage<NotificationView> page = notificationRequestService.readPage(new JsonReader(new StringReader(PAGE_JSON)));
+        assertEquals(2, page.getTotalCount());
+        assertEquals(2, page.getItems().size());
+        final VulnerabilityNotificationView vulnerability = (VulnerabilityNotificationView) page.getItems().get(0);
+        assertEquals("http://hub/api/components/1/versions/1", vulnerability.content.componentVersionLink);
+        assertTrue(page.getItems().get(1) instanceof RuleViolationNotificationView);
+        assertNull(vulnerability.json);
+    }
+
+    @Test
+    public void testPageNotificationsKeepTheirJsonWhenRetained() throws IOException {
+        final NotificationRequestService notificationRequestService = new NotificationRequestService(logger, new MockRestConnection(), new MetaService(logger));
+        notificationRequestService.setRetainItemJson(true);
+
+        final HubPage<NotificationView> page = notificationRequestService.readPage(new JsonReader(new StringReader(PAGE_JSON)));
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.getItems().get(0) instanceof VulnerabilityNotificationView);
+        final JsonParser jsonParser = new JsonParser();
+        assertEquals(jsonParser.parse(RULE_VIOLATION_JSON), jsonParser.parse(page.getItems().get(1).json));
+    }
+
+    private NotificationView createNotification(final long createdAt, final String href) {
+        final NotificationView notification = new NotificationView();
+        if (createdAt >= 0) {
+            notification.createdAt = new Date(createdAt);
+        }
+        notification.meta = new MetaView();
+        notification.meta.href = href;
+        return notification;
+    }
+
+    /**
+     * Serves the notifications created inside the window of each request, including both ends of the window. The notifications without a createdAt
+     * are in every window.
+     */
+    private class WindowedNotificationRequestService extends NotificationRequestService {
+        private final List<NotificationView> notifications;
+
+        private final Map<HubPagedRequest, Date[]> windows = Collections.synchronizedMap(new IdentityHashMap<HubPagedRequest, Date[]>());
+
+        private final AtomicInteger windowCount = new AtomicInteger();
+
+        private final AtomicInteger pageCount = new AtomicInteger();
+
+        private final AtomicInteger itemCount = new AtomicInteger();
+
+        private int pageLimit = 100;
+
+        public WindowedNotificationRequestService(final List<NotificationView> notifications) {
+            super(logger, Mockito.mock(RestConnection.class), new MetaService(logger));
+            this.notifications = notifications;
+        }
+
+        @Override
+        public HubPagedRequest createNotificationsRequest(final Date startDate, final Date endDate) {
+            final HubPagedRequest hubPagedRequest = Mockito.mock(HubPagedRequest.class);
+            hubPagedRequest.limit = pageLimit;
+            hubPagedRequest.offset = 0;
+            windows.put(hubPagedRequest, new Date[] { startDate, endDate });
+            windowCount.incrementAndGet();
+            return hubPagedRequest;
+        }
+
+        @Override
+        public HubPage<NotificationView> getPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+            pageCount.incrementAndGet();
+            final Date[] window = windows.get(hubPagedRequest);
+            final List<NotificationView> windowItems = new ArrayList<>();
+            for (final NotificationView notification : notifications) {
+                if (notification.createdAt == null || (!notification.createdAt.before(window[0]) && !notification.createdAt.after(window[1]))) {
+                    windowItems.add(notification);
+                }
+            }
+            final int toIndex = Math.min(windowItems.size(), hubPagedRequest.offset + hubPagedRequest.limit);
+            final List<NotificationView> pageItems = new ArrayList<>(windowItems.subList(Math.min(hubPagedRequest.offset, toIndex), toIndex));
+            itemCount.addAndGet(pageItems.size());
+            return new HubPage<>(windowItems.size(), pageItems);
+        }
+    }
+
+}
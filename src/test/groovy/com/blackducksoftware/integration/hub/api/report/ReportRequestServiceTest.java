@@ -0,0 +1,100 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.api.report;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.api.item.MetaService;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.notification.processor.MockRestConnection;
+import com.blackducksoftware.integration.log.IntBufferedLogger;
+import com.blackducksoftware.integration.log.IntLogger;
+import com.google.gson.stream.JsonReader;
+
+public class ReportRequestServiceTest {
+    private static final String REPORT_CONTENT_URL = "http://hub/api/reports/1/contents";
+
+    private static final String VERSION_REPORT_JSON = "{\"detailedReleaseSummary\":{\"projectId\":\"project-1\",\"versionId\":\"version-1\"},"
+            + "\"aggregateBomViewEntries\":[]}";
+
+    private final IntLogger logger = new IntBufferedLogger();
+
+    private final ReportRequestService reportRequestService = new ReportRequestService(new MockRestConnection(), logger, new MetaService(logger));
+
+    @Test
+    public void testReportIsReadFromTheFileContent() throws IOException, HubIntegrationException {
+        final String json = "{\"reportFormat\":\"JSON\",\"reportContent\":[{\"fileName\":\"version.json\",\"fileContent\":" + VERSION_REPORT_JSON
+                + ",\"fileNamePrefix\":\"version\"}],\"_meta\":{}}";
+
+        final VersionReport report = reportRequestService.readReportContent(createReader(json), REPORT_CONTENT_URL);
+        assertEquals("project-1", report.getDetailedReleaseSummary().getProjectId());
+        assertEquals("version-1", report.getDetailedReleaseSummary().getVersionId());
+        assertEquals(0, report.getAggregateBomViewEntries().size());
+    }
+
+    @Test
+    public void testNoticesReportIsReadFromTheFileContent() throws IOException, HubIntegrationException {
+        final String json = "{\"reportContent\":[{\"fileContent\":\"the notices\",\"fileName\":\"notices.txt\"}]}";
+
+        assertEquals("the notices", reportRequestService.readNoticesReportContent(createReader(json), REPORT_CONTENT_URL));
+    }
+
+    @Test
+    public void testFileContentOutsideTheReportContentIsSkipped() throws IOException, HubIntegrationException {
+        final String json = "{\"fileContent\":\"not the notices\",\"reportContent\":[{\"fileName\":\"notices.txt\","
+                + "\"fileContent\":\"the notices\"}]}";
+
+        assertEquals("the notices", reportRequestService.readNoticesReportContent(createReader(json), REPORT_CONTENT_URL));
+    }
+
+    @Test(expected = HubIntegrationException.class)
+    public void testMissingReportContentIsReported() throws IOException, HubIntegrationException {
+        final String json = "{\"reportFormat\":\"JSON\",\"fileContent\":" + VERSION_REPORT_JSON + "}";
+
+        reportRequestService.readReportContent(createReader(json), REPORT_CONTENT_URL);
+    }
+
+    @Test(expected = HubIntegrationException.class)
+    public void testMissingFileContentIsReported() throws IOException, HubIntegrationException {
+        final String json = "{\"reportContent\":[{\"fileName\":\"version.json\"},{\"fileContent\":" + VERSION_REPORT_JSON + "}]}";
+
+        reportRequestService.readReportContent(createReader(json), REPORT_CONTENT_URL);
+    }
+
+    @Test(expected = HubIntegrationException.class)
+    public void testEmptyReportContentIsReported() throws IOException, HubIntegrationException {
+        reportRequestService.readNoticesReportContent(createReader("{\"reportContent\":[]}"), REPORT_CONTENT_URL);
+    }
+
+    private JsonReader createReader(final String json) {
+        return reportRequestService.createJsonReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
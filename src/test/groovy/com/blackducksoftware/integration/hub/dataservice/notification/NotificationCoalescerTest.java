@@ -0,0 +1,108 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.model.view.NotificationView;
+import com.blackducksoftware.integration.hub.model.view.RuleViolationNotificationView;
+import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
+import com.blackducksoftware.integration.hub.model.view.components.ComponentVersionStatus;
+import com.blackducksoftware.integration.hub.model.view.components.RuleViolationNotificationContent;
+import com.blackducksoftware.integration.hub.model.view.components.VulnerabilityNotificationContent;
+import com.blackducksoftware.integration.hub.model.view.components.VulnerabilitySourceQualifiedId;
+
+public class NotificationCoalescerTest {
+    private static final long MINUTE = 60 * 1000L;
+
+    @Test
+    public void testLatestOfTheSameNotificationsIsKept() {
+        final NotificationView first = createRuleViolation(0, "version1", "rule2", "rule1");
+        final NotificationView second = createRuleViolation(2 * MINUTE, "version1", "rule1", "rule2");
+        final NotificationView otherVersion = createRuleViolation(MINUTE, "version2", "rule1", "rule2");
+        final NotificationView third = createRuleViolation(4 * MINUTE, "version1", "rule1", "rule2");
+
+        final List<NotificationView> kept = new NotificationCoalescer(5 * MINUTE).coalesce(Arrays.asList(first, second, otherVersion, third));
+        assertEquals(Arrays.asList(otherVersion, third), kept);
+    }
+
+    @Test
+    public void testNotificationsOutsideTheWindowAreKept() {
+        final NotificationView first = createRuleViolation(0, "version1", "rule1");
+        final NotificationView second = createRuleViolation(3 * MINUTE, "version1", "rule1");
+        final NotificationView third = createRuleViolation(6 * MINUTE, "version1", "rule1");
+
+        final List<NotificationView> kept = new NotificationCoalescer(5 * MINUTE).coalesce(Arrays.asList(third, first, second));
+        assertEquals(Arrays.asList(third, second), kept);
+    }
+
+    @Test
+    public void testDifferentVulnerabilitiesAreKept() {
+        final NotificationView first = createVulnerability(0, "CVE-1");
+        final NotificationView second = createVulnerability(MINUTE, "CVE-2");
+        final NotificationView third = createVulnerability(2 * MINUTE, "CVE-2");
+        final NotificationView unknownType = new NotificationView();
+        unknownType.createdAt = new Date(0);
+
+        final List<NotificationView> kept = new NotificationCoalescer(5 * MINUTE).coalesce(Arrays.asList(first, second, third, unknownType));
+        assertEquals(3, kept.size());
+        assertSame(first, kept.get(0));
+        assertSame(third, kept.get(1));
+        assertSame(unknownType, kept.get(2));
+    }
+
+    private NotificationView createRuleViolation(final long createdAt, final String projectVersion, final String... rules) {
+        final ComponentVersionStatus componentVersionStatus = new ComponentVersionStatus();
+        componentVersionStatus.componentVersionLink = "http://hub/api/components/1/versions/1";
+        componentVersionStatus.policies = Arrays.asList(rules);
+        final RuleViolationNotificationView ruleViolation = new RuleViolationNotificationView();
+        ruleViolation.createdAt = new Date(createdAt);
+        ruleViolation.content = new RuleViolationNotificationContent();
+        ruleViolation.content.projectVersionLink = "http://hub/api/projects/1/versions/" + projectVersion;
+        ruleViolation.content.componentVersionStatuses = Arrays.asList(componentVersionStatus);
+        return ruleViolation;
+    }
+
+    private NotificationView createVulnerability(final long createdAt, final String vulnerabilityId) {
+        final VulnerabilitySourceQualifiedId id = new VulnerabilitySourceQualifiedId();
+        id.source = "NVD";
+        id.vulnerabilityId = vulnerabilityId;
+        final VulnerabilityNotificationView vulnerability = new VulnerabilityNotificationView();
+        vulnerability.createdAt = new Date(createdAt);
+        vulnerability.content = new VulnerabilityNotificationContent();
+        vulnerability.content.componentVersionLink = "http://hub/api/components/1/versions/1";
+        vulnerability.content.newVulnerabilityCount = 1;
+        vulnerability.content.newVulnerabilityIds = new ArrayList<>(Arrays.asList(id));
+        return vulnerability;
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NotificationCursorStoreTest {
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("hub-notification-cursor").toFile();
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testInitialStartDateWhenNothingIsSaved() throws IOException {
+        final NotificationCursorStore cursorStore = new NotificationCursorStore(new File(directory, "cursor.properties"));
+        final NotificationCursor cursor = cursorStore.load(new Date(1000L));
+        assertEquals(new Date(1000L), cursor.getLastCreatedAt());
+        assertEquals(Collections.emptySet(), cursor.getNotificationIds());
+    }
+
+    @Test
+    public void testSavedCursorSurvivesRestart() throws IOException {
+        final File cursorFile = new File(directory, "polling/cursor.properties");
+        new NotificationCursorStore(cursorFile).save(new NotificationCursor(new Date(5000L), Arrays.asList("http://hub/api/notifications/1", "http://hub/api/notifications/2")));
+
+        final NotificationCursor cursor = new NotificationCursorStore(cursorFile).load(new Date(1000L));
+        assertEquals(new Date(5000L), cursor.getLastCreatedAt());
+        assertEquals(2, cursor.getNotificationIds().size());
+        assertTrue(cursor.getNotificationIds().contains("http://hub/api/notifications/1"));
+        assertTrue(cursor.getNotificationIds().contains("http://hub/api/notifications/2"));
+        assertEquals(1, directory.listFiles()[0].listFiles().length);
+    }
+
+    @Test
+    public void testOnlyUnseenNotificationsAreNew() {
+        final NotificationCursor cursor = new NotificationCursor(new Date(5000L), Arrays.asList("seen"));
+        assertFalse(cursor.isNew(new Date(4999L), "older"));
+        assertFalse(cursor.isNew(new Date(5000L), "seen"));
+        assertTrue(cursor.isNew(new Date(5000L), "unseen"));
+        assertTrue(cursor.isNew(new Date(5001L), "seen"));
+    }
+
+}
@@ -0,0 +1,223 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.api.item.MetaService;
+import com.blackducksoftware.integration.hub.api.notification.NotificationRequestService;
+import com.blackducksoftware.integration.hub.api.policy.PolicyRequestService;
+import com.blackducksoftware.integration.hub.api.project.version.ProjectVersionRequestService;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.model.HubResponse;
+import com.blackducksoftware.integration.hub.model.view.NotificationView;
+import com.blackducksoftware.integration.hub.model.view.UserView;
+import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
+import com.blackducksoftware.integration.hub.model.view.components.MetaView;
+import com.blackducksoftware.integration.hub.model.view.components.VulnerabilityNotificationContent;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.HubResponseService;
+import com.blackducksoftware.integration.log.IntBufferedLogger;
+import com.blackducksoftware.integration.log.IntLogger;
+
+public class NotificationDataServiceTest {
+    private static final String FAILING_COMPONENT_VERSION_URL = "http://hub/api/components/2/versions/1";
+
+    private final IntLogger logger = new IntBufferedLogger();
+
+    private final MetaService metaService = new MetaService(logger);
+
+    private final RestConnection restConnection = Mockito.mock(RestConnection.class);
+
+    @Test
+    public void testFailedNotificationsAreFetchedByTheNextPoll() throws IntegrationException {
+        final List<NotificationView> notifications = Arrays.<NotificationView> asList(
+                createVulnerability(1000, "http://hub/api/notifications/1", "http://hub/api/components/1/versions/1"),
+                createVulnerability(2000, "http://hub/api/notifications/2", FAILING_COMPONENT_VERSION_URL),
+                createVulnerability(3000, "http://hub/api/notifications/3", "http://hub/api/components/3/versions/1"));
+        final FailingOnceResponseService responseService = new FailingOnceResponseService(FAILING_COMPONENT_VERSION_URL);
+        final NotificationDataService notificationDataService = createNotificationDataService(responseService, notifications);
+
+        final NotificationPollResults firstResults = notificationDataService.getNotificationsSince(new NotificationCursor(new Date(0)));
+        assertEquals(2, firstResults.getNotificationContentItems().size());
+        assertEquals(1, firstResults.getExceptions().size());
+        assertEquals(new Date(2000), firstResults.getCursor().getLastCreatedAt());
+        assertEquals(Collections.emptySet(), firstResults.getCursor().getNotificationIds());
+
+        final NotificationPollResults secondResults = notificationDataService.getNotificationsSince(firstResults.getCursor());
+        assertEquals(2, secondResults.getNotificationContentItems().size());
+        assertEquals(0, secondResults.getExceptions().size());
+        assertEquals(new Date(2000), secondResults.getNotificationContentItems().first().getCreatedAt());
+        assertEquals(new Date(3000), secondResults.getCursor().getLastCreatedAt());
+        assertEquals(Collections.singleton("http://hub/api/notifications/3"), secondResults.getCursor().getNotificationIds());
+        assertEquals(2, responseService.getRequestCount(FAILING_COMPONENT_VERSION_URL));
+
+        final NotificationPollResults thirdResults = notificationDataService.getNotificationsSince(secondResults.getCursor());
+        assertEquals(0, thirdResults.getNotificationContentItems().size());
+        assertEquals(secondResults.getCursor().getLastCreatedAt(), thirdResults.getCursor().getLastCreatedAt());
+    }
+
+    @Test
+    public void testCursorAdvancesPastNotificationsThatDidNotFail() throws IntegrationException {
+        final List<NotificationView> notifications = Arrays.<NotificationView> asList(
+                createVulnerability(1000, "http://hub/api/notifications/1", "http://hub/api/components/1/versions/1"),
+                createVulnerability(2000, "http://hub/api/notifications/2", "http://hub/api/components/4/versions/1"),
+                createVulnerability(2000, "http://hub/api/notifications/3", "http://hub/api/components/3/versions/1"));
+        final FailingOnceResponseService responseService = new FailingOnceResponseService(FAILING_COMPONENT_VERSION_URL);
+        final NotificationDataService notificationDataService = createNotificationDataService(responseService, notifications);
+
+        final NotificationPollResults results = notificationDataService.getNotificationsSince(new NotificationCursor(new Date(0)));
+        assertEquals(3, results.getNotificationContentItems().size());
+        assertEquals(0, results.getExceptions().size());
+        assertEquals(new Date(2000), results.getCursor().getLastCreatedAt());
+        assertEquals(2, results.getCursor().getNotificationIds().size());
+    }
+
+    @Test
+    public void testNotificationOfSeveralUsersIsTransformedOnce() throws IntegrationException {
+        final UserView firstUser = new UserView();
+        final UserView secondUser = new UserView();
+        final Map<UserView, List<NotificationView>> userNotifications = new HashMap<>();
+        userNotifications.put(firstUser, Arrays.<NotificationView> asList(
+                createVulnerability(1000, "http://hub/api/users/1/notifications/1", "http://hub/api/components/1/versions/1")));
+        userNotifications.put(secondUser, Arrays.<NotificationView> asList(
+                createVulnerability(1000, "http://hub/api/users/2/notifications/1", "http://hub/api/components/1/versions/1"),
+                createVulnerability(1000, "http://hub/api/users/2/notifications/2", "http://hub/api/components/3/versions/1")));
+        final FailingOnceResponseService responseService = new FailingOnceResponseService(FAILING_COMPONENT_VERSION_URL);
+        final NotificationRequestService notificationRequestService = new NotificationRequestService(logger, restConnection, metaService) {
+            @Override
+            public List<NotificationView> getUserNotifications(final Date startDate, final Date endDate, final UserView user) throws IntegrationException {
+                return userNotifications.get(user);
+            }
+        };
+        final NotificationDataService notificationDataService = new NotificationDataService(logger, responseService, notificationRequestService,
+                new ProjectVersionRequestService(restConnection, metaService), new PolicyRequestService(restConnection), metaService);
+
+        final Map<UserView, NotificationResults> userResults = notificationDataService.getUserNotifications(new Date(0), new Date(2000),
+                Arrays.asList(firstUser, secondUser));
+        assertEquals(1, userResults.get(firstUser).getNotificationContentItems().size());
+        assertEquals(2, userResults.get(secondUser).getNotificationContentItems().size());
+        // two distinct notifications, each looking up its component version once
+        assertEquals(2, userResults.get(firstUser).getResolutionStatistics().getLookupCount());
+    }
+
+    @Test
+    public void testUserFetchFailureIsReportedUnwrapped() throws IntegrationException {
+        final UserView firstUser = new UserView();
+        final UserView secondUser = new UserView();
+        final HubIntegrationException fetchFailure = new HubIntegrationException("The Hub is unavailable");
+        final NotificationRequestService notificationRequestService = new NotificationRequestService(logger, restConnection, metaService) {
+            @Override
+            public List<NotificationView> getUserNotifications(final Date startDate, final Date endDate, final UserView user) throws IntegrationException {
+                if (user == secondUser) {
+                    throw fetchFailure;
+                }
+                return Arrays.<NotificationView> asList(
+                        createVulnerability(1000, "http://hub/api/users/1/notifications/1", "http://hub/api/components/1/versions/1"));
+            }
+        };
+        final FailingOnceResponseService responseService = new FailingOnceResponseService(FAILING_COMPONENT_VERSION_URL);
+        final NotificationDataService notificationDataService = new NotificationDataService(logger, responseService, notificationRequestService,
+                new ProjectVersionRequestService(restConnection, metaService), new PolicyRequestService(restConnection), metaService);
+
+        final Map<UserView, NotificationResults> userResults = notificationDataService.getUserNotifications(new Date(0), new Date(2000),
+                Arrays.asList(firstUser, secondUser));
+        assertEquals(1, userResults.get(firstUser).getNotificationContentItems().size());
+        assertEquals(0, userResults.get(secondUser).getNotificationContentItems().size());
+        assertSame(fetchFailure, userResults.get(secondUser).getExceptions().get(0));
+    }
+
+    private NotificationDataService createNotificationDataService(final HubResponseService responseService, final List<NotificationView> notifications) {
+        final NotificationRequestService notificationRequestService = new NotificationRequestService(logger, restConnection, metaService) {
+            @Override
+            public List<NotificationView> getAllNotifications(final Date startDate, final Date endDate) throws IntegrationException {
+                final List<NotificationView> fetched = new ArrayList<>();
+                for (final NotificationView notification : notifications) {
+                    if (!notification.createdAt.before(startDate) && !notification.createdAt.after(endDate)) {
+                        fetched.add(notification);
+                    }
+                }
+                return fetched;
+            }
+        };
+        return new NotificationDataService(logger, responseService, notificationRequestService, new ProjectVersionRequestService(restConnection, metaService),
+                new PolicyRequestService(restConnection), metaService);
+    }
+
+    private VulnerabilityNotificationView createVulnerability(final long createdAt, final String href, final String componentVersionUrl) {
+        final VulnerabilityNotificationView notification = new VulnerabilityNotificationView();
+        notification.createdAt = new Date(createdAt);
+        notification.meta = new MetaView();
+        notification.meta.href = href;
+        notification.content = new VulnerabilityNotificationContent();
+        notification.content.componentName = componentVersionUrl;
+        notification.content.componentVersionLink = componentVersionUrl;
+        return notification;
+    }
+
+    private class FailingOnceResponseService extends HubResponseService {
+        private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+        private final String failingUrl;
+
+        public FailingOnceResponseService(final String failingUrl) {
+            super(restConnection);
+            this.failingUrl = failingUrl;
+        }
+
+        public int getRequestCount(final String url) {
+            final AtomicInteger requestCount = requestCounts.get(url);
+            return requestCount == null ? 0 : requestCount.get();
+        }
+
+        @Override
+        public <T extends HubResponse> T getItem(final String url, final Class<T> clazz) throws IntegrationException {
+            requestCounts.putIfAbsent(url, new AtomicInteger());
+            if (requestCounts.get(url).incrementAndGet() == 1 && url.equals(failingUrl)) {
+                throw new HubIntegrationException("The Hub is unavailable");
+            }
+            try {
+                return clazz.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new HubIntegrationException(e);
+            }
+        }
+    }
+
+}
@@ -25,7 +25,12 @@ package com.blackducksoftware.integration.hub.dataservice.notification.model;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -126,4 +131,23 @@ public class NotificationContentItemTest {
 
         assertEquals(-1, notif1.compareTo(notif2));
     }
+
+    @Test
+    public void testSameTimeItemsAreOrderedBySortKey() {
+        final Date createdAt = new Date();
+        final SortedSet<NotificationContentItem> notifications = new TreeSet<>();
+        for (final String projectName : Arrays.asList("projectB", "projectA", "projectB", "projectC")) {
+            final ProjectVersionModel projectVersion = new ProjectVersionModel();
+            projectVersion.setProjectName(projectName);
+            projectVersion.setProjectVersionName("1.0");
+            notifications.add(new NotificationContentItem(createdAt, projectVersion, "comp1", null, null, ""));
+        }
+        notifications.add(new NotificationContentItem(new Date(createdAt.getTime() - 1), notifications.last().getProjectVersion(), "comp1", null, null, ""));
+
+        final List<String> sortKeys = new ArrayList<>();
+        for (final NotificationContentItem notification : notifications) {
+            sortKeys.add(notification.getSortKey());
+        }
+        assertEquals(Arrays.asList("projectC1.0comp1", "projectA1.0comp1", "projectB1.0comp1", "projectC1.0comp1"), sortKeys);
+    }
 }
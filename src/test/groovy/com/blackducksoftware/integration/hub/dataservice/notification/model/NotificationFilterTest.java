@@ -0,0 +1,104 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.model.enumeration.NotificationEnum;
+import com.blackducksoftware.integration.hub.model.view.RuleViolationNotificationView;
+import com.blackducksoftware.integration.hub.model.view.VulnerabilityNotificationView;
+import com.blackducksoftware.integration.hub.model.view.components.AffectedProjectVersion;
+import com.blackducksoftware.integration.hub.model.view.components.ComponentVersionStatus;
+import com.blackducksoftware.integration.hub.model.view.components.RuleViolationNotificationContent;
+import com.blackducksoftware.integration.hub.model.view.components.VulnerabilityNotificationContent;
+
+public class NotificationFilterTest {
+    @Test
+    public void testEverythingIsAcceptedByDefault() {
+        final NotificationFilter filter = new NotificationFilter(null);
+        assertTrue(filter.accepts(createRuleViolation("project", "1.0", "component", "rule1")));
+        assertTrue(filter.accepts(createVulnerability("project", "1.0", "component")));
+    }
+
+    @Test
+    public void testTypesToInclude() {
+        final NotificationFilter filter = new NotificationFilter(null);
+        filter.setTypesToInclude(Arrays.asList(NotificationEnum.VULNERABILITY));
+        assertFalse(filter.accepts(createRuleViolation("project", "1.0", "component", "rule1")));
+        assertTrue(filter.accepts(createVulnerability("project", "1.0", "component")));
+    }
+
+    @Test
+    public void testProjectVersionsToInclude() {
+        final NotificationFilter filter = new NotificationFilter(null);
+        filter.setProjectNamesToInclude(Arrays.asList("project", "other"));
+        filter.addProjectVersionToInclude("project", "1.0");
+        assertTrue(filter.accepts(createRuleViolation("project", "1.0", "component", "rule1")));
+        assertFalse(filter.accepts(createRuleViolation("project", "2.0", "component", "rule1")));
+        assertFalse(filter.accepts(createRuleViolation("unrouted", "1.0", "component", "rule1")));
+        assertTrue(filter.accepts(createVulnerability("project", "1.0", "component")));
+        assertFalse(filter.accepts(createVulnerability("other", "1.0", "component")));
+    }
+
+    @Test
+    public void testComponentsAndRulesToInclude() {
+        final NotificationFilter filter = new NotificationFilter(Arrays.asList("rule1"));
+        filter.setComponentNamesToInclude(Collections.singleton("component"));
+        assertTrue(filter.accepts(createRuleViolation("project", "1.0", "component", "rule2", "rule1")));
+        assertFalse(filter.accepts(createRuleViolation("project", "1.0", "component", "rule2")));
+        assertFalse(filter.accepts(createRuleViolation("project", "1.0", "other", "rule1")));
+        assertFalse(filter.accepts(createVulnerability("project", "1.0", "other")));
+    }
+
+    private RuleViolationNotificationView createRuleViolation(final String projectName, final String projectVersionName, final String componentName,
+            final String... rules) {
+        final ComponentVersionStatus componentVersionStatus = new ComponentVersionStatus();
+        componentVersionStatus.componentName = componentName;
+        componentVersionStatus.policies = Arrays.asList(rules);
+        final RuleViolationNotificationView ruleViolation = new RuleViolationNotificationView();
+        ruleViolation.content = new RuleViolationNotificationContent();
+        ruleViolation.content.projectName = projectName;
+        ruleViolation.content.projectVersionName = projectVersionName;
+        ruleViolation.content.componentVersionStatuses = Arrays.asList(componentVersionStatus);
+        return ruleViolation;
+    }
+
+    private VulnerabilityNotificationView createVulnerability(final String projectName, final String projectVersionName, final String componentName) {
+        final AffectedProjectVersion affectedProjectVersion = new AffectedProjectVersion();
+        affectedProjectVersion.projectName = projectName;
+        affectedProjectVersion.projectVersionName = projectVersionName;
+        final VulnerabilityNotificationView vulnerability = new VulnerabilityNotificationView();
+        vulnerability.content = new VulnerabilityNotificationContent();
+        vulnerability.content.componentName = componentName;
+        vulnerability.content.affectedProjectVersions = Arrays.asList(affectedProjectVersion);
+        return vulnerability;
+    }
+
+}
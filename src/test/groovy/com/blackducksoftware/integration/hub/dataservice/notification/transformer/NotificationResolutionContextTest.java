@@ -0,0 +1,155 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.notification.transformer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.model.HubResponse;
+import com.blackducksoftware.integration.hub.model.view.PolicyRuleView;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.HubResponseService;
+
+public class NotificationResolutionContextTest {
+    @Test
+    public void testEachUrlIsRequestedOncePerContext() throws Exception {
+        final CountingResponseService responseService = new CountingResponseService(0);
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        final List<Thread> threads = new ArrayList<>();
+        for (int index = 0; index < 8; index++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int lookup = 0; lookup < 25; lookup++) {
+                            resolutionContext.getItem(responseService, "http://hub/api/policy-rules/" + (lookup % 5), PolicyRuleView.class);
+                        }
+                    } catch (final IntegrationException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }));
+        }
+        for (final Thread thread : threads) {
+            thread.start();
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(5, responseService.requestCount.get());
+        final NotificationResolutionStatistics statistics = resolutionContext.getStatistics();
+        assertEquals(200, statistics.getLookupCount());
+        assertEquals(5, statistics.getRequestCount());
+        assertEquals(195, statistics.getSavedRequestCount());
+        assertEquals(5, statistics.getResolvedItemCount());
+    }
+
+    @Test
+    public void testViewTypesAreResolvedSeparately() throws IntegrationException {
+        final CountingResponseService responseService = new CountingResponseService(0);
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        final PolicyRuleView rule = resolutionContext.getItem(responseService, "url", PolicyRuleView.class);
+        resolutionContext.getItem(responseService, "url", ProjectVersionView.class);
+        assertSame(rule, resolutionContext.getItem(responseService, "url", PolicyRuleView.class));
+        assertEquals(2, responseService.requestCount.get());
+    }
+
+    @Test
+    public void testFailuresAreNotRemembered() throws IntegrationException {
+        final CountingResponseService responseService = new CountingResponseService(1);
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        try {
+            resolutionContext.getItem(responseService, "url", PolicyRuleView.class);
+            fail("Expected the first request to fail");
+        } catch (final HubIntegrationException e) {
+            // expected
+        }
+        resolutionContext.getItem(responseService, "url", PolicyRuleView.class);
+        assertEquals(2, responseService.requestCount.get());
+        assertEquals(1, resolutionContext.getStatistics().getResolvedItemCount());
+    }
+
+    @Test
+    public void testPrefetchedItemsAreNotRequestedAgain() throws Exception {
+        final CountingResponseService responseService = new CountingResponseService(0);
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        for (int index = 0; index < 20; index++) {
+            resolutionContext.addReference(responseService, "http://hub/api/projects/1/versions/" + (index % 4), ProjectVersionView.class);
+        }
+        resolutionContext.addReference(responseService, null, ProjectVersionView.class);
+        resolutionContext.prefetch(2);
+        assertEquals(4, responseService.requestCount.get());
+
+        for (int index = 0; index < 4; index++) {
+            resolutionContext.getItem(responseService, "http://hub/api/projects/1/versions/" + index, ProjectVersionView.class);
+        }
+        assertEquals(4, responseService.requestCount.get());
+        assertEquals(0, resolutionContext.getStatistics().getSavedRequestCount());
+    }
+
+    @Test
+    public void testReferencesAreResolvedWithoutPrefetch() throws IntegrationException {
+        final CountingResponseService responseService = new CountingResponseService(0);
+        final NotificationResolutionContext resolutionContext = new NotificationResolutionContext();
+        resolutionContext.addReference(responseService, "url", PolicyRuleView.class);
+        resolutionContext.getItem(responseService, "url", PolicyRuleView.class);
+        assertEquals(1, responseService.requestCount.get());
+    }
+
+    private static class CountingResponseService extends HubResponseService {
+        private final AtomicInteger requestCount = new AtomicInteger();
+
+        private final int failureCount;
+
+        public CountingResponseService(final int failureCount) {
+            super(Mockito.mock(RestConnection.class));
+            this.failureCount = failureCount;
+        }
+
+        @Override
+        public <T extends HubResponse> T getItem(final String url, final Class<T> clazz) throws IntegrationException {
+            if (requestCount.incrementAndGet() <= failureCount) {
+                throw new HubIntegrationException("The Hub is unavailable");
+            }
+            try {
+                return clazz.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new HubIntegrationException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,430 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.dataservice.parallel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.dataservice.ItemTransform;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
+import com.blackducksoftware.integration.log.IntBufferedLogger;
+import com.blackducksoftware.integration.log.IntLogger;
+
+public class ParallelResourceProcessorTest {
+    private final IntLogger logger = new IntBufferedLogger();
+
+    @Test
+    public void testPipelinedItemsAreAllTransformed() {
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                return Collections.singletonList("item " + item);
+            }
+        });
+
+        final ParallelResourceProcessorResults<String> results = processor.process(createItems(100).iterator(), 5);
+        assertEquals(100, results.getResults().size());
+        assertTrue(results.getResults().contains("item 99"));
+        assertEquals(0, results.getExceptions().size());
+    }
+
+    @Test
+    public void testPipelinedIteratorWaitsForTheTransforms() throws InterruptedException {
+        final CountDownLatch transformsReleased = new CountDownLatch(1);
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                try {
+                    transformsReleased.await();
+                } catch (final InterruptedException e) {
+                    throw new IntegrationException(e);
+                }
+                return Collections.singletonList("item " + item);
+            }
+        });
+        final AtomicInteger itemsProduced = new AtomicInteger();
+        final Iterator<Integer> items = createItems(100).iterator();
+        final Iterator<Integer> countingIterator = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return items.hasNext();
+            }
+
+            @Override
+            public Integer next() {
+                itemsProduced.incrementAndGet();
+                return items.next();
+            }
+        };
+
+        final Thread processingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                processor.process(countingIterator, 3);
+            }
+        });
+        processingThread.start();
+        Thread.sleep(200);
+        // 3 pending transforms, 3 queued items and the one waiting to be queued
+        assertTrue(itemsProduced.get() <= 7);
+        transformsReleased.countDown();
+        processingThread.join(5000);
+        assertEquals(100, itemsProduced.get());
+    }
+
+    @Test
+    public void testPipelinedIteratorRunsOnAThreadNamedAfterTheExecutor() {
+        try (HubExecutor executor = new HubExecutor("pipeline-test", 2, 10)) {
+            final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger, executor);
+            processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+                @Override
+                public List<String> transform(final Integer item) throws IntegrationException {
+                    return Collections.singletonList("item " + item);
+                }
+            });
+            final AtomicReference<String> producerName = new AtomicReference<>();
+            final Iterator<Integer> items = createItems(10).iterator();
+            final Iterator<Integer> namingIterator = new Iterator<Integer>() {
+                @Override
+                public boolean hasNext() {
+                    producerName.set(Thread.currentThread().getName());
+                    return items.hasNext();
+                }
+
+                @Override
+                public Integer next() {
+                    return items.next();
+                }
+            };
+
+            final ParallelResourceProcessorResults<String> results = processor.process(namingIterator, 2);
+            assertEquals(10, results.getResults().size());
+            assertTrue(producerName.get(), producerName.get().startsWith("pipeline-test-producer-"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPipelinedIteratorFailureIsRethrown() {
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        final Iterator<Integer> failingIterator = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                throw new IllegalStateException("page could not be fetched");
+            }
+
+            @Override
+            public Integer next() {
+                return null;
+            }
+        };
+        processor.process(failingIterator, 5);
+    }
+
+    @Test
+    public void testAsyncResultsAreReportedAsTheyComplete() throws Exception {
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                if (item == 7) {
+                    throw new IntegrationException("item 7 failed");
+                }
+                return Collections.singletonList("item " + item);
+            }
+        });
+        final List<String> processed = new CopyOnWriteArrayList<>();
+        final List<Integer> failed = new CopyOnWriteArrayList<>();
+
+        final ParallelProcessingHandle<String> handle = processor.processAsync(createItems(50), new ParallelResourceListener<String, Integer>() {
+            @Override
+            public void itemProcessed(final Integer item, final List<String> results) {
+                processed.addAll(results);
+            }
+
+            @Override
+            public void itemFailed(final Integer item, final Exception exception) {
+                failed.add(item);
+            }
+        });
+        final ParallelResourceProcessorResults<String> results = handle.getFuture().get(10, TimeUnit.SECONDS);
+        assertEquals(49, results.getResults().size());
+        assertEquals(1, results.getExceptions().size());
+        assertEquals(49, processed.size());
+        assertEquals(Collections.singletonList(7), failed);
+        assertEquals(50, handle.getCompletedCount());
+    }
+
+    @Test
+    public void testAsyncItemTimeout() throws Exception {
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                if (item == 0) {
+                    try {
+                        Thread.sleep(10000);
+                    } catch (final InterruptedException e) {
+                        throw new IntegrationException(e);
+                    }
+                }
+                return Collections.singletonList("item " + item);
+            }
+        });
+
+        final ParallelProcessingHandle<String> handle = processor.processAsync(createItems(3), 100, TimeUnit.MILLISECONDS, null);
+        final ParallelResourceProcessorResults<String> results = handle.getFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(2, results.getResults().size());
+        assertEquals(1, results.getExceptions().size());
+        assertTrue(results.getExceptions().get(0) instanceof TimeoutException);
+    }
+
+    @Test
+    public void testAsyncBatchCanBeCancelled() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger interrupted = new AtomicInteger();
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                started.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (final InterruptedException e) {
+                    interrupted.incrementAndGet();
+                }
+                return Collections.singletonList("item " + item);
+            }
+        });
+
+        final ParallelProcessingHandle<String> handle = processor.processAsync(createItems(2), null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        handle.cancel();
+        assertTrue(handle.isCancelled());
+        assertTrue(handle.getFuture().isCancelled());
+        Thread.sleep(200);
+        assertTrue(interrupted.get() > 0);
+    }
+
+    @Test
+    public void testAsyncItemsCancelledByTheExecutorAreReported() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger, executorService, null);
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                started.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (final InterruptedException e) {
+                    throw new IntegrationException(e);
+                }
+                return Collections.singletonList("item " + item);
+            }
+        });
+
+        final ParallelProcessingHandle<String> handle = processor.processAsync(createItems(3), null);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (final Runnable queued : executorService.shutdownNow()) {
+            ((Future<?>) queued).cancel(false);
+        }
+        final ParallelResourceProcessorResults<String> results = handle.getFuture().get(5, TimeUnit.SECONDS);
+        assertEquals(0, results.getResults().size());
+        assertEquals(3, results.getExceptions().size());
+        assertEquals(3, handle.getCompletedCount());
+    }
+
+    @Test
+    public void testTimedOutItemsAreNotRetried() throws Exception {
+        final AtomicInteger attempts = new AtomicInteger();
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.setRetryPolicy(new RetryPolicy(10, 1, 1, 1.0, 0.0));
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                attempts.incrementAndGet();
+                try {
+                    Thread.sleep(300);
+                } catch (final InterruptedException e) {
+                    // swallows the interrupt of the timeout, as some clients do
+                }
+                throw new IntegrationRestException(503, "Service Unavailable", "");
+            }
+        });
+
+        final ParallelProcessingHandle<String> handle = processor.processAsync(createItems(1), 100, TimeUnit.MILLISECONDS, null);
+        final ParallelResourceProcessorResults<String> results = handle.getFuture().get(5, TimeUnit.SECONDS);
+        assertTrue(results.getExceptions().get(0) instanceof TimeoutException);
+        Thread.sleep(700);
+        assertEquals(1, attempts.get());
+        assertEquals(1, processor.getTransformCounters(Integer.class).getFailureCount());
+    }
+
+    @Test
+    public void testRateLimiterBoundsTheTransformsInFlight() {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        try (HubExecutor executor = new HubExecutor("test", 8, 100)) {
+            final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger, executor);
+            processor.setRateLimiter(new HubRateLimiter(0, 0, 2, 1, 2, 0.5, 2.0));
+            processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+                @Override
+                public List<String> transform(final Integer item) throws IntegrationException {
+                    final int nowRunning = running.incrementAndGet();
+                    int max = maxRunning.get();
+                    while (nowRunning > max && !maxRunning.compareAndSet(max, nowRunning)) {
+                        max = maxRunning.get();
+                    }
+                    try {
+                        Thread.sleep(20);
+                    } catch (final InterruptedException e) {
+                        throw new IntegrationException(e);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    return Collections.singletonList("item " + item);
+                }
+            });
+
+            final ParallelResourceProcessorResults<String> results = processor.process(createItems(20));
+            assertEquals(20, results.getResults().size());
+            assertTrue(maxRunning.get() <= 2);
+        }
+    }
+
+    @Test
+    public void testRetryableFailuresAreRetried() {
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.setRetryPolicy(new RetryPolicy(3, 1, 10, 2.0, 0.0));
+        final AtomicInteger attempts = new AtomicInteger();
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                if (attempts.incrementAndGet() < 3) {
+                    throw new IntegrationRestException(503, "Service Unavailable", "");
+                }
+                return Collections.singletonList("item " + item);
+            }
+        });
+
+        final ParallelResourceProcessorResults<String> results = processor.process(createItems(1));
+        assertEquals(Collections.singletonList("item 0"), results.getResults());
+        assertEquals(0, results.getExceptions().size());
+        assertEquals(null, processor.getDeadLetterQueue());
+        final TransformCounters counters = processor.getTransformCounters(Integer.class);
+        assertEquals(1, counters.getSuccessCount());
+        assertEquals(0, counters.getFailureCount());
+        assertEquals(2, counters.getRetryCount());
+    }
+
+    @Test
+    public void testFailedItemsAreDeadLettered() {
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.setRetryPolicy(new RetryPolicy(2, 1, 10, 2.0, 0.0));
+        processor.setDeadLetterQueue(new DeadLetterQueue<Integer>());
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                if (item == 1) {
+                    throw new IntegrationRestException(429, "Too Many Requests", "");
+                }
+                if (item == 2) {
+                    throw new IntegrationRestException(404, "Not Found", "");
+                }
+                return Collections.singletonList("item " + item);
+            }
+        });
+
+        final ParallelResourceProcessorResults<String> results = processor.process(createItems(4));
+        assertEquals(2, results.getResults().size());
+        assertEquals(2, results.getExceptions().size());
+        final List<DeadLetter<Integer>> deadLetters = processor.getDeadLetterQueue().drain();
+        assertEquals(2, deadLetters.size());
+        for (final DeadLetter<Integer> deadLetter : deadLetters) {
+            if (deadLetter.getItem() == 1) {
+                assertEquals(2, deadLetter.getAttempts());
+            } else {
+                assertEquals(2, deadLetter.getItem().intValue());
+                assertEquals(1, deadLetter.getAttempts());
+            }
+        }
+        assertTrue(processor.getDeadLetterQueue().isEmpty());
+        final TransformCounters counters = processor.getTransformCounters(Integer.class);
+        assertEquals(2, counters.getSuccessCount());
+        assertEquals(2, counters.getFailureCount());
+        assertEquals(1, counters.getRetryCount());
+    }
+
+    @Test
+    public void testDeadLetterQueueDropsTheOldest() {
+        final ParallelResourceProcessor<String, Integer> processor = new ParallelResourceProcessor<>(logger);
+        processor.setDeadLetterQueue(new DeadLetterQueue<Integer>(3));
+        processor.addTransform(Integer.class, new ItemTransform<List<String>, Integer>() {
+            @Override
+            public List<String> transform(final Integer item) throws IntegrationException {
+                throw new IntegrationException("item " + item + " failed");
+            }
+        });
+
+        for (final Integer item : createItems(5)) {
+            processor.process(Collections.singletonList(item));
+        }
+        final DeadLetterQueue<Integer> deadLetterQueue = processor.getDeadLetterQueue();
+        assertEquals(3, deadLetterQueue.size());
+        assertEquals(2, deadLetterQueue.getDroppedCount());
+        assertEquals(Arrays.asList(2, 3, 4), deadLetterQueue.drainItems());
+    }
+
+    private List<Integer> createItems(final int count) {
+        final List<Integer> items = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            items.add(index);
+        }
+        return items;
+    }
+
+}
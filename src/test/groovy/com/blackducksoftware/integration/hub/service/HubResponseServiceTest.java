@@ -0,0 +1,67 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.model.view.ProjectView;
+import com.blackducksoftware.integration.hub.notification.processor.MockRestConnection;
+import com.blackducksoftware.integration.hub.service.paging.HubPage;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+public class HubResponseServiceTest {
+    private static final String PAGE_JSON = "{\"totalCount\":2,\"items\":[{\"name\":\"first\"},{\"name\":\"second\"}],\"appliedFilters\":[]}";
+
+    @Test
+    public void testPageItemsAreBoundWithoutTheirJsonByDefault() throws IOException {
+        final HubResponseService hubResponseService = new HubResponseService(new MockRestConnection());
+
+        final HubPage<ProjectView> page = hubResponseService.readPage(new JsonReader(new StringReader(PAGE_JSON)), ProjectView.class);
+        assertEquals(2, page.getTotalCount());
+        assertEquals(2, page.getItems().size());
+        assertEquals("first", page.getItems().get(0).name);
+        assertEquals("second", page.getItems().get(1).name);
+        assertNull(page.getItems().get(0).json);
+    }
+
+    @Test
+    public void testPageItemsKeepTheirJsonWhenRetained() throws IOException {
+        final HubResponseService hubResponseService = new HubResponseService(new MockRestConnection());
+        hubResponseService.setRetainItemJson(true);
+
+        final HubPage<ProjectView> page = hubResponseService.readPage(new JsonReader(new StringReader(PAGE_JSON)), ProjectView.class);
+        assertEquals(2, page.getItems().size());
+        assertEquals("first", page.getItems().get(0).name);
+        final JsonParser jsonParser = new JsonParser();
+        assertEquals(jsonParser.parse("{\"name\":\"second\"}"), jsonParser.parse(page.getItems().get(1).json));
+    }
+
+}
@@ -0,0 +1,163 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.service.cache.DiskResponseStore.StoredResponse;
+
+public class DiskResponseStoreTest {
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("hub-response-store").toFile();
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testStoredResponseSurvivesRestart() throws IOException {
+        final DiskResponseStore responseStore = new DiskResponseStore(directory);
+        responseStore.put("http://hub/api/projects/1", "\"etag-1\"", "Mon, 01 May 2017 10:00:00 GMT", createBody("{\"name\":\"one\"}"));
+
+        final DiskResponseStore restartedStore = new DiskResponseStore(directory);
+        final StoredResponse storedResponse = restartedStore.get("http://hub/api/projects/1");
+        assertNotNull(storedResponse);
+        assertEquals("\"etag-1\"", storedResponse.getEtag());
+        assertEquals("Mon, 01 May 2017 10:00:00 GMT", storedResponse.getLastModified());
+        assertEquals("{\"name\":\"one\"}", readBody(storedResponse));
+        assertEquals(responseStore.getStoredBytes(), restartedStore.getStoredBytes());
+        assertNull(restartedStore.get("http://hub/api/projects/2"));
+    }
+
+    @Test
+    public void testPutReplacesTheStoredResponse() throws IOException {
+        final DiskResponseStore responseStore = new DiskResponseStore(directory);
+        responseStore.put("url", "\"etag-1\"", null, createBody("{\"version\":1}"));
+        responseStore.put("url", "\"etag-2\"", null, createBody("{\"version\":22}"));
+
+        final StoredResponse storedResponse = responseStore.get("url");
+        assertEquals("\"etag-2\"", storedResponse.getEtag());
+        assertNull(storedResponse.getLastModified());
+        assertEquals("{\"version\":22}", readBody(storedResponse));
+        assertEquals(14, responseStore.getStoredBytes());
+    }
+
+    @Test
+    public void testSizeCapDeletesLeastRecentlyUsed() throws IOException {
+        final DiskResponseStore responseStore = new DiskResponseStore(directory, 25);
+        final StoredResponse first = responseStore.put("first", "a", null, createBody("0123456789"));
+        final StoredResponse second = responseStore.put("second", "b", null, createBody("9876543210"));
+        first.getFile().setLastModified(1000L);
+        second.getFile().setLastModified(2000L);
+        responseStore.touch(first);
+
+        responseStore.put("third", "c", null, createBody("0123456789"));
+
+        assertNotNull(responseStore.get("first"));
+        assertNull(responseStore.get("second"));
+        assertNotNull(responseStore.get("third"));
+        assertEquals(20, responseStore.getStoredBytes());
+    }
+
+    @Test
+    public void testRemove() throws IOException {
+        final DiskResponseStore responseStore = new DiskResponseStore(directory);
+        responseStore.put("url", "a", null, createBody("{}"));
+        responseStore.remove("url");
+
+        assertNull(responseStore.get("url"));
+        assertEquals(0, responseStore.getStoredBytes());
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testRemovedResponseCannotBeOpened() throws IOException {
+        final DiskResponseStore responseStore = new DiskResponseStore(directory);
+        responseStore.put("url", "a", null, createBody("{}"));
+        final StoredResponse storedResponse = responseStore.get("url");
+        responseStore.remove("url");
+
+        storedResponse.openReader();
+    }
+
+    @Test
+    public void testConcurrentPutsAlwaysLeaveAWholeResponse() throws Exception {
+        final DiskResponseStore responseStore = new DiskResponseStore(directory);
+        responseStore.put("url", "0", null, createBody("{\"version\":0}"));
+        final Thread writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int version = 1; version <= 200; version++) {
+                        responseStore.put("url", Integer.toString(version), null, createBody("{\"version\":" + version + "}"));
+                    }
+                } catch (final IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        writer.start();
+        while (writer.isAlive()) {
+            final StoredResponse storedResponse = responseStore.get("url");
+            assertNotNull(storedResponse);
+            final String body = readBody(storedResponse);
+            assertTrue(body, body.matches("\\{\"version\":\\d+\\}"));
+        }
+        writer.join();
+        assertEquals("{\"version\":200}", readBody(responseStore.get("url")));
+        assertEquals(15, responseStore.getStoredBytes());
+    }
+
+    private ByteArrayInputStream createBody(final String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String readBody(final StoredResponse storedResponse) throws IOException {
+        try (Reader reader = storedResponse.openReader()) {
+            return IOUtils.toString(reader);
+        }
+    }
+
+}
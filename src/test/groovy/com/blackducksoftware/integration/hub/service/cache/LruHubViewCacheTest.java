@@ -0,0 +1,135 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.model.view.ComponentVersionView;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
+import com.blackducksoftware.integration.hub.model.view.ScanSummaryView;
+
+public class LruHubViewCacheTest {
+    @Test
+    public void testOnlyTypesWithATimeToLiveAreCached() {
+        final TestClockViewCache viewCache = new TestClockViewCache(10, LruHubViewCache.DEFAULT_MAX_BYTES);
+        viewCache.setTimeToLive(ProjectVersionView.class, 1, TimeUnit.MINUTES);
+
+        assertTrue(viewCache.isCacheable(ProjectVersionView.class));
+        assertFalse(viewCache.isCacheable(ScanSummaryView.class));
+
+        viewCache.put("summary", ScanSummaryView.class, new ScanSummaryView());
+        assertNull(viewCache.get("summary", ScanSummaryView.class));
+        assertEquals(0, viewCache.getStatistics().getSize());
+    }
+
+    @Test
+    public void testEntriesExpire() {
+        final TestClockViewCache viewCache = new TestClockViewCache(10, LruHubViewCache.DEFAULT_MAX_BYTES);
+        viewCache.setTimeToLive(ProjectVersionView.class, 1, TimeUnit.MINUTES);
+        final ProjectVersionView version = new ProjectVersionView();
+        viewCache.put("version", ProjectVersionView.class, version);
+
+        viewCache.nanos += TimeUnit.SECONDS.toNanos(59);
+        assertSame(version, viewCache.get("version", ProjectVersionView.class));
+
+        viewCache.nanos += TimeUnit.SECONDS.toNanos(1);
+        assertNull(viewCache.get("version", ProjectVersionView.class));
+
+        final HubViewCacheStatistics statistics = viewCache.getStatistics();
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(1, statistics.getEvictionCount());
+        assertEquals(0, statistics.getSize());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        final TestClockViewCache viewCache = new TestClockViewCache(2, LruHubViewCache.DEFAULT_MAX_BYTES);
+        viewCache.setTimeToLive(ProjectVersionView.class, 1, TimeUnit.MINUTES);
+        viewCache.put("first", ProjectVersionView.class, new ProjectVersionView());
+        viewCache.put("second", ProjectVersionView.class, new ProjectVersionView());
+        viewCache.get("first", ProjectVersionView.class);
+        viewCache.put("third", ProjectVersionView.class, new ProjectVersionView());
+
+        assertNull(viewCache.get("second", ProjectVersionView.class));
+        assertTrue(viewCache.get("first", ProjectVersionView.class) != null);
+        assertTrue(viewCache.get("third", ProjectVersionView.class) != null);
+        assertEquals(1, viewCache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    public void testEstimatedBytesBoundEvicts() {
+        final TestClockViewCache viewCache = new TestClockViewCache(100, 10000);
+        viewCache.setTimeToLive(ProjectVersionView.class, 1, TimeUnit.MINUTES);
+        for (int index = 0; index < 10; index++) {
+            final ProjectVersionView version = new ProjectVersionView();
+            version.json = "{\"versionName\":\"" + index + "\"}";
+            viewCache.put("version" + index, ProjectVersionView.class, version);
+        }
+
+        final HubViewCacheStatistics statistics = viewCache.getStatistics();
+        assertTrue(statistics.getEstimatedBytes() <= 10000);
+        assertEquals(10 - statistics.getSize(), statistics.getEvictionCount());
+        assertTrue(viewCache.get("version9", ProjectVersionView.class) != null);
+    }
+
+    @Test
+    public void testInvalidateRemovesEveryTypeForTheUrl() {
+        final TestClockViewCache viewCache = new TestClockViewCache(10, LruHubViewCache.DEFAULT_MAX_BYTES);
+        viewCache.setTimeToLive(ProjectVersionView.class, 1, TimeUnit.MINUTES);
+        viewCache.setTimeToLive(ComponentVersionView.class, 1, TimeUnit.MINUTES);
+        viewCache.put("url", ProjectVersionView.class, new ProjectVersionView());
+        viewCache.put("url", ComponentVersionView.class, new ComponentVersionView());
+        viewCache.put("other", ProjectVersionView.class, new ProjectVersionView());
+
+        viewCache.invalidate("url");
+
+        assertNull(viewCache.get("url", ProjectVersionView.class));
+        assertNull(viewCache.get("url", ComponentVersionView.class));
+        assertTrue(viewCache.get("other", ProjectVersionView.class) != null);
+        assertEquals(0, viewCache.getStatistics().getEvictionCount());
+    }
+
+    private static class TestClockViewCache extends LruHubViewCache {
+        private long nanos;
+
+        public TestClockViewCache(final int maxEntries, final long maxBytes) {
+            super(maxEntries, maxBytes);
+        }
+
+        @Override
+        protected long currentTimeNanos() {
+            return nanos;
+        }
+    }
+
+}
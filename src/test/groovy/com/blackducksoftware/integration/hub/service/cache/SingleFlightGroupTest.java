@@ -0,0 +1,124 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.model.view.ProjectVersionView;
+
+public class SingleFlightGroupTest {
+    @Test
+    public void testConcurrentCallersShareOneRequest() throws Exception {
+        final SingleFlightGroup singleFlightGroup = new SingleFlightGroup();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Callable<ProjectVersionView> request = new Callable<ProjectVersionView>() {
+            @Override
+            public ProjectVersionView call() throws Exception {
+                calls.incrementAndGet();
+                release.await();
+                return new ProjectVersionView();
+            }
+        };
+
+        final int callers = 8;
+        final ExecutorService executorService = Executors.newFixedThreadPool(callers);
+        try {
+            final List<Future<ProjectVersionView>> futures = new ArrayList<>();
+            for (int index = 0; index < callers; index++) {
+                futures.add(executorService.submit(new Callable<ProjectVersionView>() {
+                    @Override
+                    public ProjectVersionView call() throws Exception {
+                        return singleFlightGroup.execute("url", ProjectVersionView.class, request);
+                    }
+                }));
+            }
+            while (singleFlightGroup.getSharedCount() < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            final ProjectVersionView first = futures.get(0).get();
+            for (final Future<ProjectVersionView> future : futures) {
+                assertSame(first, future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlightGroup.getRequestCount());
+        assertEquals(0, singleFlightGroup.getInFlightCount());
+    }
+
+    @Test
+    public void testCompletedRequestsAreNotReused() throws Exception {
+        final SingleFlightGroup singleFlightGroup = new SingleFlightGroup();
+        final Callable<ProjectVersionView> request = new Callable<ProjectVersionView>() {
+            @Override
+            public ProjectVersionView call() throws Exception {
+                return new ProjectVersionView();
+            }
+        };
+
+        final ProjectVersionView first = singleFlightGroup.execute("url", ProjectVersionView.class, request);
+        final ProjectVersionView second = singleFlightGroup.execute("url", ProjectVersionView.class, request);
+        assertNotSame(first, second);
+        assertEquals(2, singleFlightGroup.getRequestCount());
+        assertEquals(0, singleFlightGroup.getSharedCount());
+    }
+
+    @Test
+    public void testIntegrationExceptionIsRethrown() {
+        final SingleFlightGroup singleFlightGroup = new SingleFlightGroup();
+        try {
+            singleFlightGroup.execute("url", ProjectVersionView.class, new Callable<ProjectVersionView>() {
+                @Override
+                public ProjectVersionView call() throws Exception {
+                    throw new HubIntegrationException("not found");
+                }
+            });
+            fail("Expected the request failure to be rethrown");
+        } catch (final IntegrationException e) {
+            assertEquals("not found", e.getMessage());
+        }
+        assertEquals(0, singleFlightGroup.getInFlightCount());
+    }
+
+}
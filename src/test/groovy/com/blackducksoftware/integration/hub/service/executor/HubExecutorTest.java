@@ -0,0 +1,187 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class HubExecutorTest {
+    @Test
+    public void testFullQueueRunsOnTheCaller() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try (HubExecutor executor = new HubExecutor("test", 1, 1)) {
+            final Future<?> blocking = executor.getExecutorService().submit(new Runnable() {
+                @Override
+                public void run() {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            started.await(10, TimeUnit.SECONDS);
+            final Future<?> queued = executor.getExecutorService().submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            assertEquals(1, executor.getQueueDepth());
+            assertEquals(1, executor.getActiveCount());
+            assertEquals(1.0, executor.getUtilization(), 0.0);
+
+            final String[] threadName = new String[1];
+            executor.getExecutorService().submit(new Runnable() {
+                @Override
+                public void run() {
+                    threadName[0] = Thread.currentThread().getName();
+                }
+            }).get();
+            assertEquals(Thread.currentThread().getName(), threadName[0]);
+            assertEquals(1, executor.getCallerRunCount());
+
+            release.countDown();
+            blocking.get();
+            queued.get();
+        }
+    }
+
+    @Test
+    public void testThreadsAreNamedDaemons() throws Exception {
+        try (HubExecutor executor = new HubExecutor("test", 2, 10)) {
+            final Thread[] thread = new Thread[1];
+            executor.getExecutorService().submit(new Runnable() {
+                @Override
+                public void run() {
+                    thread[0] = Thread.currentThread();
+                }
+            }).get();
+            assertTrue(thread[0].getName().startsWith("test-"));
+            assertTrue(thread[0].isDaemon());
+        }
+    }
+
+    @Test
+    public void testVirtualThreadsAreLimitedByPermits() throws Exception {
+        if (!HubExecutor.isVirtualThreadSupported()) {
+            try {
+                HubExecutor.createVirtualThreadExecutor("test", 2);
+                fail("Virtual threads should not be available before Java 21");
+            } catch (final UnsupportedOperationException e) {
+                return;
+            }
+        }
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        try (HubExecutor executor = HubExecutor.createVirtualThreadExecutor("test", 2)) {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int index = 0; index < 20; index++) {
+                futures.add(executor.getExecutorService().submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        final int nowRunning = running.incrementAndGet();
+                        int previousMax;
+                        while ((previousMax = maxRunning.get()) < nowRunning && !maxRunning.compareAndSet(previousMax, nowRunning)) {
+                        }
+                        try {
+                            Thread.sleep(5);
+                        } catch (final InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        running.decrementAndGet();
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+            assertTrue(executor.isVirtual());
+            assertTrue(maxRunning.get() <= 2);
+            assertEquals(20, executor.getCompletedTaskCount());
+        }
+    }
+
+    @Test
+    public void testNestedTaskGroupsDoNotDeadlock() throws Exception {
+        try (HubExecutor executor = new HubExecutor("test", 1, 1)) {
+            final HubTaskGroup outerGroup = executor.createTaskGroup(1);
+            final List<Future<Integer>> outerFutures = new ArrayList<>();
+            for (int index = 0; index < 3; index++) {
+                outerFutures.add(outerGroup.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        // the only thread of the executor waits here, so the inner tasks run on it
+                        final HubTaskGroup innerGroup = executor.createTaskGroup(2);
+                        final List<Future<Integer>> innerFutures = new ArrayList<>();
+                        for (int innerIndex = 0; innerIndex < 4; innerIndex++) {
+                            innerFutures.add(innerGroup.submit(new Callable<Integer>() {
+                                @Override
+                                public Integer call() {
+                                    return 1;
+                                }
+                            }));
+                        }
+                        int sum = 0;
+                        for (final Future<Integer> innerFuture : innerFutures) {
+                            sum += innerGroup.get(innerFuture);
+                        }
+                        return sum;
+                    }
+                }));
+            }
+            int total = 0;
+            for (final Future<Integer> outerFuture : outerFutures) {
+                total += outerGroup.get(outerFuture);
+            }
+            assertEquals(12, total);
+        }
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testClosedExecutorRejectsTasks() {
+        final HubExecutor executor = new HubExecutor("test", 1, 1);
+        executor.close();
+        assertTrue(executor.isClosed());
+        executor.getExecutorService().submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.service.ratelimit.HubRateLimiter;
+
+public class HubMetricsRegistryTest {
+    @Test
+    public void testEndpointTemplates() {
+        assertEquals("/api/projects/{id}/versions/{id}", HubRequestTimer.toEndpointTemplate("https://hub.example.com/api/projects/0b3e1a4c-7d77-4a2a-9bd4-6f3a6d0f6a0e/versions/2b9c8f1e-5b1e-4d8a-8ad4-0a4c2f33e7a1?limit=100"));
+        assertEquals("/api/codelocations", HubRequestTimer.toEndpointTemplate("/api/codelocations"));
+        assertEquals("/api/v1/scans/{id}", HubRequestTimer.toEndpointTemplate("http://localhost:8080/api/v1/scans/12345"));
+    }
+
+    @Test
+    public void testRequestsAreAggregatedPerEndpoint() {
+        final HubMetricsRegistry metricsRegistry = new HubMetricsRegistry();
+        metricsRegistry.requestCompleted(new HubRequestMetrics("/api/projects", 200, TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(20), 1000, 1));
+        metricsRegistry.requestCompleted(new HubRequestMetrics("/api/projects", 200, TimeUnit.MILLISECONDS.toNanos(300), TimeUnit.MILLISECONDS.toNanos(40), 3000, 2));
+        metricsRegistry.requestCompleted(new HubRequestMetrics("/api/projects", 502, TimeUnit.MILLISECONDS.toNanos(5), 0, 0, 3));
+        metricsRegistry.requestCompleted(new HubRequestMetrics("/api/projects/{id}", 200, TimeUnit.MILLISECONDS.toNanos(1), 0, 100, 0));
+
+        final EndpointMetrics projects = metricsRegistry.getEndpointMetrics("/api/projects");
+        assertEquals(3, projects.getRequestCount());
+        assertEquals(1, projects.getFailureCount());
+        assertEquals(3, projects.getPageCount());
+        assertEquals(4000, projects.getBytesRead());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300), projects.getLatency().getMaxNanos());
+        final Map<Integer, Long> statusCodeCounts = projects.getStatusCodeCounts();
+        assertEquals(Long.valueOf(2), statusCodeCounts.get(200));
+        assertEquals(Long.valueOf(1), statusCodeCounts.get(502));
+
+        final List<EndpointMetrics> allMetrics = metricsRegistry.getAllEndpointMetrics();
+        assertEquals(2, allMetrics.size());
+        assertEquals("/api/projects", allMetrics.get(0).getEndpointTemplate());
+        assertEquals(4, metricsRegistry.getTotalRequestCount());
+    }
+
+    @Test
+    public void testRateLimiterIsReported() throws HubIntegrationException {
+        final HubMetricsRegistry metricsRegistry = new HubMetricsRegistry();
+        assertEquals(-1, metricsRegistry.getCurrentRateLimit());
+
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        metricsRegistry.setRateLimiter(rateLimiter);
+        final HubRateLimiter.Permit permit = rateLimiter.acquire();
+        assertEquals(1, metricsRegistry.getRateLimiterInFlightCount());
+        permit.failed(503);
+        permit.release();
+        assertEquals(4, metricsRegistry.getCurrentRateLimit());
+        assertEquals(1, metricsRegistry.getRateLimiterOverloadCount());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        final DurationHistogram histogram = new DurationHistogram();
+        for (int index = 0; index < 99; index++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(500));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(900));
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), histogram.getPercentileNanos(50));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), histogram.getPercentileNanos(99));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(900), histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void testListenersReceiveEveryRequest() {
+        final HubMetricsRegistry metricsRegistry = new HubMetricsRegistry();
+        final CountingListener listener = new CountingListener();
+        metricsRegistry.addListener(listener);
+        metricsRegistry.requestCompleted(new HubRequestMetrics("/api/projects", 200, 1, 1, 1, 1));
+        metricsRegistry.removeListener(listener);
+        metricsRegistry.requestCompleted(new HubRequestMetrics("/api/projects", 200, 1, 1, 1, 2));
+
+        assertEquals(1, listener.count);
+    }
+
+    private static class CountingListener implements HubRequestListener {
+        private int count;
+
+        @Override
+        public void requestCompleted(final HubRequestMetrics requestMetrics) {
+            count++;
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptivePageSizerTest {
+    @Test
+    public void testFirstPageUsesTheRequestLimit() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 1024 * 1024);
+        assertEquals(100, pageSizer.nextLimit(100, -1));
+        assertEquals(10, pageSizer.nextLimit(5, -1));
+        assertEquals(1000, pageSizer.nextLimit(5000, -1));
+    }
+
+    @Test
+    public void testFastPagesGrowTheLimitGradually() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 1024 * 1024);
+        pageSizer.recordPage(100, TimeUnit.MILLISECONDS.toNanos(10), 10000);
+        assertEquals(400, pageSizer.nextLimit(100, 5000));
+        assertEquals(1000, pageSizer.nextLimit(400, 5000));
+    }
+
+    @Test
+    public void testSlowPagesShrinkTheLimit() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 1024 * 1024);
+        pageSizer.recordPage(100, TimeUnit.MILLISECONDS.toNanos(4000), -1);
+        assertEquals(25, pageSizer.nextLimit(100, 5000));
+    }
+
+    @Test
+    public void testLargePayloadsShrinkTheLimit() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 100000);
+        pageSizer.recordPage(100, TimeUnit.MILLISECONDS.toNanos(10), 1000000);
+        assertEquals(10, pageSizer.nextLimit(100, 5000));
+    }
+
+    @Test
+    public void testLimitDoesNotExceedTheRemainingItems() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 1024 * 1024);
+        pageSizer.recordPage(100, TimeUnit.MILLISECONDS.toNanos(10), 10000);
+        assertEquals(150, pageSizer.nextLimit(100, 150));
+    }
+
+    @Test
+    public void testShortLastPageIsFetchedWithTheCurrentPage() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 1024 * 1024);
+        pageSizer.recordPage(100, TimeUnit.MILLISECONDS.toNanos(10), 10000);
+        assertEquals(450, pageSizer.nextLimit(100, 450));
+        assertEquals(400, pageSizer.nextLimit(100, 600));
+        assertEquals(1000, pageSizer.nextLimit(1000, 1200));
+    }
+
+    @Test
+    public void testShortLastPageIsKeptWhenTheRestIsTooSlow() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 1024 * 1024);
+        pageSizer.recordPage(100, TimeUnit.MILLISECONDS.toNanos(4000), -1);
+        assertEquals(25, pageSizer.nextLimit(100, 30));
+    }
+
+    @Test
+    public void testCopyDoesNotKeepObservations() {
+        final AdaptivePageSizer pageSizer = new AdaptivePageSizer(10, 1000, 1000, 1024 * 1024);
+        pageSizer.recordPage(100, TimeUnit.MILLISECONDS.toNanos(4000), -1);
+        final AdaptivePageSizer copy = new AdaptivePageSizer(pageSizer);
+        assertEquals(100, copy.nextLimit(100, 5000));
+        assertEquals(10, copy.getMinLimit());
+        assertEquals(1000, copy.getMaxLimit());
+    }
+
+}
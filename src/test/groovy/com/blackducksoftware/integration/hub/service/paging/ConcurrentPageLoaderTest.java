@@ -0,0 +1,179 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+import com.blackducksoftware.integration.hub.rest.RestConnection;
+import com.blackducksoftware.integration.hub.service.executor.HubExecutor;
+
+public class ConcurrentPageLoaderTest {
+    private final RestConnection restConnection = Mockito.mock(RestConnection.class);
+
+    @Test
+    public void testItemsAreReturnedInServerOrder() throws IntegrationException {
+        // the later pages answer first, so they complete out of order
+        final SlowPageFetcher pageFetcher = new SlowPageFetcher(95, -1, 0);
+        try (HubExecutor executor = new HubExecutor("test", 4, 100)) {
+            final List<Integer> items = new ConcurrentPageLoader<>(restConnection, pageFetcher, 4, executor).loadAllItems(createRequest(10));
+
+            assertEquals(95, items.size());
+            for (int index = 0; index < items.size(); index++) {
+                assertEquals(Integer.valueOf(index), items.get(index));
+            }
+            assertEquals(10, pageFetcher.pagesFetched.get());
+        }
+    }
+
+    @Test
+    public void testPagesInFlightAreLimited() throws IntegrationException {
+        final SlowPageFetcher pageFetcher = new SlowPageFetcher(200, -1, 20);
+        try (HubExecutor executor = new HubExecutor("test", 8, 100)) {
+            final List<Integer> items = new ConcurrentPageLoader<>(restConnection, pageFetcher, 3, executor).loadAllItems(createRequest(10));
+
+            assertEquals(200, items.size());
+            assertTrue("At most 3 pages should be in flight, but there were " + pageFetcher.maxInFlight.get(), pageFetcher.maxInFlight.get() <= 3);
+        }
+    }
+
+    @Test
+    public void testFailedPageStopsTheListing() {
+        final SlowPageFetcher pageFetcher = new SlowPageFetcher(1000, 30, 5);
+        try (HubExecutor executor = new HubExecutor("test", 4, 100)) {
+            try {
+                new ConcurrentPageLoader<>(restConnection, pageFetcher, 2, executor).loadAllItems(createRequest(10));
+                fail("Expected the failed page to be reported");
+            } catch (final IntegrationException e) {
+                assertSame(pageFetcher.failure, e);
+            }
+            // the first page, the pages before the failed one and a window of two around it, not the 100 pages of the listing
+            assertTrue("Too many pages were fetched: " + pageFetcher.pagesFetched.get(), pageFetcher.pagesFetched.get() <= 6);
+        }
+    }
+
+    @Test
+    public void testSinglePageIsFetchedOnTheCallingThread() throws IntegrationException {
+        final SlowPageFetcher pageFetcher = new SlowPageFetcher(7, -1, 0);
+        final List<Integer> items = new ConcurrentPageLoader<>(restConnection, pageFetcher, 4).loadAllItems(createRequest(10));
+
+        assertEquals(7, items.size());
+        assertEquals(1, pageFetcher.pagesFetched.get());
+    }
+
+    @Test
+    public void testPagesCappedByTheServerSkipNoItems() throws IntegrationException {
+        final SlowPageFetcher pageFetcher = new SlowPageFetcher(95, -1, 0);
+        pageFetcher.maxPageSize = 4;
+        try (HubExecutor executor = new HubExecutor("test", 4, 100)) {
+            final List<Integer> items = new ConcurrentPageLoader<>(restConnection, pageFetcher, 4, executor).loadAllItems(createRequest(10));
+
+            assertEquals(95, items.size());
+            for (int index = 0; index < items.size(); index++) {
+                assertEquals(Integer.valueOf(index), items.get(index));
+            }
+            assertEquals(24, pageFetcher.pagesFetched.get());
+        }
+    }
+
+    private HubPagedRequest createRequest(final int limit) {
+        // a real request, as the loader copies its url, segments and query parameters for every page
+        final HubPagedRequest hubPagedRequest = new HubPagedRequest(restConnection);
+        hubPagedRequest.urlSegments.add("api");
+        hubPagedRequest.limit = limit;
+        hubPagedRequest.offset = 0;
+        return hubPagedRequest;
+    }
+
+    /**
+     * Serves the offsets as items. Each page after the first one is delayed, the later pages less than the earlier ones, and the page at the failing
+     * offset throws.
+     */
+    private static class SlowPageFetcher implements HubPageFetcher<Integer> {
+        private final int totalCount;
+
+        private final int failingOffset;
+
+        private final long delayMillis;
+
+        private final HubIntegrationException failure = new HubIntegrationException("The Hub is unavailable");
+
+        private final AtomicInteger pagesFetched = new AtomicInteger();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        // the most items a page holds whatever the limit, as a Hub capping its pages would
+        private int maxPageSize = Integer.MAX_VALUE;
+
+        public SlowPageFetcher(final int totalCount, final int failingOffset, final long delayMillis) {
+            this.totalCount = totalCount;
+            this.failingOffset = failingOffset;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public HubPage<Integer> fetchPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+            pagesFetched.incrementAndGet();
+            final int current = inFlight.incrementAndGet();
+            int max = maxInFlight.get();
+            while (current > max && !maxInFlight.compareAndSet(max, current)) {
+                max = maxInFlight.get();
+            }
+            try {
+                if (hubPagedRequest.offset > 0) {
+                    Thread.sleep(delayMillis + Math.max(0, 50 - hubPagedRequest.offset / 2));
+                }
+                if (hubPagedRequest.offset == failingOffset) {
+                    throw failure;
+                }
+                final List<Integer> items = new ArrayList<>();
+                final int pageSize = Math.min(maxPageSize, hubPagedRequest.limit);
+                for (int index = hubPagedRequest.offset; index < Math.min(totalCount, hubPagedRequest.offset + pageSize); index++) {
+                    items.add(index);
+                }
+                return new HubPage<>(totalCount, items);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new HubIntegrationException("Interrupted", e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,179 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+
+public class HubPagedItemIteratorTest {
+    @Test
+    public void testAllPagesAreFetchedInOrder() {
+        final CountingPageFetcher pageFetcher = new CountingPageFetcher(25);
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(createRequest(10), pageFetcher);
+        final List<Integer> items = new ArrayList<>();
+        while (iterator.hasNext()) {
+            items.add(iterator.next());
+        }
+
+        assertEquals(25, items.size());
+        for (int index = 0; index < items.size(); index++) {
+            assertEquals(Integer.valueOf(index), items.get(index));
+        }
+        assertEquals(3, pageFetcher.pagesFetched);
+        assertEquals(25, iterator.getTotalCount());
+    }
+
+    @Test
+    public void testPagesAreFetchedLazily() {
+        final CountingPageFetcher pageFetcher = new CountingPageFetcher(100);
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(createRequest(10), pageFetcher);
+        assertEquals(0, pageFetcher.pagesFetched);
+
+        for (int index = 0; index < 11; index++) {
+            iterator.next();
+        }
+        assertEquals(2, pageFetcher.pagesFetched);
+
+        iterator.close();
+        assertFalse(iterator.hasNext());
+        assertEquals(2, pageFetcher.pagesFetched);
+    }
+
+    @Test
+    public void testClosingTheStreamStopsPaging() {
+        final CountingPageFetcher pageFetcher = new CountingPageFetcher(100);
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(createRequest(10), pageFetcher);
+        final long count = iterator.stream().limit(15).count();
+
+        assertEquals(15, count);
+        assertEquals(2, pageFetcher.pagesFetched);
+    }
+
+    @Test
+    public void testEmptyListing() {
+        final CountingPageFetcher pageFetcher = new CountingPageFetcher(0);
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(createRequest(10), pageFetcher);
+
+        assertFalse(iterator.hasNext());
+        assertEquals(1, pageFetcher.pagesFetched);
+    }
+
+    @Test
+    public void testAdaptivePageSizeKeepsEveryItemInOrder() {
+        final CountingPageFetcher pageFetcher = new CountingPageFetcher(1000);
+        final HubPagedRequest hubPagedRequest = createRequest(10);
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(hubPagedRequest, pageFetcher, new AdaptivePageSizer(10, 500, 60000, 1024 * 1024));
+        int expected = 0;
+        while (iterator.hasNext()) {
+            assertEquals(Integer.valueOf(expected++), iterator.next());
+        }
+
+        assertEquals(1000, expected);
+        assertTrue(hubPagedRequest.limit > 10);
+        assertTrue(pageFetcher.pagesFetched < 100);
+    }
+
+    @Test
+    public void testPagesCappedByTheServerSkipNoItems() {
+        final CountingPageFetcher pageFetcher = new CountingPageFetcher(25, 4);
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(createRequest(10), pageFetcher);
+        int expected = 0;
+        while (iterator.hasNext()) {
+            assertEquals(Integer.valueOf(expected++), iterator.next());
+        }
+
+        assertEquals(25, expected);
+        assertEquals(7, pageFetcher.pagesFetched);
+    }
+
+    @Test
+    public void testEmptyPageBeforeTheTotalCountStopsPaging() {
+        final CountingPageFetcher pageFetcher = new CountingPageFetcher(25, 10, 20);
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(createRequest(10), pageFetcher);
+        int count = 0;
+        while (iterator.hasNext()) {
+            iterator.next();
+            count++;
+        }
+
+        assertEquals(20, count);
+        assertEquals(3, pageFetcher.pagesFetched);
+    }
+
+    private HubPagedRequest createRequest(final int limit) {
+        final HubPagedRequest hubPagedRequest = Mockito.mock(HubPagedRequest.class);
+        hubPagedRequest.limit = limit;
+        hubPagedRequest.offset = 0;
+        return hubPagedRequest;
+    }
+
+    /**
+     * Serves at most maxPageSize items a page whatever the limit, and reports totalCount items while only availableCount of them can be fetched
+     */
+    private static class CountingPageFetcher implements HubPageFetcher<Integer> {
+        private final int totalCount;
+
+        private final int maxPageSize;
+
+        private final int availableCount;
+
+        private int pagesFetched;
+
+        public CountingPageFetcher(final int totalCount) {
+            this(totalCount, Integer.MAX_VALUE);
+        }
+
+        public CountingPageFetcher(final int totalCount, final int maxPageSize) {
+            this(totalCount, maxPageSize, totalCount);
+        }
+
+        public CountingPageFetcher(final int totalCount, final int maxPageSize, final int availableCount) {
+            this.totalCount = totalCount;
+            this.maxPageSize = maxPageSize;
+            this.availableCount = availableCount;
+        }
+
+        @Override
+        public HubPage<Integer> fetchPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+            pagesFetched++;
+            final List<Integer> items = new ArrayList<>();
+            final int pageSize = Math.min(maxPageSize, hubPagedRequest.limit);
+            for (int index = hubPagedRequest.offset; index < Math.min(availableCount, hubPagedRequest.offset + pageSize); index++) {
+                items.add(index);
+            }
+            return new HubPage<>(totalCount, items);
+        }
+    }
+
+}
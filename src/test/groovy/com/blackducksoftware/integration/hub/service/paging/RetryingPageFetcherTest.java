@@ -0,0 +1,142 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.paging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.request.HubPagedRequest;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.blackducksoftware.integration.hub.service.retry.RetryPolicy;
+
+public class RetryingPageFetcherTest {
+    @Test
+    public void testOnlyTheFailedPageIsRetried() throws IntegrationException {
+        final FailingPageFetcher pageFetcher = new FailingPageFetcher(50, 20, 2);
+        final RetryingPageFetcher<Integer> retryingPageFetcher = new RetryingPageFetcher<>(pageFetcher, new RetryPolicy(3, 0, 0, 1.0, 0.0));
+        final HubPagedItemIterator<Integer> iterator = new HubPagedItemIterator<>(createRequest(10), retryingPageFetcher);
+        int count = 0;
+        while (iterator.hasNext()) {
+            assertEquals(Integer.valueOf(count++), iterator.next());
+        }
+
+        assertEquals(50, count);
+        assertEquals(7, pageFetcher.pagesRequested);
+    }
+
+    @Test
+    public void testBackoffIsNotCountedInThePageLatency() throws IntegrationException {
+        final FailingPageFetcher pageFetcher = new FailingPageFetcher(50, 0, 1);
+        final RetryingPageFetcher<Integer> retryingPageFetcher = new RetryingPageFetcher<>(pageFetcher, new RetryPolicy(3, 300, 300, 1.0, 0.0));
+        final long startNanos = System.nanoTime();
+        final HubPage<Integer> page = retryingPageFetcher.fetchPage(createRequest(10));
+
+        assertEquals(10, page.getItems().size());
+        assertTrue(System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(300));
+        assertTrue(page.getElapsedNanos() >= 0);
+        assertTrue(page.getElapsedNanos() < TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    public void testCheckpointResumesAfterTheLastPage() throws IntegrationException {
+        final FailingPageFetcher pageFetcher = new FailingPageFetcher(50, 30, 1);
+        final HubPagingCheckpoint<Integer> checkpoint = new HubPagingCheckpoint<>();
+        final HubPagedRequest hubPagedRequest = createRequest(10);
+        try {
+            drain(new HubPagedItemIterator<>(hubPagedRequest, new CheckpointingPageFetcher<>(pageFetcher, checkpoint)));
+            fail("Expected the page at offset 30 to fail");
+        } catch (final RuntimeException e) {
+            assertEquals(30, checkpoint.getOffset());
+            assertEquals(30, checkpoint.getItems().size());
+        }
+
+        checkpoint.applyTo(hubPagedRequest);
+        drain(new HubPagedItemIterator<>(hubPagedRequest, new CheckpointingPageFetcher<>(pageFetcher, checkpoint)));
+
+        assertTrue(checkpoint.isComplete());
+        final List<Integer> items = checkpoint.getItems();
+        assertEquals(50, items.size());
+        for (int index = 0; index < items.size(); index++) {
+            assertEquals(Integer.valueOf(index), items.get(index));
+        }
+        assertEquals(Arrays.asList(0, 10, 20, 30, 30, 40), pageFetcher.offsetsRequested);
+    }
+
+    private void drain(final HubPagedItemIterator<Integer> iterator) {
+        while (iterator.hasNext()) {
+            iterator.next();
+        }
+    }
+
+    private HubPagedRequest createRequest(final int limit) {
+        final HubPagedRequest hubPagedRequest = Mockito.mock(HubPagedRequest.class);
+        hubPagedRequest.limit = limit;
+        hubPagedRequest.offset = 0;
+        return hubPagedRequest;
+    }
+
+    private static class FailingPageFetcher implements HubPageFetcher<Integer> {
+        private final int totalCount;
+
+        private final int failingOffset;
+
+        private int failuresLeft;
+
+        private int pagesRequested;
+
+        private final List<Integer> offsetsRequested = new ArrayList<>();
+
+        public FailingPageFetcher(final int totalCount, final int failingOffset, final int failures) {
+            this.totalCount = totalCount;
+            this.failingOffset = failingOffset;
+            this.failuresLeft = failures;
+        }
+
+        @Override
+        public HubPage<Integer> fetchPage(final HubPagedRequest hubPagedRequest) throws IntegrationException {
+            pagesRequested++;
+            offsetsRequested.add(hubPagedRequest.offset);
+            if (hubPagedRequest.offset == failingOffset && failuresLeft > 0) {
+                failuresLeft--;
+                throw new IntegrationRestException(502, "Bad Gateway", "");
+            }
+            final List<Integer> items = new ArrayList<>();
+            for (int index = hubPagedRequest.offset; index < Math.min(totalCount, hubPagedRequest.offset + hubPagedRequest.limit); index++) {
+                items.add(index);
+            }
+            return new HubPage<>(totalCount, items);
+        }
+    }
+
+}
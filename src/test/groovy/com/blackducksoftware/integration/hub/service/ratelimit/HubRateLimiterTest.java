@@ -0,0 +1,219 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.ratelimit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.EOFException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.exception.IntegrationException;
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.google.gson.stream.MalformedJsonException;
+
+public class HubRateLimiterTest {
+    @Test
+    public void testOverloadShrinksTheLimit() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        final HubRateLimiter.Permit permit = rateLimiter.acquire();
+        permit.failed(429);
+        permit.release();
+        assertEquals(4, rateLimiter.getCurrentLimit());
+        assertEquals(1, rateLimiter.getOverloadCount());
+        assertEquals(0, rateLimiter.getInFlightCount());
+    }
+
+    @Test
+    public void testIOFailuresShrinkTheLimit() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        final HubRateLimiter.Permit permit = rateLimiter.acquire();
+        permit.failed(new IntegrationException(new SocketTimeoutException("Read timed out")));
+        permit.release();
+        assertEquals(4, rateLimiter.getCurrentLimit());
+        assertEquals(1, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testClientErrorsDoNotShrinkTheLimit() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        final HubRateLimiter.Permit permit = rateLimiter.acquire();
+        permit.failed(new IntegrationRestException(404, "Not Found", ""));
+        permit.release();
+        assertEquals(8, rateLimiter.getCurrentLimit());
+        assertEquals(0, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testRefusedConnectionsAndUnavailableShrinkTheLimit() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        HubRateLimiter.Permit permit = rateLimiter.acquire();
+        permit.failed(new IntegrationException(new ConnectException("Connection refused")));
+        permit.release();
+        assertEquals(1, rateLimiter.getOverloadCount());
+
+        permit = rateLimiter.acquire();
+        permit.failed(new IntegrationRestException(503, "Service Unavailable", ""));
+        permit.release();
+        assertEquals(2, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testParseFailuresDoNotShrinkTheLimit() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        HubRateLimiter.Permit permit = rateLimiter.acquire();
+        permit.failed(new HubIntegrationException(new MalformedJsonException("Unterminated object at line 1 column 42")));
+        permit.release();
+
+        permit = rateLimiter.acquire();
+        permit.failed(new HubIntegrationException(new EOFException("End of input")));
+        permit.release();
+
+        permit = rateLimiter.acquire();
+        permit.failed(new IntegrationRestException(500, "Internal Server Error", ""));
+        permit.release();
+        assertEquals(8, rateLimiter.getCurrentLimit());
+        assertEquals(0, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testSlowerResponsesOfAnEndpointShrinkTheLimit() throws Exception {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        respond(rateLimiter, "http://hub/api/projects/1", 10, 0);
+        respond(rateLimiter, "http://hub/api/projects/2", 100, 0);
+        assertEquals(4, rateLimiter.getCurrentLimit());
+        assertEquals(1, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testEndpointsKeepTheirOwnBaseline() throws Exception {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        respond(rateLimiter, "http://hub/api/projects/1", 10, 0);
+        respond(rateLimiter, "http://hub/api/v1/reports/2/content", 100, 0);
+        respond(rateLimiter, "http://hub/api/v1/reports/3/content", 100, 0);
+        respond(rateLimiter, "http://hub/api/projects/4", 10, 0);
+        assertEquals(8, rateLimiter.getCurrentLimit());
+        assertEquals(0, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testReadingTheBodyIsNotScored() throws Exception {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        respond(rateLimiter, "http://hub/api/projects/1", 10, 0);
+        respond(rateLimiter, "http://hub/api/projects/2", 10, 100);
+        assertEquals(8, rateLimiter.getCurrentLimit());
+        assertEquals(0, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testRequestsWithoutResponseHeadersAreNotScored() throws Exception {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 8, 1, 64, 0.5, 2.0);
+        respond(rateLimiter, "http://hub/api/projects/1", 10, 0);
+        final HubRateLimiter.Permit permit = rateLimiter.acquire();
+        // an upload or a download, which does not report when its headers arrived
+        Thread.sleep(100);
+        permit.release();
+        assertEquals(8, rateLimiter.getCurrentLimit());
+        assertEquals(0, rateLimiter.getOverloadCount());
+    }
+
+    @Test
+    public void testLimitGrowsWhileItIsReached() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 2, 1, 64, 0.5, 1000.0);
+        for (int round = 0; round < 20; round++) {
+            final List<HubRateLimiter.Permit> permits = new ArrayList<>();
+            for (int index = 0; index < rateLimiter.getCurrentLimit(); index++) {
+                permits.add(rateLimiter.acquire());
+            }
+            for (final HubRateLimiter.Permit permit : permits) {
+                permit.release();
+            }
+        }
+        assertTrue(rateLimiter.getCurrentLimit() > 2);
+    }
+
+    @Test
+    public void testLimitIsNotGrownWhileUnused() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 4, 1, 64, 0.5, 1000.0);
+        for (int index = 0; index < 100; index++) {
+            rateLimiter.acquire().release();
+        }
+        assertEquals(4, rateLimiter.getCurrentLimit());
+    }
+
+    @Test
+    public void testRequestsWaitForAConcurrencySlot() throws Exception {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(0, 0, 1, 1, 1, 0.5, 2.0);
+        final HubRateLimiter.Permit permit = rateLimiter.acquire();
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waitingThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    rateLimiter.acquire().release();
+                    acquired.countDown();
+                } catch (final HubIntegrationException e) {
+                    // the latch stays closed
+                }
+            }
+        });
+        waitingThread.start();
+        assertTrue(!acquired.await(200, TimeUnit.MILLISECONDS));
+        permit.release();
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(1, rateLimiter.getThrottledCount());
+    }
+
+    @Test
+    public void testTokenBucketLimitsTheRate() throws HubIntegrationException {
+        final HubRateLimiter rateLimiter = new HubRateLimiter(20, 1, 8, 1, 64, 0.5, 1000.0);
+        final long start = System.nanoTime();
+        for (int index = 0; index < 5; index++) {
+            rateLimiter.acquire().release();
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // the first request uses the burst, the other four wait 50 ms each
+        assertTrue(elapsedMillis >= 150);
+        assertEquals(4, rateLimiter.getThrottledCount());
+    }
+
+    /**
+     * A request whose headers arrive after headerMillis, and whose body then takes bodyMillis to read
+     */
+    private void respond(final HubRateLimiter rateLimiter, final String url, final long headerMillis, final long bodyMillis) throws Exception {
+        final HubRateLimiter.Permit permit = rateLimiter.acquire();
+        permit.responseReceived(url, TimeUnit.MILLISECONDS.toNanos(headerMillis));
+        Thread.sleep(bodyMillis);
+        permit.release();
+    }
+
+}
@@ -0,0 +1,79 @@
+/**
+ * Hub Common
+ *
+ * Copyright (C) 2017 Black Duck Software, Inc.
+ * http://www.blackducksoftware.com/
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.blackducksoftware.integration.hub.service.retry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.blackducksoftware.integration.hub.exception.HubIntegrationException;
+import com.blackducksoftware.integration.hub.rest.exception.IntegrationRestException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.MalformedJsonException;
+
+public class RetryPolicyTest {
+    @Test
+    public void testRetryableFailures() {
+        final RetryPolicy retryPolicy = new RetryPolicy();
+        assertTrue(retryPolicy.isRetryable(new IntegrationRestException(502, "Bad Gateway", "")));
+        assertTrue(retryPolicy.isRetryable(new IntegrationRestException(429, "Too Many Requests", "")));
+        assertTrue(retryPolicy.isRetryable(new HubIntegrationException(new IOException("Connection reset"))));
+        assertFalse(retryPolicy.isRetryable(new IntegrationRestException(404, "Not Found", "")));
+        assertFalse(retryPolicy.isRetryable(new HubIntegrationException("Could not parse the response")));
+        assertFalse(retryPolicy.isRetryable(new HubIntegrationException(new MalformedJsonException("Unterminated object at line 1 column 42"))));
+        assertFalse(retryPolicy.isRetryable(new HubIntegrationException(new JsonSyntaxException(new MalformedJsonException("Unterminated object")))));
+    }
+
+    @Test
+    public void testAttemptsAreLimited() {
+        final RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000, 2.0, 0.0);
+        final IntegrationRestException e = new IntegrationRestException(503, "Service Unavailable", "");
+        assertTrue(retryPolicy.shouldRetry(1, e));
+        assertTrue(retryPolicy.shouldRetry(2, e));
+        assertFalse(retryPolicy.shouldRetry(3, e));
+    }
+
+    @Test
+    public void testBackoffGrowsUpToTheMaximum() {
+        final RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000, 2.0, 0.0);
+        assertEquals(100, retryPolicy.getBackoffMilliseconds(1));
+        assertEquals(200, retryPolicy.getBackoffMilliseconds(2));
+        assertEquals(800, retryPolicy.getBackoffMilliseconds(4));
+        assertEquals(1000, retryPolicy.getBackoffMilliseconds(5));
+    }
+
+    @Test
+    public void testJitterStaysWithinBounds() {
+        final RetryPolicy retryPolicy = new RetryPolicy(10, 1000, 1000, 2.0, 0.2);
+        for (int index = 0; index < 100; index++) {
+            final long backoff = retryPolicy.getBackoffMilliseconds(1);
+            assertTrue(backoff >= 800 && backoff <= 1200);
+        }
+    }
+
+}